@@ -0,0 +1,77 @@
+#!/usr/bin/env python3
+"""
+Compare two JMH JSON result files (java -jar benchmarks.jar -rf json -rff FILE) and
+flag benchmarks that got slower by more than a threshold.
+
+Benchmarks are matched by name and parameters. Scores are compared in the unit JMH
+reported them in. Throughput modes are higher-is-better, the others lower-is-better.
+Exits with status 1 when any benchmark regressed.
+
+Example:
+    python3 benchmarks/compare.py results/0.1.0.json results/0.2.0.json --threshold 10
+"""
+
+from __future__ import annotations
+
+import argparse
+import json
+import sys
+from pathlib import Path
+
+
+def parse_args() -> argparse.Namespace:
+    p = argparse.ArgumentParser(description="Compare two JMH JSON result files")
+    p.add_argument("baseline", type=Path)
+    p.add_argument("current", type=Path)
+    p.add_argument(
+        "--threshold",
+        type=float,
+        default=10.0,
+        help="Percent change counted as a regression (default: 10)",
+    )
+    return p.parse_args()
+
+
+def load(path: Path) -> dict[str, dict]:
+    results = {}
+    for run in json.loads(path.read_text()):
+        params = run.get("params") or {}
+        key = run["benchmark"] + "".join(f" {k}={v}" for k, v in sorted(params.items()))
+        results[key] = run
+    return results
+
+
+def main() -> int:
+    args = parse_args()
+    baseline = load(args.baseline)
+    current = load(args.current)
+    regressions = 0
+    for key in sorted(baseline.keys() | current.keys()):
+        if key not in current:
+            print(f"  gone  {key}")
+            continue
+        if key not in baseline:
+            print(f"  new   {key}")
+            continue
+        before = baseline[key]["primaryMetric"]
+        after = current[key]["primaryMetric"]
+        if before["score"] == 0:
+            continue
+        change = (after["score"] - before["score"]) / before["score"] * 100
+        higher_is_better = current[key]["mode"] == "thrpt"
+        slower = -change if higher_is_better else change
+        flag = "  "
+        if slower > args.threshold:
+            flag = "!!"
+            regressions += 1
+        print(
+            f"{flag}  {change:+7.1f}%  {key}: {before['score']:.3f} -> {after['score']:.3f}"
+            f" {after['scoreUnit']}"
+        )
+    if regressions:
+        print(f"{regressions} benchmark(s) regressed by more than {args.threshold}%")
+    return 1 if regressions else 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -0,0 +1,61 @@
+package com.umdb.bench;
+
+import com.umdb.service.CatalogVersion;
+import com.umdb.service.TimedQueries;
+import com.umdb.service.TitleFilterIndex;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.cache.support.NoOpCacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.time.Duration;
+
+/**
+ * Connection pool for the database-backed benchmarks. Points at the local docker compose
+ * Postgres by default, override with {@code -Dumdb.jdbc.url}, {@code -Dumdb.jdbc.user} and
+ * {@code -Dumdb.jdbc.password}.
+ */
+public final class BenchmarkDatabase {
+    private BenchmarkDatabase() {}
+
+    public static HikariDataSource open() {
+        HikariConfig config = new HikariConfig();
+        config.setJdbcUrl(System.getProperty("umdb.jdbc.url",
+            "jdbc:postgresql://localhost:5432/umdb?options=-c%20hnsw.ef_search=200"));
+        config.setUsername(System.getProperty("umdb.jdbc.user", "umdb"));
+        config.setPassword(System.getProperty("umdb.jdbc.password", "umdb"));
+        config.setMaximumPoolSize(4);
+        config.setPoolName("umdb-bench");
+        return new HikariDataSource(config);
+    }
+
+    /** Filter bitmaps over the given database, empty until {@link TitleFilterIndex#rebuild()}. */
+    public static TitleFilterIndex filterIndex(DataSource dataSource) {
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        return new TitleFilterIndex(jdbcTemplate,
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+            catalogVersion(jdbcTemplate));
+    }
+
+    /** Catalog version of the given database, with no caches to clear when it moves. */
+    public static CatalogVersion catalogVersion(JdbcTemplate jdbcTemplate) {
+        return new CatalogVersion(jdbcTemplate, new NoOpCacheManager());
+    }
+
+    /** Named queries over the given database, timed into a throwaway registry and never explained. */
+    public static TimedQueries timedQueries(DataSource dataSource) {
+        TimedQueries queries = new TimedQueries(new NamedParameterJdbcTemplate(dataSource),
+            new TransactionTemplate(new DataSourceTransactionManager(dataSource)), new SimpleMeterRegistry());
+        Field threshold = ReflectionUtils.findField(TimedQueries.class, "slowThreshold");
+        ReflectionUtils.makeAccessible(threshold);
+        ReflectionUtils.setField(threshold, queries, Duration.ofDays(1));
+        return queries;
+    }
+}
@@ -0,0 +1,377 @@
+package com.umdb.bench;
+
+import com.umdb.service.EmbeddingQuantization;
+import com.zaxxer.hikari.HikariDataSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replaces the catalog with a synthetic one of a given size, bulk loaded with {@code COPY}, to
+ * measure how search, suggest and recommendations scale. Titles fall into topic clusters: each
+ * cluster has a centroid embedding its titles scatter around and a few genres they mostly carry,
+ * so neighbour queries and the hnsw index behave as on real data rather than on uniform noise.
+ * Popularity, cast sizes, actor billing and review counts are long tailed.
+ *
+ * <p>Every row is derived from the seed and its own id, so a table can be generated without
+ * holding the others in memory and the same arguments always produce the same data. Generated
+ * users all have the password {@value #PASSWORD}.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.umdb.bench.DatasetGenerator 100k --replace
+ * </pre>
+ *
+ * The scale is {@code 10k}, {@code 100k}, {@code 1m}, {@code 10m} or a number of titles. The
+ * database is chosen as for the benchmarks, see {@link BenchmarkDatabase}. The hnsw embedding
+ * indexes are dropped before loading; the backend recreates the configured one at startup.
+ */
+public final class DatasetGenerator {
+    static final String PASSWORD = "password";
+
+    private static final int DIMENSIONS = 256;
+    private static final float CLUSTER_SPREAD = 0.6f;
+    private static final int MAX_CAST = 60;
+    private static final int MAX_REVIEWS = 500;
+    private static final LocalDate FIRST_RELEASE = LocalDate.of(1920, 1, 1);
+    private static final String IMAGE_BASE = "https://image.tmdb.org/t/p/";
+
+    private static final String[] ADJECTIVES = {
+        "Last", "Silent", "Dark", "Lost", "Broken", "Hidden", "Golden", "Wild", "Final", "Secret",
+        "Crimson", "Endless", "Frozen", "Burning", "Forgotten", "Distant", "Hollow", "Eternal",
+        "Little", "Great", "Midnight", "Savage", "Quiet", "Bright", "Cold", "Deadly", "Fallen",
+        "First", "Lonely", "Perfect", "Shattered", "Stolen", "Strange", "True", "Wicked"
+    };
+    private static final String[] NOUNS = {
+        "Night", "River", "Kingdom", "Star", "Garden", "City", "Road", "Storm", "Shadow", "House",
+        "Empire", "Island", "Mountain", "Ocean", "Heart", "Game", "Witness", "Voyage", "Dream",
+        "Frontier", "Legacy", "Promise", "Hunter", "Machine", "Signal", "Harbor", "Winter",
+        "Summer", "Crown", "Mirror", "Wolf", "Orchard", "Station", "Tide", "Valley", "Circus"
+    };
+    private static final String[] WORDS = {
+        "a", "young", "detective", "must", "uncover", "the", "truth", "behind", "family", "secret",
+        "when", "an", "unexpected", "visitor", "arrives", "in", "small", "town", "and", "war",
+        "threatens", "to", "destroy", "everything", "they", "love", "after", "years", "of", "exile",
+        "former", "soldier", "returns", "home", "find", "his", "her", "world", "changed", "forever",
+        "friends", "journey", "across", "dangerous", "land", "search", "for", "missing", "sister",
+        "ancient", "power", "awakens", "beneath", "city", "while", "rivals", "plot", "revenge",
+        "love", "story", "set", "against", "backdrop", "revolution", "crew", "space", "station",
+        "discovers", "signal", "from", "deep", "past", "mystery", "grows", "darker", "every", "step"
+    };
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda", "David",
+        "Elizabeth", "William", "Barbara", "Richard", "Susan", "Joseph", "Jessica", "Thomas", "Sarah",
+        "Charles", "Karen", "Daniel", "Nancy", "Matthew", "Lisa", "Anthony", "Betty", "Mark", "Sandra",
+        "Yuki", "Hiro", "Amara", "Chen", "Ines", "Mateo", "Priya", "Omar", "Lena", "Kofi", "Sofia"
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis", "Rodriguez",
+        "Martinez", "Hernandez", "Lopez", "Gonzalez", "Wilson", "Anderson", "Thomas", "Taylor",
+        "Moore", "Jackson", "Martin", "Lee", "Perez", "Thompson", "White", "Harris", "Sanchez",
+        "Clark", "Tanaka", "Nakamura", "Okafor", "Silva", "Rossi", "Novak", "Kowalski", "Dubois"
+    };
+
+    private final long seed;
+    private final int titles;
+    private final int people;
+    private final int users;
+    private final int clusters;
+    private final long[] genreIds;
+    private final int releaseDays;
+    private final float[][] centroids;
+
+    DatasetGenerator(long seed, int titles, long[] genreIds) {
+        this.seed = seed;
+        this.titles = titles;
+        this.people = Math.max(100, titles * 2);
+        this.users = Math.clamp(titles / 10, 100, 1_000_000);
+        this.clusters = Math.max(8, (int) Math.sqrt(titles));
+        this.genreIds = genreIds;
+        this.releaseDays = (int) (LocalDate.now().plusYears(1).toEpochDay() - FIRST_RELEASE.toEpochDay());
+        this.centroids = new float[clusters][];
+        for (int c = 0; c < clusters; c++) {
+            SplittableRandom random = random(Table.CLUSTERS, c);
+            float[] centroid = new float[DIMENSIONS];
+            for (int d = 0; d < DIMENSIONS; d++) {
+                centroid[d] = (float) random.nextGaussian();
+            }
+            centroids[c] = normalise(centroid);
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 0) {
+            System.err.println("Usage: DatasetGenerator <10k|100k|1m|10m|titles> [--replace] [--seed n]");
+            System.exit(2);
+        }
+        int titles = parseScale(args[0]);
+        boolean replace = false;
+        long seed = 42;
+        for (int i = 1; i < args.length; i++) {
+            switch (args[i]) {
+                case "--replace" -> replace = true;
+                case "--seed" -> seed = Long.parseLong(args[++i]);
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+
+        try (HikariDataSource dataSource = BenchmarkDatabase.open()) {
+            JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+            long[] genreIds = jdbcTemplate.queryForList("select id from genres order by id", Long.class)
+                .stream().mapToLong(Long::longValue).toArray();
+            if (genreIds.length == 0) {
+                throw new IllegalStateException("No genres, start the backend once to create and seed the schema");
+            }
+            Long existing = jdbcTemplate.queryForObject("select count(*) from titles", Long.class);
+            if (existing != null && existing > 0 && !replace) {
+                throw new IllegalStateException("The database has %d titles, pass --replace to delete them"
+                    .formatted(existing));
+            }
+            new DatasetGenerator(seed, titles, genreIds).load(dataSource, jdbcTemplate);
+        }
+    }
+
+    static int parseScale(String scale) {
+        return switch (scale.toLowerCase(Locale.ROOT)) {
+            case "10k" -> 10_000;
+            case "100k" -> 100_000;
+            case "1m" -> 1_000_000;
+            case "10m" -> 10_000_000;
+            default -> Integer.parseInt(scale);
+        };
+    }
+
+    private void load(HikariDataSource dataSource, JdbcTemplate jdbcTemplate) throws SQLException, IOException {
+        System.out.printf("Generating %,d titles, %,d people and %,d users in %,d clusters%n",
+            titles, people, users, clusters);
+        jdbcTemplate.execute("""
+            truncate titles, people, users, title_genres, cast_members, reviews,
+                     title_review_stats, title_similar, title_similar_state, person_profiles,
+                     person_profile_changes
+            """);
+        for (EmbeddingQuantization quantization : EmbeddingQuantization.values()) {
+            jdbcTemplate.execute("drop index if exists " + quantization.indexName());
+        }
+        try (Connection connection = dataSource.getConnection()) {
+            PGConnection pg = connection.unwrap(PGConnection.class);
+            copy(pg, """
+                titles (id, type, title, overview, release_date, runtime_minutes, season_count,
+                        rating, rating_count, tmdb_rating, tmdb_rating_count, popularity, poster_url,
+                        backdrop_url, embedding)""",
+                titles, this::writeTitle);
+            copy(pg, "title_genres (title_id, genre_id)", titles, this::writeTitleGenres);
+            copy(pg, "people (id, name, profile_url)", people, this::writePerson);
+            copy(pg, "cast_members (title_id, person_id, character_name, billing_order)", titles, this::writeCast);
+            String passwordHash = new BCryptPasswordEncoder().encode(PASSWORD);
+            copy(pg, "users (id, name, email, password_hash)", users,
+                (id, out) -> out.append(Long.toString(id)).append("\tUser ").append(Long.toString(id))
+                    .append("\tuser").append(Long.toString(id)).append("@example.com\t")
+                    .append(passwordHash).append('\n'));
+            copy(pg, "reviews (title_id, user_id, rating, review)", titles, this::writeReviews);
+        }
+        for (String table : List.of("titles", "people", "users", "cast_members", "reviews")) {
+            jdbcTemplate.execute("select setval(pg_get_serial_sequence('%s', 'id'), (select coalesce(max(id), 1) from %s))"
+                .formatted(table, table));
+        }
+        jdbcTemplate.execute("analyze");
+        System.out.println("Done. Restart the backend to rebuild the embedding index and in-memory indexes.");
+    }
+
+    private interface RowWriter {
+        void write(long id, Writer out) throws IOException;
+    }
+
+    /** Streams rows for ids 1 to {@code count} into {@code COPY target from stdin}. */
+    private static void copy(PGConnection connection, String target, long count, RowWriter rows)
+        throws SQLException, IOException {
+        long start = System.nanoTime();
+        String table = target.substring(0, target.indexOf(' '));
+        try (Writer out = new BufferedWriter(new OutputStreamWriter(
+            new PGCopyOutputStream(connection, "copy " + target + " from stdin", 1 << 20),
+            StandardCharsets.UTF_8), 1 << 16)) {
+            for (long id = 1; id <= count; id++) {
+                rows.write(id, out);
+                if (id % 1_000_000 == 0) {
+                    System.out.printf("  %s: %,d of %,d%n", table, id, count);
+                }
+            }
+        }
+        System.out.printf("%s loaded in %d s%n", table, TimeUnit.NANOSECONDS.toSeconds(System.nanoTime() - start));
+    }
+
+    private void writeTitle(long id, Writer out) throws IOException {
+        SplittableRandom random = random(Table.TITLES, id);
+        int cluster = cluster(id);
+        boolean movie = random.nextInt(10) < 7;
+        out.append(Long.toString(id)).append('\t').append(movie ? "MOVIE" : "TV").append('\t');
+        out.append(title(random, cluster)).append('\t');
+        int words = 15 + random.nextInt(30);
+        for (int i = 0; i < words; i++) {
+            out.append(i == 0 ? "" : " ").append(WORDS[zipf(random, WORDS.length)]);
+        }
+        out.append('.').append('\t');
+        out.append(FIRST_RELEASE.plusDays(random.nextInt(releaseDays)).toString()).append('\t');
+        out.append(movie ? Integer.toString(80 + random.nextInt(80)) : "\\N").append('\t');
+        out.append(movie ? "\\N" : Integer.toString(1 + random.nextInt(8))).append('\t');
+        double rating = Math.clamp(6.5 + 1.1 * random.nextGaussian(), 1, 10);
+        // Pareto tails: a few titles take most of the attention
+        double attention = Math.pow(random.nextDouble(), 3);
+        // The imported rating, repeated as the rating: the generated reviews are not folded into it
+        String ratings = String.format(Locale.ROOT, "%.2f\t%d\t", rating, (int) (attention * 30_000));
+        out.append(ratings).append(ratings);
+        out.append(String.format(Locale.ROOT, "%.4f", 0.5 + attention * 800)).append('\t');
+        out.append(random.nextInt(10) == 0 ? "\\N" : IMAGE_BASE + "w500/p" + id + ".jpg").append('\t');
+        out.append(random.nextInt(5) == 0 ? "\\N" : IMAGE_BASE + "w1280/b" + id + ".jpg").append('\t');
+        writeVector(embedding(random, cluster), out);
+        out.append('\n');
+    }
+
+    private CharSequence title(SplittableRandom random, int cluster) {
+        // Titles of a cluster share a word, as franchises and themes do
+        StringBuilder title = new StringBuilder(32);
+        if (random.nextBoolean()) {
+            title.append("The ");
+        }
+        title.append(ADJECTIVES[zipf(random, ADJECTIVES.length)]).append(' ')
+            .append(NOUNS[cluster % NOUNS.length]);
+        if (random.nextInt(4) == 0) {
+            title.append(' ').append(2 + random.nextInt(4));
+        } else if (random.nextInt(3) == 0) {
+            title.append(" of the ").append(NOUNS[zipf(random, NOUNS.length)]);
+        }
+        return title;
+    }
+
+    private void writeTitleGenres(long id, Writer out) throws IOException {
+        SplittableRandom random = random(Table.TITLE_GENRES, id);
+        SplittableRandom clusterRandom = random(Table.CLUSTERS, cluster(id));
+        int count = 1 + random.nextInt(3);
+        long written = 0;
+        for (int i = 0; i < count; i++) {
+            // Mostly the cluster's own genres, sometimes any
+            int genre = random.nextInt(4) == 0
+                ? random.nextInt(genreIds.length)
+                : clusterRandom.nextInt(genreIds.length);
+            if ((written & 1L << genre) == 0) {
+                written |= 1L << genre;
+                out.append(Long.toString(id)).append('\t').append(Long.toString(genreIds[genre])).append('\n');
+            }
+        }
+    }
+
+    private void writePerson(long id, Writer out) throws IOException {
+        SplittableRandom random = random(Table.PEOPLE, id);
+        out.append(Long.toString(id)).append('\t')
+            .append(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]).append(' ')
+            .append(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        if (random.nextInt(3) == 0) {
+            out.append(' ').append(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        }
+        out.append('\t').append(random.nextInt(4) == 0 ? "\\N" : IMAGE_BASE + "w185/a" + id + ".jpg").append('\n');
+    }
+
+    private void writeCast(long id, Writer out) throws IOException {
+        SplittableRandom random = random(Table.CAST, id);
+        int size = 3 + (int) (Math.pow(random.nextDouble(), 2) * (MAX_CAST - 3));
+        for (int order = 0; order < size; order++) {
+            // Squaring skews billing towards a set of busy actors
+            long person = 1 + (long) (Math.pow(random.nextDouble(), 2) * people);
+            out.append(Long.toString(id)).append('\t').append(Long.toString(person)).append('\t')
+                .append("Character ").append(Integer.toString(order + 1)).append('\t')
+                .append(Integer.toString(order)).append('\n');
+        }
+    }
+
+    private void writeReviews(long id, Writer out) throws IOException {
+        SplittableRandom random = random(Table.REVIEWS, id);
+        // Pareto with alpha 1.5, about three reviews per title on average but hundreds on a few
+        double pareto = Math.pow(1 - random.nextDouble(), -1 / 1.5) - 1;
+        int count = (int) Math.min(Math.min(users, MAX_REVIEWS), 1.5 * pareto);
+        // Consecutive users from a random start, so no user reviews a title twice
+        long first = random.nextInt(users);
+        double mean = 5 + 3 * random.nextDouble();
+        for (int i = 0; i < count; i++) {
+            long user = 1 + (first + i) % users;
+            int rating = Math.clamp(Math.round(mean + 2 * random.nextGaussian()), 1, 10);
+            out.append(Long.toString(id)).append('\t').append(Long.toString(user)).append('\t')
+                .append(Integer.toString(rating)).append('\t');
+            int words = 5 + random.nextInt(40);
+            for (int w = 0; w < words; w++) {
+                out.append(w == 0 ? "" : " ").append(WORDS[zipf(random, WORDS.length)]);
+            }
+            out.append('\n');
+        }
+    }
+
+    private int cluster(long titleId) {
+        return random(Table.TITLE_CLUSTER, titleId).nextInt(clusters);
+    }
+
+    private float[] embedding(SplittableRandom random, int cluster) {
+        float[] centroid = centroids[cluster];
+        float[] vector = new float[DIMENSIONS];
+        float noise = CLUSTER_SPREAD / (float) Math.sqrt(DIMENSIONS);
+        for (int d = 0; d < DIMENSIONS; d++) {
+            vector[d] = centroid[d] + noise * (float) random.nextGaussian();
+        }
+        return normalise(vector);
+    }
+
+    private static float[] normalise(float[] vector) {
+        double norm = 0;
+        for (float v : vector) {
+            norm += v * v;
+        }
+        float scale = (float) (1 / Math.sqrt(norm));
+        for (int d = 0; d < vector.length; d++) {
+            vector[d] *= scale;
+        }
+        return vector;
+    }
+
+    /** pgvector text format with five decimals, without the cost of float to string. */
+    private static void writeVector(float[] vector, Writer out) throws IOException {
+        out.append('[');
+        for (int d = 0; d < vector.length; d++) {
+            if (d > 0) {
+                out.append(',');
+            }
+            int scaled = Math.round(vector[d] * 100_000);
+            if (scaled < 0) {
+                out.append('-');
+                scaled = -scaled;
+            }
+            out.append(Integer.toString(scaled / 100_000)).append('.');
+            String fraction = Integer.toString(scaled % 100_000);
+            for (int pad = fraction.length(); pad < 5; pad++) {
+                out.append('0');
+            }
+            out.append(fraction);
+        }
+        out.append(']');
+    }
+
+    /** Index in {@code [0, size)} skewed towards the start, like word frequencies. */
+    private static int zipf(SplittableRandom random, int size) {
+        return (int) (Math.pow(random.nextDouble(), 2.5) * size);
+    }
+
+    private SplittableRandom random(Table table, long id) {
+        return new SplittableRandom(seed * 0x9E3779B97F4A7C15L + table.ordinal() * 0xBF58476D1CE4E5B9L + id);
+    }
+
+    private enum Table { CLUSTERS, TITLE_CLUSTER, TITLES, TITLE_GENRES, PEOPLE, CAST, REVIEWS }
+}
@@ -0,0 +1,143 @@
+package com.umdb.bench;
+
+import com.umdb.service.EmbeddingQuantization;
+import com.umdb.service.EmbeddingStore;
+import com.umdb.service.VectorIndex;
+import com.umdb.service.VectorIndexService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nearest-title queries against each {@link EmbeddingQuantization} index at a given rescoring
+ * depth, over the seeded titles. Setup creates the mode's index if it is missing and prints its
+ * build time, its size and recall@10 against exact search.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class EmbeddingQuantizationBenchmark {
+    private static final int QUERIES = 1024;
+    private static final int RECALL_QUERIES = 200;
+    private static final int RECALL_K = 10;
+
+    @Param({"NONE", "HALFVEC", "BINARY"})
+    public EmbeddingQuantization quantization;
+
+    @Param({"100", "400", "1000"})
+    public int depth;
+
+    private HikariDataSource dataSource;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private String sql;
+    private long[] queries;
+    private int next;
+    private long[] ids;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataSource = BenchmarkDatabase.open();
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        sql = quantization.neighbourSql();
+        ids = new long[depth];
+
+        JdbcTemplate plain = jdbcTemplate.getJdbcTemplate();
+        long start = System.nanoTime();
+        plain.execute(quantization.createIndexSql(quantization.indexName(), "titles"));
+        long buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        Long indexBytes = plain.queryForObject("select pg_relation_size(?::regclass)", Long.class,
+            quantization.indexName());
+
+        Path file = Files.createTempFile("umdb-vectors", ".bin");
+        try {
+            EmbeddingStore store = VectorIndexService.load(plain, file);
+            if (store == null) {
+                throw new IllegalStateException("No title embeddings in the benchmark database");
+            }
+            SplittableRandom random = new SplittableRandom(42);
+            queries = new long[QUERIES];
+            for (int i = 0; i < QUERIES; i++) {
+                queries[i] = store.id(random.nextInt(store.size()));
+            }
+            double recall = recall(new VectorIndex(store, null, 0));
+            System.out.printf("%n%s depth %d: index %.1f MiB, built in %d ms (0 if it existed), recall@%d %.4f%n",
+                quantization, depth, indexBytes / 1048576.0, buildMillis, RECALL_K, recall);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public int nearest() {
+        return nearest(queries[next++ & (QUERIES - 1)], ids);
+    }
+
+    private int nearest(long id, long[] ids) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("id", id)
+            .addValue("depth", depth)
+            .addValue("candidates", depth);
+        Integer count = transactionTemplate.execute(status -> {
+            jdbcTemplate.getJdbcTemplate().queryForObject("select set_config('hnsw.ef_search', ?, true)",
+                String.class, Integer.toString(Math.min(depth, 1000)));
+            int[] rows = new int[1];
+            jdbcTemplate.query(sql, params, rs -> {
+                ids[rows[0]++] = rs.getLong(1);
+            });
+            return rows[0];
+        });
+        return count != null ? count : 0;
+    }
+
+    private double recall(VectorIndex exact) {
+        long[] expected = new long[RECALL_K];
+        double[] distances = new double[RECALL_K];
+        int found = 0;
+        int total = 0;
+        for (int q = 0; q < RECALL_QUERIES; q++) {
+            int expectedCount = exact.nearestExact(queries[q], RECALL_K, expected, distances);
+            int actualCount = Math.min(RECALL_K, nearest(queries[q], ids));
+            total += expectedCount;
+            for (int i = 0; i < actualCount; i++) {
+                for (int j = 0; j < expectedCount; j++) {
+                    if (ids[i] == expected[j]) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+        }
+        return total == 0 ? 1 : (double) found / total;
+    }
+}
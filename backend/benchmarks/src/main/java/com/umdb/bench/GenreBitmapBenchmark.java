@@ -0,0 +1,82 @@
+package com.umdb.bench;
+
+import com.umdb.dto.GenreMatch;
+import com.umdb.dto.SearchRequestDto;
+import com.umdb.model.TitleType;
+import com.umdb.service.TitleFilterBitmaps;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDate;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+/**
+ * Candidate computation over synthetic filter bitmaps for a catalog of {@code titles} titles:
+ * 1, 3 or 5 genres combined with type, year range and minimum rating. Genre sizes are skewed
+ * like the real catalog, where a few genres cover most titles.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class GenreBitmapBenchmark {
+    private static final int GENRES = 19;
+
+    @Param({"1000000"})
+    public int titles;
+
+    @Param({"1", "3", "5"})
+    public int genres;
+
+    @Param({"ALL", "ANY"})
+    public GenreMatch match;
+
+    private TitleFilterBitmaps bitmaps;
+    private SearchRequestDto request;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        TitleFilterBitmaps.Builder builder = TitleFilterBitmaps.builder();
+        LocalDate epoch = LocalDate.of(1950, 1, 1);
+        for (int id = 1; id <= titles; id++) {
+            builder.title(id,
+                random.nextInt(4) == 0 ? TitleType.TV : TitleType.MOVIE,
+                epoch.plusDays(random.nextInt(75 * 365)),
+                random.nextInt(20) == 0 ? null : Math.round(random.nextDouble(1, 10) * 100) / 100.0);
+            int count = 1 + random.nextInt(3);
+            for (int i = 0; i < count; i++) {
+                // Log-uniform: genre g is picked with probability ~ 1 / g
+                builder.genre(id, (long) Math.exp(random.nextDouble() * Math.log(GENRES + 1)));
+            }
+        }
+        bitmaps = builder.build();
+
+        request = new SearchRequestDto();
+        // Every other genre, so the set mixes large and small ones
+        request.setGenreIds(LongStream.iterate(1, g -> g + 2).limit(genres).boxed().toList());
+        request.setGenreMatch(match);
+        request.setType(TitleType.MOVIE);
+        request.setYearFrom(1990);
+        request.setYearTo(2020);
+        request.setMinRating(6.0);
+    }
+
+    @Benchmark
+    public int candidates() {
+        return bitmaps.matching(request).getCardinality();
+    }
+}
@@ -0,0 +1,83 @@
+package com.umdb.bench;
+
+import com.umdb.dto.GenreMatch;
+import com.umdb.dto.SearchRequestDto;
+import com.umdb.dto.SearchResultDto;
+import com.umdb.service.SearchService;
+import com.umdb.service.TitleFilterIndex;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Filtered search with and without the in-memory filter bitmaps against the benchmark database.
+ * Genres are taken from the most used ones downwards, skipping every other one.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class GenreFilterSearchBenchmark {
+    @Param({"BITMAP", "SQL"})
+    public String filter;
+
+    @Param({"1", "3", "5"})
+    public int genres;
+
+    @Param({"ALL", "ANY"})
+    public GenreMatch match;
+
+    private HikariDataSource dataSource;
+    private SearchService searchService;
+    private SearchRequestDto request;
+
+    @Setup
+    public void setUp() {
+        dataSource = BenchmarkDatabase.open();
+        TitleFilterIndex filterIndex = BenchmarkDatabase.filterIndex(dataSource);
+        if ("BITMAP".equals(filter)) {
+            filterIndex.rebuild();
+        }
+        searchService = new SearchService(BenchmarkDatabase.timedQueries(dataSource), filterIndex);
+
+        List<Long> ranked = new JdbcTemplate(dataSource).queryForList("""
+            select genre_id from title_genres group by genre_id order by count(*) desc, genre_id
+            """, Long.class);
+        request = new SearchRequestDto();
+        request.setGenreIds(IntStream.range(0, genres)
+            .mapToObj(i -> ranked.get(Math.min(i * 2, ranked.size() - 1)))
+            .distinct()
+            .toList());
+        request.setGenreMatch(match);
+        request.setYearFrom(1990);
+        request.setMinRating(6.0);
+        request.setLimit(24);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public SearchResultDto search() {
+        return searchService.search(request);
+    }
+}
@@ -0,0 +1,421 @@
+package com.umdb.bench;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays a weighted mix of API traffic against a running backend and reports latency
+ * percentiles per operation from HDR histograms. Each request runs on its own virtual thread.
+ *
+ * <p>The open model starts operations at a fixed rate whatever the response times, and measures
+ * latency from the intended start, so a stalled server is charged for the requests that queue up
+ * behind it. The closed model runs a fixed number of users that each wait for their response
+ * before the next operation, which is how a saturated pool behaves from the inside. Giving
+ * several rates or concurrencies runs one step per value, to find where latency turns up.
+ *
+ * <pre>
+ * java -cp benchmarks/target/benchmarks.jar com.umdb.bench.LoadDriver --open 50,100,200,400
+ * java -cp benchmarks/target/benchmarks.jar com.umdb.bench.LoadDriver --closed 8,32,128 --duration PT2M
+ * </pre>
+ *
+ * Review posts log in as the users created by {@link DatasetGenerator}; without them the mix
+ * runs without reviews.
+ */
+public final class LoadDriver {
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final long HIGHEST_LATENCY = TimeUnit.MINUTES.toNanos(1);
+    private static final Duration KEYSTROKE_INTERVAL = Duration.ofMillis(120);
+    private static final int BOOTSTRAP_TITLES = 1000;
+
+    enum Operation {
+        HOME(5), SUGGEST(25), SEARCH(20), DETAIL(30), SIMILAR(15), REVIEW(5);
+
+        final int defaultWeight;
+
+        Operation(int defaultWeight) {
+            this.defaultWeight = defaultWeight;
+        }
+    }
+
+    private final URI baseUrl;
+    private final HttpClient client;
+    private final Duration timeout;
+    private final Map<Operation, Integer> weights;
+    private final List<HttpClient> sessions = new ArrayList<>();
+    private long[] titleIds;
+    private String[] words;
+    private long[] genreIds;
+
+    private final Map<Operation, Stats> stats = new EnumMap<>(Operation.class);
+    private final AtomicBoolean recording = new AtomicBoolean();
+
+    LoadDriver(URI baseUrl, Duration timeout, Map<Operation, Integer> weights) {
+        this.baseUrl = baseUrl;
+        this.timeout = timeout;
+        this.weights = weights;
+        this.client = newClient();
+    }
+
+    public static void main(String[] args) throws Exception {
+        URI baseUrl = URI.create("http://localhost:8080");
+        String model = null;
+        long[] steps = null;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(60);
+        Duration timeout = Duration.ofSeconds(10);
+        Duration think = Duration.ZERO;
+        int sessions = 20;
+        int maxInFlight = 10_000;
+        Path histogramDir = null;
+        Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (Operation op : Operation.values()) {
+            weights.put(op, op.defaultWeight);
+        }
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> baseUrl = URI.create(args[++i]);
+                case "--open", "--closed" -> {
+                    model = args[i].substring(2);
+                    steps = Arrays.stream(args[++i].split(",")).mapToLong(Long::parseLong).toArray();
+                }
+                case "--warmup" -> warmup = Duration.parse(args[++i]);
+                case "--duration" -> duration = Duration.parse(args[++i]);
+                case "--timeout" -> timeout = Duration.parse(args[++i]);
+                case "--think" -> think = Duration.parse(args[++i]);
+                case "--sessions" -> sessions = Integer.parseInt(args[++i]);
+                case "--max-in-flight" -> maxInFlight = Integer.parseInt(args[++i]);
+                case "--histograms" -> histogramDir = Path.of(args[++i]);
+                case "--mix" -> {
+                    weights.replaceAll((op, w) -> 0);
+                    for (String entry : args[++i].split(",")) {
+                        String[] parts = entry.split("=");
+                        weights.put(Operation.valueOf(parts[0].toUpperCase(Locale.ROOT)), Integer.parseInt(parts[1]));
+                    }
+                }
+                default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+            }
+        }
+        if (model == null) {
+            System.err.println("""
+                Usage: LoadDriver (--open <operations/s,...> | --closed <users,...>) [--url http://localhost:8080]
+                         [--warmup PT10S] [--duration PT60S] [--timeout PT10S] [--think PT0S]
+                         [--mix home=5,suggest=25,search=20,detail=30,similar=15,review=5]
+                         [--sessions 20] [--max-in-flight 10000] [--histograms dir]""");
+            System.exit(2);
+        }
+
+        LoadDriver driver = new LoadDriver(baseUrl, timeout, weights);
+        driver.bootstrap(sessions);
+        for (long step : steps) {
+            String label = model.equals("open") ? step + " operations/s" : step + " users";
+            System.out.printf("%n== %s model, %s: %s warmup, %s measured%n", model, label, warmup, duration);
+            long measuredNanos = model.equals("open")
+                ? driver.runOpen(step, warmup, duration, maxInFlight)
+                : driver.runClosed((int) step, think, warmup, duration);
+            driver.report(System.out, measuredNanos);
+            if (histogramDir != null) {
+                driver.writeHistograms(histogramDir, model + "-" + step);
+            }
+        }
+    }
+
+    /** Logs in the review sessions and samples titles, genres and title words to request. */
+    void bootstrap(int sessionCount) throws IOException, InterruptedException {
+        Set<Long> ids = new LinkedHashSet<>();
+        Set<String> titleWords = new LinkedHashSet<>();
+        for (int offset = 0; offset < BOOTSTRAP_TITLES; offset += 100) {
+            JsonNode page = JSON.readTree(send(client, post("/api/search",
+                Map.of("sort", "POPULAR", "limit", 100, "offset", offset))).body());
+            for (JsonNode item : page.path("items")) {
+                ids.add(item.path("id").asLong());
+                for (String word : item.path("title").asText().toLowerCase(Locale.ROOT).split("[^\\p{L}\\p{N}]+")) {
+                    if (word.length() >= 3) {
+                        titleWords.add(word);
+                    }
+                }
+            }
+            if (page.path("items").size() < 100) {
+                break;
+            }
+        }
+        if (ids.isEmpty()) {
+            throw new IllegalStateException("No titles found at " + baseUrl);
+        }
+        titleIds = ids.stream().mapToLong(Long::longValue).toArray();
+        words = titleWords.toArray(String[]::new);
+        List<Long> genres = new ArrayList<>();
+        JSON.readTree(send(client, get("/api/genres")).body()).forEach(g -> genres.add(g.path("id").asLong()));
+        genreIds = genres.stream().mapToLong(Long::longValue).toArray();
+
+        for (int i = 1; i <= sessionCount && weights.get(Operation.REVIEW) > 0; i++) {
+            HttpClient session = newClient();
+            HttpResponse<String> response = send(session, post("/api/auth/login",
+                Map.of("email", "user" + i + "@example.com", "password", DatasetGenerator.PASSWORD)));
+            if (response.statusCode() == 200) {
+                sessions.add(session);
+            }
+        }
+        if (sessions.isEmpty() && weights.get(Operation.REVIEW) > 0) {
+            System.out.println("No generated users to log in as, running without reviews");
+            weights.put(Operation.REVIEW, 0);
+        }
+        System.out.printf("Sampled %d titles, %d title words and %d genres; %d review sessions%n",
+            titleIds.length, words.length, genreIds.length, sessions.size());
+    }
+
+    long runOpen(long rate, Duration warmup, Duration duration, int maxInFlight) throws InterruptedException {
+        resetStats();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        LongAdder dropped = new LongAdder();
+        long intervalNanos = TimeUnit.SECONDS.toNanos(1) / rate;
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long i = 0; ; i++) {
+                long intended = start + i * intervalNanos;
+                if (intended >= end) {
+                    break;
+                }
+                waitUntil(intended);
+                if (intended >= measureFrom) {
+                    recording.set(true);
+                }
+                if (!inFlight.tryAcquire()) {
+                    dropped.increment();
+                    continue;
+                }
+                Operation op = pick();
+                executor.submit(() -> {
+                    try {
+                        execute(op, intended);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            recording.set(false);
+            executor.shutdownNow();
+        }
+        if (dropped.sum() > 0) {
+            System.out.printf("%d operations not started, over %d in flight%n", dropped.sum(), maxInFlight);
+        }
+        return duration.toNanos();
+    }
+
+    long runClosed(int users, Duration think, Duration warmup, Duration duration) throws InterruptedException {
+        resetStats();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int u = 0; u < users; u++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        execute(pick(), System.nanoTime());
+                        if (!think.isZero()) {
+                            LockSupport.parkNanos(think.toNanos());
+                        }
+                    }
+                });
+            }
+            waitUntil(measureFrom);
+            recording.set(true);
+            waitUntil(end);
+            recording.set(false);
+        }
+        return duration.toNanos();
+    }
+
+    private Operation pick() {
+        int total = weights.values().stream().mapToInt(Integer::intValue).sum();
+        int roll = ThreadLocalRandom.current().nextInt(total);
+        for (Map.Entry<Operation, Integer> entry : weights.entrySet()) {
+            roll -= entry.getValue();
+            if (roll < 0) {
+                return entry.getKey();
+            }
+        }
+        throw new IllegalStateException("Empty mix");
+    }
+
+    /** Runs one operation; latencies count from {@code intendedStart}. */
+    private void execute(Operation op, long intendedStart) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        switch (op) {
+            case HOME -> timed(op, intendedStart, client, get("/api/home"));
+            case SUGGEST -> {
+                // A user typing a word: one request per keystroke, sent on the typing schedule
+                String word = words[random.nextInt(words.length)];
+                for (int length = 1; length <= Math.min(word.length(), 6); length++) {
+                    long keystroke = intendedStart + (length - 1) * KEYSTROKE_INTERVAL.toNanos();
+                    waitUntil(keystroke);
+                    timed(op, keystroke, client, get("/api/search/suggest?q=" + word.substring(0, length)));
+                }
+            }
+            case SEARCH -> {
+                Map<String, Object> body = new HashMap<>();
+                body.put("query", random.nextInt(5) == 0 ? "" : words[random.nextInt(words.length)]);
+                body.put("limit", 24);
+                if (random.nextInt(3) == 0 && genreIds.length > 0) {
+                    body.put("genreIds", List.of(genreIds[random.nextInt(genreIds.length)]));
+                }
+                if (random.nextInt(4) == 0) {
+                    body.put("sort", random.nextBoolean() ? "RATING" : "NEWEST");
+                }
+                timed(op, intendedStart, client, post("/api/search", body));
+            }
+            case DETAIL -> timed(op, intendedStart, client, get("/api/titles/" + title(random)));
+            case SIMILAR -> timed(op, intendedStart, client, get("/api/titles/" + title(random) + "/similar"));
+            case REVIEW -> timed(op, intendedStart, sessions.get(random.nextInt(sessions.size())),
+                post("/api/titles/" + title(random) + "/reviews",
+                    Map.of("rating", 1 + random.nextInt(10), "review", "Load test review " + random.nextInt(1000))));
+        }
+    }
+
+    /** Titles in popularity order, skewed towards the most popular like real traffic. */
+    private long title(ThreadLocalRandom random) {
+        return titleIds[(int) (Math.pow(random.nextDouble(), 3) * titleIds.length)];
+    }
+
+    private void timed(Operation op, long intendedStart, HttpClient httpClient, HttpRequest request) {
+        int status;
+        try {
+            status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+        } catch (IOException e) {
+            status = -1;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        if (recording.get()) {
+            stats.get(op).record(System.nanoTime() - intendedStart, status);
+        }
+    }
+
+    private void resetStats() {
+        for (Operation op : Operation.values()) {
+            stats.put(op, new Stats());
+        }
+    }
+
+    void report(PrintStream out, long measuredNanos) {
+        double seconds = measuredNanos / 1e9;
+        out.printf("%-8s %9s %8s %7s %7s %9s %9s %9s %9s %9s%n",
+            "op", "requests", "req/s", "errors", "503s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        Histogram all = new Histogram(HIGHEST_LATENCY, 3);
+        long errors = 0;
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Stats s = entry.getValue();
+            Histogram h = s.latencies;
+            if (h.getTotalCount() == 0) {
+                continue;
+            }
+            all.add(h);
+            errors += s.errors.sum();
+            out.printf("%-8s %9d %8.1f %7d %7d %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+                entry.getKey().name().toLowerCase(Locale.ROOT), h.getTotalCount(), h.getTotalCount() / seconds,
+                s.errors.sum(), s.unavailable.sum(), ms(h, 50), ms(h, 90), ms(h, 99), ms(h, 99.9), h.getMaxValue() / 1e6);
+        }
+        out.printf("%-8s %9d %8.1f %7d %7s %9.1f %9.1f %9.1f %9.1f %9.1f%n",
+            "all", all.getTotalCount(), all.getTotalCount() / seconds, errors, "",
+            ms(all, 50), ms(all, 90), ms(all, 99), ms(all, 99.9), all.getMaxValue() / 1e6);
+    }
+
+    /** Writes each operation's latencies in the HdrHistogram percentile format, in milliseconds. */
+    void writeHistograms(Path dir, String prefix) throws IOException {
+        Files.createDirectories(dir);
+        for (Map.Entry<Operation, Stats> entry : stats.entrySet()) {
+            Path file = dir.resolve(prefix + "-" + entry.getKey().name().toLowerCase(Locale.ROOT) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                entry.getValue().latencies.outputPercentileDistribution(out, 1e6);
+            }
+        }
+    }
+
+    private static double ms(Histogram histogram, double percentile) {
+        return histogram.getValueAtPercentile(percentile) / 1e6;
+    }
+
+    private static void waitUntil(long nanoTime) {
+        long remaining;
+        while ((remaining = nanoTime - System.nanoTime()) > 0) {
+            LockSupport.parkNanos(remaining);
+        }
+    }
+
+    private HttpClient newClient() {
+        return HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .cookieHandler(new CookieManager())
+            .executor(Executors.newVirtualThreadPerTaskExecutor())
+            .build();
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(baseUrl.resolve(path)).timeout(timeout).GET().build();
+    }
+
+    private HttpRequest post(String path, Object body) {
+        try {
+            return HttpRequest.newBuilder(baseUrl.resolve(path))
+                .timeout(timeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(JSON.writeValueAsBytes(body)))
+                .build();
+        } catch (IOException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+    private static HttpResponse<String> send(HttpClient httpClient, HttpRequest request)
+        throws IOException, InterruptedException {
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static final class Stats {
+        final Histogram latencies = new ConcurrentHistogram(HIGHEST_LATENCY, 3);
+        final LongAdder errors = new LongAdder();
+        final LongAdder unavailable = new LongAdder();
+
+        void record(long latencyNanos, int status) {
+            latencies.recordValue(Math.min(latencyNanos, HIGHEST_LATENCY));
+            if (status == 503) {
+                unavailable.increment();
+            } else if (status < 200 || status >= 300) {
+                errors.increment();
+            }
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package com.umdb.bench;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.umdb.dto.CastDto;
+import com.umdb.dto.GenreDto;
+import com.umdb.dto.ReviewDto;
+import com.umdb.dto.ReviewStatsDto;
+import com.umdb.dto.SearchResultDto;
+import com.umdb.dto.TitleCardDto;
+import com.umdb.dto.TitleDetailDto;
+import com.umdb.model.Title;
+import com.umdb.model.TitleType;
+import com.umdb.service.TitleCardRowMapper;
+import com.umdb.service.TitleMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.lang.reflect.Proxy;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * CPU cost of turning titles into responses, without a database: entity to card mapping, the
+ * card row mapper shared by the SQL queries, and JSON serialization of a search page and of a
+ * title detail with a large cast. The row mapper reads from a map-backed {@link ResultSet} proxy,
+ * whose reflective dispatch is included in the score.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MappingBenchmark {
+    private static final int PAGE_SIZE = 24;
+    private static final int CAST_SIZE = 80;
+
+    private final TitleMapper mapper = new TitleMapper();
+    private ObjectMapper objectMapper;
+    private Title title;
+    private ResultSet cardRow;
+    private SearchResultDto searchResult;
+    private TitleDetailDto detail;
+
+    @Setup
+    public void setUp() {
+        // As configured by Spring Boot for the API
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+            .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+        title = Title.builder()
+            .id(42L)
+            .type(TitleType.MOVIE)
+            .title("The Long Goodbye")
+            .overview("A private eye is drawn into a web of lies after helping an old friend leave town. ".repeat(4))
+            .releaseDate(LocalDate.of(1973, 3, 7))
+            .rating(7.4)
+            .ratingCount(1234)
+            .popularity(23.5)
+            .posterUrl("https://image.tmdb.org/t/p/w342/poster.jpg")
+            .backdropUrl("https://image.tmdb.org/t/p/w1280/backdrop.jpg")
+            .build();
+        cardRow = resultSet(Map.of(
+            "id", 42L,
+            "type", "MOVIE",
+            "title", title.getTitle(),
+            "overview", title.getOverview(),
+            "release_date", title.getReleaseDate(),
+            "rating", title.getRating(),
+            "rating_count", title.getRatingCount(),
+            "popularity", title.getPopularity(),
+            "poster_url", title.getPosterUrl(),
+            "backdrop_url", title.getBackdropUrl()));
+
+        TitleCardDto card = mapper.toCard(title);
+        searchResult = SearchResultDto.builder()
+            .items(IntStream.range(0, PAGE_SIZE).mapToObj(i -> card).toList())
+            .total(1000)
+            .build();
+        List<CastDto> cast = new ArrayList<>(CAST_SIZE);
+        for (int i = 0; i < CAST_SIZE; i++) {
+            cast.add(CastDto.builder()
+                .id((long) i)
+                .name("Actor " + i)
+                .profileUrl("https://image.tmdb.org/t/p/w185/profile" + i + ".jpg")
+                .characterName("Character " + i)
+                .build());
+        }
+        ReviewDto review = ReviewDto.builder()
+            .id(1L)
+            .rating(8)
+            .review("Still holds up. ".repeat(10))
+            .createdAt(Instant.parse("2026-01-01T00:00:00Z"))
+            .updatedAt(Instant.parse("2026-01-02T00:00:00Z"))
+            .userId(7L)
+            .userName("reviewer")
+            .build();
+        detail = TitleDetailDto.builder()
+            .id(title.getId())
+            .type(title.getType())
+            .title(title.getTitle())
+            .overview(title.getOverview())
+            .releaseDate(title.getReleaseDate())
+            .runtimeMinutes(112)
+            .rating(title.getRating())
+            .ratingCount(title.getRatingCount())
+            .popularity(title.getPopularity())
+            .posterUrl(title.getPosterUrl())
+            .backdropUrl(title.getBackdropUrl())
+            .genres(List.of(GenreDto.builder().id(1L).name("Crime").build(),
+                GenreDto.builder().id(2L).name("Mystery").build(),
+                GenreDto.builder().id(3L).name("Thriller").build()))
+            .cast(cast)
+            .recentReviews(List.of(review, review))
+            .reviewStats(ReviewStatsDto.builder()
+                .count(12)
+                .ratingCounts(List.of(0, 0, 1, 0, 1, 2, 3, 3, 1, 1))
+                .build())
+            .build();
+    }
+
+    @Benchmark
+    public TitleCardDto toCard() {
+        return mapper.toCard(title);
+    }
+
+    @Benchmark
+    public TitleCardDto cardRowMapper() throws SQLException {
+        return TitleCardRowMapper.INSTANCE.mapRow(cardRow, 0);
+    }
+
+    @Benchmark
+    public byte[] serializeSearchResult() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(searchResult);
+    }
+
+    @Benchmark
+    public byte[] serializeTitleDetail() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(detail);
+    }
+
+    /** Read-only single row supporting the getters the row mappers use. */
+    private static ResultSet resultSet(Map<String, Object> row) {
+        Map<String, Object> values = new HashMap<>(row);
+        boolean[] wasNull = new boolean[1];
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(),
+            new Class<?>[] {ResultSet.class}, (proxy, method, args) -> {
+                if (method.getName().equals("wasNull")) {
+                    return wasNull[0];
+                }
+                if (args == null || !(args[0] instanceof String column)) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                Object value = values.get(column);
+                wasNull[0] = value == null;
+                return switch (method.getName()) {
+                    case "getString" -> value != null ? value.toString() : null;
+                    case "getLong" -> value != null ? ((Number) value).longValue() : 0L;
+                    case "getInt" -> value != null ? ((Number) value).intValue() : 0;
+                    case "getDouble" -> value != null ? ((Number) value).doubleValue() : 0.0;
+                    case "getObject" -> value;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                };
+            });
+    }
+}
@@ -0,0 +1,87 @@
+package com.umdb.bench;
+
+import com.umdb.model.TitleType;
+import com.umdb.service.HybridReranker;
+import com.umdb.service.SimilarTitleStore;
+import com.umdb.service.TitleFeatures;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link HybridReranker} over synthetic features: {@code titles} titles with two to four of 19
+ * genres, a long-tailed popularity and 90% with posters, and {@code candidates} neighbours in
+ * ascending distance order, as the ANN query returns them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RerankBenchmark {
+    private static final int SOURCES = 1024;
+    private static final int GENRES = 19;
+
+    @Param({"100000"})
+    public int titles;
+
+    @Param({"200", "1000"})
+    public int candidates;
+
+    @Param({"12"})
+    public int limit;
+
+    private final HybridReranker reranker = new HybridReranker(0.55, 0.2, 0.25);
+    private TitleFeatures features;
+    private long[] sources;
+    private long[][] candidateIds;
+    private double[] distances;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        TitleFeatures.Builder builder = TitleFeatures.builder();
+        for (long id = 1; id <= titles; id++) {
+            TitleType type = random.nextInt(3) == 0 ? TitleType.TV : TitleType.MOVIE;
+            builder.title(id, type, 1000 * Math.pow(random.nextDouble(), 4), random.nextInt(10) != 0);
+            int genres = 2 + random.nextInt(3);
+            for (int g = 0; g < genres; g++) {
+                builder.genre(id, 1 + random.nextInt(GENRES));
+            }
+        }
+        features = builder.build();
+
+        sources = new long[SOURCES];
+        candidateIds = new long[SOURCES][];
+        for (int i = 0; i < SOURCES; i++) {
+            sources[i] = 1 + random.nextInt(titles);
+            candidateIds[i] = random.longs(candidates, 1, titles + 1L).toArray();
+        }
+        distances = new double[candidates];
+        for (int i = 0; i < candidates; i++) {
+            distances[i] = random.nextDouble(0.1, 0.9);
+        }
+        Arrays.sort(distances);
+    }
+
+    @Benchmark
+    public List<SimilarTitleStore.Neighbour> rerank() {
+        int i = next++ & (SOURCES - 1);
+        return reranker.rerank(features, sources[i], candidateIds[i], distances, candidates, limit);
+    }
+}
@@ -0,0 +1,72 @@
+package com.umdb.bench;
+
+import com.umdb.dto.SearchRequestDto;
+import com.umdb.dto.SearchResultDto;
+import com.umdb.dto.SearchSort;
+import com.umdb.service.SearchExecution;
+import com.umdb.service.SearchService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Split (page + count) vs fused single-statement search against the seeded database.
+ * SampleTime mode reports the p50/p90/p99 latency distribution per execution mode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SearchExecutionBenchmark {
+    @Param({"SPLIT", "FUSED"})
+    public SearchExecution execution;
+
+    @Param({"", "the", "star"})
+    public String query;
+
+    @Param({"POPULAR", "NEWEST", "RATING"})
+    public SearchSort sort;
+
+    @Param({"0", "480"})
+    public int offset;
+
+    private HikariDataSource dataSource;
+    private SearchService searchService;
+    private SearchRequestDto request;
+
+    @Setup
+    public void setUp() {
+        dataSource = BenchmarkDatabase.open();
+        searchService = new SearchService(BenchmarkDatabase.timedQueries(dataSource),
+            BenchmarkDatabase.filterIndex(dataSource));
+        request = new SearchRequestDto();
+        request.setQuery(query);
+        request.setSort(sort);
+        request.setLimit(24);
+        request.setOffset(offset);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public SearchResultDto search() {
+        return searchService.search(request, execution);
+    }
+}
@@ -0,0 +1,129 @@
+package com.umdb.bench;
+
+import com.umdb.dto.TitleCardDto;
+import com.umdb.repository.TitleRepository;
+import com.umdb.service.CatalogVersion;
+import com.umdb.service.EmbeddingQuantization;
+import com.umdb.service.HybridReranker;
+import com.umdb.service.RecommendationService;
+import com.umdb.service.SimilarTitleStore;
+import com.umdb.service.TimedQueries;
+import com.umdb.service.TitleFeatureCache;
+import com.umdb.service.VectorIndexService;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link RecommendationService#getSimilar} for random seeded titles, either served from the
+ * precomputed {@code title_similar} rows or computed on request from the ANN query in Postgres
+ * and the reranker, as for titles the background job has not reached yet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SimilarTitlesBenchmark {
+    private static final int QUERIES = 1024;
+    private static final int LIMIT = 12;
+
+    public enum Source { STORED, COMPUTED }
+
+    @Param({"STORED", "COMPUTED"})
+    public Source source;
+
+    private HikariDataSource dataSource;
+    private RecommendationService recommendationService;
+    private long[] titleIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        dataSource = BenchmarkDatabase.open();
+        JdbcTemplate jdbcTemplate = new JdbcTemplate(dataSource);
+        NamedParameterJdbcTemplate namedJdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        CatalogVersion catalogVersion = BenchmarkDatabase.catalogVersion(jdbcTemplate);
+        TimedQueries queries = BenchmarkDatabase.timedQueries(dataSource);
+
+        SimilarTitleStore store = source == Source.STORED
+            ? new SimilarTitleStore(namedJdbcTemplate, transactionTemplate, queries)
+            : new SimilarTitleStore(namedJdbcTemplate, transactionTemplate, queries) {
+                @Override
+                public Optional<List<TitleCardDto>> find(long titleId, int limit) {
+                    return Optional.empty();
+                }
+            };
+        recommendationService = new RecommendationService(titleRepository(jdbcTemplate), namedJdbcTemplate,
+            queries, store, new TitleFeatureCache(jdbcTemplate, transactionTemplate, catalogVersion),
+            new HybridReranker(0.55, 0.2, 0.25),
+            new VectorIndexService(jdbcTemplate, transactionTemplate, catalogVersion, new SimpleMeterRegistry()),
+            transactionTemplate);
+        setField(recommendationService, "quantization", EmbeddingQuantization.NONE);
+        setField(recommendationService, "rescoreDepth", 1000);
+
+        List<Long> ids = jdbcTemplate.queryForList("select id from titles", Long.class);
+        if (source == Source.STORED) {
+            Long stored = jdbcTemplate.queryForObject("select count(distinct title_id) from title_similar", Long.class);
+            System.out.printf("%n%d of %d titles have stored neighbours%n", stored, ids.size());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        titleIds = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            titleIds[i] = ids.get(random.nextInt(ids.size()));
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<TitleCardDto> getSimilar() {
+        return recommendationService.getSimilar(titleIds[next++ & (QUERIES - 1)], LIMIT);
+    }
+
+    /** Only {@code existsById} is used on the computed path. */
+    private static TitleRepository titleRepository(JdbcTemplate jdbcTemplate) {
+        return (TitleRepository) Proxy.newProxyInstance(TitleRepository.class.getClassLoader(),
+            new Class<?>[] {TitleRepository.class}, (proxy, method, args) -> {
+                if (!method.getName().equals("existsById")) {
+                    throw new UnsupportedOperationException(method.getName());
+                }
+                return jdbcTemplate.queryForObject("select exists (select 1 from titles where id = ?)",
+                    Boolean.class, args[0]);
+            });
+    }
+
+    private static void setField(Object target, String name, Object value) {
+        Field field = ReflectionUtils.findField(target.getClass(), name);
+        ReflectionUtils.makeAccessible(field);
+        ReflectionUtils.setField(field, target, value);
+    }
+}
@@ -0,0 +1,68 @@
+package com.umdb.bench;
+
+import com.umdb.dto.SearchSuggestionDto;
+import com.umdb.service.SearchService;
+import com.umdb.service.SuggestIndex;
+import com.umdb.service.SuggestionService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete from the in-memory suggestion index vs the SQL prefix query, both over the seeded
+ * titles. Queries simulate successive keystrokes, from a single letter to two tokens.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class SuggestBenchmark {
+    @Param({"s", "st", "sta", "star", "the", "the l"})
+    public String query;
+
+    private HikariDataSource dataSource;
+    private SearchService searchService;
+    private SuggestIndex index;
+    private LocalDate today;
+
+    @Setup
+    public void setUp() {
+        dataSource = BenchmarkDatabase.open();
+        searchService = new SearchService(BenchmarkDatabase.timedQueries(dataSource),
+            BenchmarkDatabase.filterIndex(dataSource));
+        index = SuggestionService.load(new JdbcTemplate(dataSource));
+        today = LocalDate.now();
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<SearchSuggestionDto> sql() {
+        return searchService.suggest(query);
+    }
+
+    @Benchmark
+    public List<SearchSuggestionDto> index() {
+        return index.suggest(query, 6, today);
+    }
+}
@@ -0,0 +1,114 @@
+package com.umdb.bench;
+
+import com.umdb.dto.TitleDetailDto;
+import com.umdb.service.TitleDetailLoader;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Title detail loading for the titles with the largest casts: {@link TitleDetailLoader} against
+ * the single genre x cast join the JPA fetch used to run, whose rows are deduplicated the way
+ * Hibernate did. {@code batch} titles are loaded per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class TitleDetailBenchmark {
+    private static final int TITLES = 256;
+    private static final String JOIN_SQL = """
+        select t.id, t.type, t.title, t.overview, t.release_date, t.runtime_minutes, t.season_count,
+               t.rating, t.rating_count, t.popularity, t.poster_url, t.backdrop_url,
+               g.id as genre_id, g.name as genre_name,
+               cm.id as cast_id, cm.character_name, cm.billing_order,
+               p.id as person_id, p.name as person_name, p.profile_url
+        from titles t
+        left join title_genres tg on tg.title_id = t.id
+        left join genres g on g.id = tg.genre_id
+        left join cast_members cm on cm.title_id = t.id
+        left join people p on p.id = cm.person_id
+        where t.id = any(:ids)
+        """;
+
+    @Param({"1", "20"})
+    public int batch;
+
+    private HikariDataSource dataSource;
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private TitleDetailLoader loader;
+    private long[] titleIds;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        dataSource = BenchmarkDatabase.open();
+        jdbcTemplate = new NamedParameterJdbcTemplate(dataSource);
+        loader = new TitleDetailLoader(BenchmarkDatabase.timedQueries(dataSource));
+        titleIds = jdbcTemplate.getJdbcTemplate().queryForList("""
+            select title_id
+            from cast_members
+            group by title_id
+            order by count(*) desc, title_id
+            limit ?
+            """, Long.class, TITLES).stream().mapToLong(Long::longValue).toArray();
+        if (titleIds.length < batch) {
+            throw new IllegalStateException("Not enough titles with cast in the benchmark database");
+        }
+        Long rows = jdbcTemplate.getJdbcTemplate().queryForObject("""
+            select (select count(*) from title_genres where title_id = ?)
+                 * (select count(*) from cast_members where title_id = ?)
+            """, Long.class, titleIds[0], titleIds[0]);
+        System.out.printf("%nLargest cast: title %d, %d joined rows%n", titleIds[0], rows);
+    }
+
+    @TearDown
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    @Benchmark
+    public List<TitleDetailDto> loader() {
+        return loader.loadAll(nextIds());
+    }
+
+    @Benchmark
+    public int joinedFetch() {
+        Set<List<Long>> genres = new HashSet<>();
+        Set<Long> cast = new HashSet<>();
+        jdbcTemplate.query(JOIN_SQL, new MapSqlParameterSource("ids", nextIds()), rs -> {
+            genres.add(List.of(rs.getLong("id"), rs.getLong("genre_id")));
+            cast.add(rs.getLong("cast_id"));
+            rs.getString("title");
+            rs.getString("overview");
+            rs.getString("person_name");
+            rs.getString("character_name");
+        });
+        return genres.size() + cast.size();
+    }
+
+    private long[] nextIds() {
+        int from = (next++ * batch) % (titleIds.length - batch + 1);
+        return Arrays.copyOfRange(titleIds, from, from + batch);
+    }
+}
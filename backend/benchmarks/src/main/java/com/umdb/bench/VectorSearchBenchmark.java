@@ -0,0 +1,140 @@
+package com.umdb.bench;
+
+import com.umdb.service.EmbeddingStore;
+import com.umdb.service.HnswGraph;
+import com.umdb.service.VectorIndex;
+import com.umdb.service.VectorIndexService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * k nearest titles by embedding: pgvector's hnsw index vs the in-process {@link VectorIndex},
+ * searched exactly or through an {@link HnswGraph}, over the seeded titles. Setup prints the
+ * recall@k of each source against exact search over the same queries.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SampleTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+public class VectorSearchBenchmark {
+    private static final int QUERIES = 1024;
+    private static final int RECALL_QUERIES = 200;
+
+    public enum Source { PGVECTOR, EXACT, HNSW }
+
+    @Param({"PGVECTOR", "EXACT", "HNSW"})
+    public Source source;
+
+    @Param({"10", "100"})
+    public int k;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private Path file;
+    private VectorIndex exact;
+    private VectorIndex hnsw;
+    private long[] queries;
+    private int next;
+    private long[] ids;
+    private double[] distances;
+
+    @Setup
+    public void setUp() throws IOException {
+        dataSource = BenchmarkDatabase.open();
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        file = Files.createTempFile("umdb-vectors", ".bin");
+        EmbeddingStore store = VectorIndexService.load(jdbcTemplate, file);
+        if (store == null) {
+            throw new IllegalStateException("No title embeddings in the benchmark database");
+        }
+        exact = new VectorIndex(store, null, 200);
+        if (source == Source.HNSW) {
+            hnsw = new VectorIndex(store, HnswGraph.build(store, 16, 100, 42), 200);
+        }
+
+        SplittableRandom random = new SplittableRandom(42);
+        queries = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            queries[i] = store.id(random.nextInt(store.size()));
+        }
+        ids = new long[k];
+        distances = new double[k];
+        System.out.printf("%n%s recall@%d: %.4f over %d titles%n", source, k, recall(), store.size());
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        dataSource.close();
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public int nearest() {
+        long id = queries[next++ & (QUERIES - 1)];
+        return nearest(id, ids, distances);
+    }
+
+    private int nearest(long id, long[] ids, double[] distances) {
+        return switch (source) {
+            case PGVECTOR -> pgvector(id, ids, distances);
+            case EXACT -> exact.nearestExact(id, k, ids, distances);
+            case HNSW -> hnsw.nearest(id, k, ids, distances);
+        };
+    }
+
+    private int pgvector(long id, long[] ids, double[] distances) {
+        int[] count = new int[1];
+        jdbcTemplate.query("""
+            select t.id, t.embedding <=> (select embedding from titles where id = ?) as distance
+            from titles t
+            order by t.embedding <=> (select embedding from titles where id = ?)
+            limit ?
+            """, rs -> {
+            ids[count[0]] = rs.getLong(1);
+            distances[count[0]++] = rs.getDouble(2);
+        }, id, id, k);
+        return count[0];
+    }
+
+    private double recall() {
+        long[] expected = new long[k];
+        long[] actual = new long[k];
+        double[] scratch = new double[k];
+        int found = 0;
+        int total = 0;
+        for (int q = 0; q < RECALL_QUERIES; q++) {
+            int expectedCount = exact.nearestExact(queries[q], k, expected, scratch);
+            int actualCount = nearest(queries[q], actual, scratch);
+            total += expectedCount;
+            for (int i = 0; i < actualCount; i++) {
+                for (int j = 0; j < expectedCount; j++) {
+                    if (actual[i] == expected[j]) {
+                        found++;
+                        break;
+                    }
+                }
+            }
+        }
+        return total == 0 ? 1 : (double) found / total;
+    }
+}
@@ -0,0 +1,44 @@
+package com.umdb;
+
+import com.umdb.service.CatalogImporter;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.context.annotation.Import;
+
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * {@code java -jar umdb-backend.jar import [--sync] <directory>}: loads the CSVs written by
+ * scripts/tmdb_convert.py with {@link CatalogImporter} into the configured database, which a
+ * running backend can keep serving from meanwhile. By default the catalog is replaced, with
+ * {@code --sync} only the differences are applied. Starts only the data source, not the web
+ * server or the background jobs; {@code --spring.datasource.*} and {@code --app.import.*}
+ * options override the application properties.
+ */
+@ImportAutoConfiguration(DataSourceAutoConfiguration.class)
+@Import(CatalogImporter.class)
+class CatalogImportCommand {
+
+    static void run(String[] args) {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(CatalogImportCommand.class)
+            .web(WebApplicationType.NONE)
+            .run(args)) {
+            ApplicationArguments arguments = context.getBean(ApplicationArguments.class);
+            List<String> directories = arguments.getNonOptionArgs();
+            if (directories.size() != 1) {
+                throw new IllegalArgumentException("Usage: import [--sync] <directory with tmdb_convert.py output>");
+            }
+            CatalogImporter importer = context.getBean(CatalogImporter.class);
+            if (arguments.containsOption("sync")) {
+                importer.syncDirectory(Path.of(directories.get(0)));
+            } else {
+                importer.importDirectory(Path.of(directories.get(0)));
+            }
+        }
+    }
+}
@@ -3,11 +3,19 @@ package com.umdb;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.Arrays;
 
 @SpringBootApplication
 @EnableCaching
+@EnableScheduling
 public class UmdbApplication {
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("import")) {
+            CatalogImportCommand.run(Arrays.copyOfRange(args, 1, args.length));
+            return;
+        }
         SpringApplication.run(UmdbApplication.class, args);
     }
 }
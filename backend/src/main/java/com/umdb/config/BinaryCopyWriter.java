@@ -0,0 +1,134 @@
+package com.umdb.config;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Writes rows in the {@code COPY ... (format binary)} format, converting the text values of a
+ * CSV record to each column's binary representation. Embeddings are sent as pgvector's binary
+ * form, a dimension followed by raw floats, so the server skips parsing float literals.
+ */
+public class BinaryCopyWriter implements AutoCloseable {
+    private static final byte[] SIGNATURE = {'P', 'G', 'C', 'O', 'P', 'Y', '\n', (byte) 0xff, '\r', '\n', 0};
+    private static final LocalDate POSTGRES_EPOCH = LocalDate.of(2000, 1, 1);
+
+    /** Column types the catalog tables use, by {@code pg_type.typname}. */
+    public enum ColumnType {
+        INT8, INT4, INT2, FLOAT8, TEXT, VARCHAR, DATE, VECTOR;
+
+        static ColumnType of(String typeName) {
+            try {
+                return valueOf(typeName.toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalStateException("Unsupported seed column type " + typeName, e);
+            }
+        }
+    }
+
+    private final DataOutputStream out;
+    private final List<ColumnType> columns;
+
+    public BinaryCopyWriter(OutputStream out, List<ColumnType> columns) throws IOException {
+        this.out = new DataOutputStream(out);
+        this.columns = columns;
+        this.out.write(SIGNATURE);
+        this.out.writeInt(0); // flags
+        this.out.writeInt(0); // header extension length
+    }
+
+    public void write(String[] values) throws IOException {
+        if (values.length != columns.size()) {
+            throw new IOException("Expected " + columns.size() + " fields, got " + values.length);
+        }
+        out.writeShort(values.length);
+        for (int i = 0; i < values.length; i++) {
+            String value = values[i];
+            if (value == null) {
+                out.writeInt(-1);
+                continue;
+            }
+            switch (columns.get(i)) {
+                case INT8 -> {
+                    out.writeInt(8);
+                    out.writeLong(Long.parseLong(value));
+                }
+                case INT4 -> {
+                    out.writeInt(4);
+                    out.writeInt(Integer.parseInt(value));
+                }
+                case INT2 -> {
+                    out.writeInt(2);
+                    out.writeShort(Short.parseShort(value));
+                }
+                case FLOAT8 -> {
+                    out.writeInt(8);
+                    out.writeDouble(Double.parseDouble(value));
+                }
+                case TEXT, VARCHAR -> {
+                    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(bytes.length);
+                    out.write(bytes);
+                }
+                case DATE -> {
+                    out.writeInt(4);
+                    out.writeInt((int) ChronoUnit.DAYS.between(POSTGRES_EPOCH, LocalDate.parse(value)));
+                }
+                case VECTOR -> writeVector(value);
+            }
+        }
+    }
+
+    /** Types of the given columns of {@code table}, in the same order. */
+    public static List<ColumnType> columnTypes(Connection connection, String table, List<String> columns)
+        throws SQLException {
+        List<ColumnType> types = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("""
+            select t.typname
+            from unnest(?::text[]) with ordinality as c(name, position)
+            join pg_attribute a on a.attrelid = cast(? as regclass) and a.attname = c.name and not a.attisdropped
+            join pg_type t on t.oid = a.atttypid
+            order by c.position
+            """)) {
+            statement.setArray(1, connection.createArrayOf("text", columns.toArray()));
+            statement.setString(2, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    types.add(ColumnType.of(rs.getString(1)));
+                }
+            }
+        }
+        if (types.size() != columns.size()) {
+            throw new IllegalArgumentException("Unknown columns in %s for %s".formatted(columns, table));
+        }
+        return types;
+    }
+
+    /** {@code [x1,x2,...]} as its dimension, an unused short and the float4 components. */
+    private void writeVector(String value) throws IOException {
+        String inner = value.substring(value.indexOf('[') + 1, value.lastIndexOf(']'));
+        String[] components = inner.split(",");
+        out.writeInt(4 + 4 * components.length);
+        out.writeShort(components.length);
+        out.writeShort(0);
+        for (String component : components) {
+            out.writeFloat(Float.parseFloat(component.trim()));
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.writeShort(-1);
+        out.close();
+    }
+}
@@ -0,0 +1,41 @@
+package com.umdb.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheManagerCustomizer;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Caches with their own Caffeine spec. Everything else, such as {@code titleCounts}, uses
+ * {@code spring.cache.caffeine.spec}. Specs should include {@code recordStats} so hit and miss
+ * counts show up in the {@code cache.*} metrics.
+ */
+@Configuration
+public class CacheConfig {
+    /** Title details without reviews, by title id. */
+    public static final String TITLE_DETAILS = "titleDetails";
+    /** Most recent reviews of a title, by title id. */
+    public static final String RECENT_REVIEWS = "recentReviews";
+    /** Person details with their filmography, by person id. */
+    public static final String PERSON_DETAILS = "personDetails";
+
+    @Value("${app.cache.title-details:maximumSize=10000,expireAfterWrite=1h,recordStats}")
+    private String titleDetailsSpec;
+
+    @Value("${app.cache.recent-reviews:maximumSize=10000,expireAfterWrite=5m,recordStats}")
+    private String recentReviewsSpec;
+
+    @Value("${app.cache.person-details:maximumSize=10000,expireAfterWrite=1h,recordStats}")
+    private String personDetailsSpec;
+
+    @Bean
+    public CacheManagerCustomizer<CaffeineCacheManager> caffeineCacheCustomizer() {
+        return cacheManager -> {
+            cacheManager.registerCustomCache(TITLE_DETAILS, Caffeine.from(titleDetailsSpec).build());
+            cacheManager.registerCustomCache(RECENT_REVIEWS, Caffeine.from(recentReviewsSpec).build());
+            cacheManager.registerCustomCache(PERSON_DETAILS, Caffeine.from(personDetailsSpec).build());
+        };
+    }
+}
@@ -0,0 +1,50 @@
+package com.umdb.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+
+/**
+ * With requests on virtual threads ({@code spring.threads.virtual.enabled}), puts the Hikari
+ * pool behind a {@link ConnectionLimitedDataSource} with one permit per pooled connection.
+ * Callers that cannot get one within {@code app.db.connection-limit.acquire-timeout} fail with
+ * a 503 rather than piling up for the pool's own, much longer, connection timeout.
+ */
+@Configuration
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class ConnectionLimitConfig {
+
+    @Bean
+    public static BeanPostProcessor connectionLimiter(Environment environment) {
+        Duration acquireTimeout = environment.getProperty("app.db.connection-limit.acquire-timeout",
+            Duration.class, Duration.ofSeconds(2));
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof HikariDataSource hikari) {
+                    return new ConnectionLimitedDataSource(hikari, hikari.getMaximumPoolSize(), acquireTimeout);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    public MeterBinder connectionLimitMetrics(DataSource dataSource) {
+        return registry -> {
+            if (dataSource instanceof ConnectionLimitedDataSource limited) {
+                Gauge.builder("umdb.db.connections.waiting", limited, ConnectionLimitedDataSource::waiting)
+                    .description("Requests waiting for a database connection permit")
+                    .register(registry);
+            }
+        };
+    }
+}
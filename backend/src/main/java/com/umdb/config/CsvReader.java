@@ -0,0 +1,72 @@
+package com.umdb.config;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Reads CSV as written by the seed and TMDB conversion scripts: comma separated, fields with
+ * commas, quotes or line breaks quoted with doubled quotes inside. Like
+ * {@code COPY ... (format csv)}, an unquoted empty field is null and a quoted one is the empty
+ * string.
+ */
+public class CsvReader {
+    private final Reader reader;
+    private int next;
+
+    public CsvReader(Reader reader) throws IOException {
+        this.reader = reader;
+        this.next = reader.read();
+    }
+
+    /** The next record, or null at the end of the input. */
+    public String[] next() throws IOException {
+        if (next == -1) {
+            return null;
+        }
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        while (true) {
+            boolean quoted = next == '"';
+            if (quoted) {
+                advance();
+                while (true) {
+                    if (next == -1) {
+                        throw new IOException("Unterminated quoted field");
+                    }
+                    if (next == '"') {
+                        advance();
+                        if (next != '"') {
+                            break;
+                        }
+                    }
+                    field.append((char) next);
+                    advance();
+                }
+            } else {
+                while (next != ',' && next != '\n' && next != '\r' && next != -1) {
+                    field.append((char) next);
+                    advance();
+                }
+            }
+            fields.add(quoted || !field.isEmpty() ? field.toString() : null);
+            field.setLength(0);
+            if (next == ',') {
+                advance();
+                continue;
+            }
+            if (next == '\r') {
+                advance();
+            }
+            if (next == '\n') {
+                advance();
+            }
+            return fields.toArray(String[]::new);
+        }
+    }
+
+    private void advance() throws IOException {
+        next = reader.read();
+    }
+}
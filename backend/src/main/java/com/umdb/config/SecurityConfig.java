@@ -29,6 +29,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/auth/login", "/api/auth/signup")
                 .permitAll()
                 .requestMatchers(HttpMethod.POST, "/api/titles/*/reviews").authenticated()
+                .requestMatchers(HttpMethod.DELETE, "/api/titles/*/reviews").authenticated()
                 .requestMatchers("/api/auth/me", "/api/auth/logout").authenticated()
                 .anyRequest().permitAll()
             )
@@ -0,0 +1,213 @@
+package com.umdb.config;
+
+import com.umdb.service.CatalogVersion;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.jdbc.init.DataSourceScriptDatabaseInitializer;
+import org.springframework.boot.sql.init.DatabaseInitializationSettings;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applies {@code schema.sql} and loads the seed catalog in {@code seed/*.csv}, each only when
+ * its SHA-256 differs from the one recorded in {@code db_init_checksums} by the last run, so
+ * restarts with unchanged resources cost a single query. Instances starting together are
+ * serialized by an advisory lock, and both steps commit with their checksums or not at all.
+ *
+ * <p>Seed rows are streamed with binary {@code COPY} into temporary tables, then merged with
+ * {@code on conflict do nothing}, leaving rows already in the catalog alone. Replaces
+ * {@code spring.sql.init}, and being a {@link DataSourceScriptDatabaseInitializer} it still
+ * runs before JPA and the JDBC templates are used.
+ */
+@Slf4j
+@Component
+public class SeedDatabaseInitializer extends DataSourceScriptDatabaseInitializer {
+    private static final String SCHEMA = "classpath:schema.sql";
+    private static final String SEED_DIRECTORY = "classpath:seed/";
+    /** In dependency order. */
+    private static final List<String> SEED_TABLES = List.of("genres", "titles", "people", "title_genres", "cast_members");
+    private static final List<String> SERIAL_TABLES = List.of("titles", "genres", "people", "cast_members");
+    private static final long INIT_LOCK = 0x756d6462L; // "umdb"
+
+    private final ResourceLoader resourceLoader;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${app.db.init.seed:true}")
+    private boolean seedEnabled;
+
+    public SeedDatabaseInitializer(DataSource dataSource, ResourceLoader resourceLoader, MeterRegistry meterRegistry) {
+        super(dataSource, new DatabaseInitializationSettings());
+        this.resourceLoader = resourceLoader;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @Override
+    public boolean initializeDatabase() {
+        long start = System.nanoTime();
+        Resource schema = resourceLoader.getResource(SCHEMA);
+        String schemaChecksum = checksum(List.of(schema));
+        List<Resource> seed = SEED_TABLES.stream()
+            .map(table -> resourceLoader.getResource(SEED_DIRECTORY + table + ".csv"))
+            .toList();
+        String seedChecksum = checksum(seed);
+
+        String schemaOutcome = "unchanged";
+        String seedOutcome = seedEnabled ? "unchanged" : "disabled";
+        try (Connection connection = getDataSource().getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("select pg_advisory_xact_lock(" + INIT_LOCK + ")");
+                    statement.execute("""
+                        create table if not exists db_init_checksums
+                        (
+                            name       text primary key,
+                            checksum   text        not null,
+                            applied_at timestamptz not null default now()
+                        )
+                        """);
+                }
+                Map<String, String> applied = appliedChecksums(connection);
+                if (!schemaChecksum.equals(applied.get("schema"))) {
+                    ScriptUtils.executeSqlScript(connection, new EncodedResource(schema, StandardCharsets.UTF_8));
+                    recordChecksum(connection, "schema", schemaChecksum);
+                    schemaOutcome = "applied";
+                }
+                if (seedEnabled && !seedChecksum.equals(applied.get("seed"))) {
+                    loadSeed(connection, seed);
+                    recordChecksum(connection, "seed", seedChecksum);
+                    try (Statement statement = connection.createStatement()) {
+                        statement.execute(CatalogVersion.BUMP_SQL);
+                    }
+                    seedOutcome = "applied";
+                }
+                connection.commit();
+            } catch (SQLException | IOException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Database initialization failed", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Database initialization failed", e);
+        }
+
+        long elapsed = System.nanoTime() - start;
+        Timer.builder("umdb.db.init")
+            .description("Time taken to check and apply the schema and seed data at startup")
+            .tag("schema", schemaOutcome)
+            .tag("seed", seedOutcome)
+            .register(meterRegistry)
+            .record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Database initialized in {} ms: schema {}, seed data {}",
+            TimeUnit.NANOSECONDS.toMillis(elapsed), schemaOutcome, seedOutcome);
+        return !schemaOutcome.equals("unchanged") || seedOutcome.equals("applied");
+    }
+
+    private static Map<String, String> appliedChecksums(Connection connection) throws SQLException {
+        Map<String, String> checksums = new HashMap<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("select name, checksum from db_init_checksums")) {
+            while (rs.next()) {
+                checksums.put(rs.getString(1), rs.getString(2));
+            }
+        }
+        return checksums;
+    }
+
+    private static void recordChecksum(Connection connection, String name, String checksum) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("""
+            insert into db_init_checksums (name, checksum) values (?, ?)
+            on conflict (name) do update set checksum = excluded.checksum, applied_at = now()
+            """)) {
+            statement.setString(1, name);
+            statement.setString(2, checksum);
+            statement.executeUpdate();
+        }
+    }
+
+    private static void loadSeed(Connection connection, List<Resource> files) throws SQLException, IOException {
+        PGConnection pg = connection.unwrap(PGConnection.class);
+        for (int i = 0; i < SEED_TABLES.size(); i++) {
+            String table = SEED_TABLES.get(i);
+            try (Reader reader = new InputStreamReader(files.get(i).getInputStream(), StandardCharsets.UTF_8)) {
+                CsvReader csv = new CsvReader(reader);
+                List<String> header = List.of(csv.next());
+                String columns = String.join(", ", header);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("create temp table seed_%1$s on commit drop as select %2$s from %1$s with no data"
+                        .formatted(table, columns));
+                }
+                List<BinaryCopyWriter.ColumnType> types = BinaryCopyWriter.columnTypes(connection, "seed_" + table, header);
+                try (BinaryCopyWriter out = new BinaryCopyWriter(new PGCopyOutputStream(pg,
+                    "copy seed_%s (%s) from stdin (format binary)".formatted(table, columns), 1 << 16), types)) {
+                    for (String[] row = csv.next(); row != null; row = csv.next()) {
+                        out.write(row);
+                    }
+                }
+                String targets = columns;
+                String values = columns;
+                // The seed's rating is the imported one, which reviews are later folded into
+                if (table.equals("titles") && header.contains("rating") && !header.contains("tmdb_rating")) {
+                    targets += ", tmdb_rating, tmdb_rating_count";
+                    values += ", rating, rating_count";
+                }
+                try (Statement statement = connection.createStatement()) {
+                    int inserted = statement.executeUpdate(
+                        "insert into %1$s (%2$s) select %3$s from seed_%1$s on conflict do nothing"
+                            .formatted(table, targets, values));
+                    log.debug("Seeded {} rows into {}", inserted, table);
+                }
+            }
+        }
+        try (Statement statement = connection.createStatement()) {
+            for (String table : SERIAL_TABLES) {
+                statement.execute("select setval(pg_get_serial_sequence('%1$s', 'id'), coalesce((select max(id) from %1$s), 1))"
+                    .formatted(table));
+            }
+        }
+    }
+
+    private static String checksum(List<Resource> resources) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Resource resource : resources) {
+                try (InputStream in = resource.getInputStream()) {
+                    digest.update(in.readAllBytes());
+                }
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot read " + resources, e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -2,12 +2,15 @@ package com.umdb.controller;
 
 import com.umdb.dto.GenreDto;
 import com.umdb.repository.GenreRepository;
+import com.umdb.service.DataVersion;
 
 import java.util.Comparator;
 import java.util.List;
 import java.util.stream.Collectors;
 
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
@@ -17,15 +20,18 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class GenreController {
     private final GenreRepository genreRepository;
+    private final DataVersion dataVersion;
+    private final HttpCache httpCache;
 
     @GetMapping
-    public List<GenreDto> list() {
-        return genreRepository.findAll().stream()
-            .sorted(Comparator.comparing(g -> g.getName().toLowerCase()))
-            .map(genre -> GenreDto.builder()
-                .id(genre.getId())
-                .name(genre.getName())
-                .build())
-            .collect(Collectors.toList());
+    public ResponseEntity<List<GenreDto>> list(HttpServletRequest request) {
+        return httpCache.respond(request, HttpCache.Endpoint.GENRES, dataVersion.catalog(),
+            () -> genreRepository.findAll().stream()
+                .sorted(Comparator.comparing(g -> g.getName().toLowerCase()))
+                .map(genre -> GenreDto.builder()
+                    .id(genre.getId())
+                    .name(genre.getName())
+                    .build())
+                .collect(Collectors.toList()));
     }
 }
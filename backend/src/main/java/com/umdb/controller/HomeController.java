@@ -1,30 +1,24 @@
 package com.umdb.controller;
 
 import com.umdb.dto.HomeResponseDto;
-import com.umdb.dto.HomeSectionDto;
-import com.umdb.service.TitleService;
+import com.umdb.service.HomeFeedSnapshot;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/home")
 @RequiredArgsConstructor
 public class HomeController {
-    private final TitleService titleService;
+    private final HomeFeedSnapshot homeFeedSnapshot;
+    private final HttpCache httpCache;
 
     @GetMapping
-    public HomeResponseDto home() {
-        return HomeResponseDto.builder()
-            .sections(List.of(
-                HomeSectionDto.builder().title("Trending Now").items(titleService.getTrending(12)).build(),
-                HomeSectionDto.builder().title("New Releases").items(titleService.getNewReleases(12)).build(),
-                HomeSectionDto.builder().title("Top Rated").items(titleService.getTopRated(12)).build()
-            ))
-            .totalCountEstimate(titleService.getEstimatedTotalCount())
-            .build();
+    public ResponseEntity<HomeResponseDto> home(HttpServletRequest request) {
+        return httpCache.respond(request, HttpCache.Endpoint.HOME,
+            Long.toString(homeFeedSnapshot.version()), homeFeedSnapshot::get);
     }
 }
@@ -0,0 +1,108 @@
+package com.umdb.controller;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Conditional GETs for the public read endpoints. The strong ETag combines the version of the
+ * resource, such as a title's {@link com.umdb.service.DataVersion} or the home snapshot's, with
+ * the request URI, so a matching {@code If-None-Match} is answered with 304 before the body is built.
+ * {@code Cache-Control} is set per endpoint from {@code app.http-cache.<endpoint>}.
+ */
+@Component
+public class HttpCache {
+    public enum Endpoint {
+        TITLE("title", "public, no-cache"),
+        SIMILAR("similar", "public, max-age=60, stale-while-revalidate=600"),
+        GENRES("genres", "public, max-age=3600, stale-while-revalidate=86400"),
+        HOME("home", "public, max-age=30, stale-while-revalidate=300"),
+        SUGGEST("suggest", "public, max-age=300, stale-while-revalidate=3600");
+
+        private final String key;
+        private final String defaultCacheControl;
+
+        Endpoint(String key, String defaultCacheControl) {
+            this.key = key;
+            this.defaultCacheControl = defaultCacheControl;
+        }
+    }
+
+    private final Map<Endpoint, String> cacheControl = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Counter> notModified = new EnumMap<>(Endpoint.class);
+
+    @Value("${app.http-cache.enabled:true}")
+    private boolean enabled;
+
+    public HttpCache(Environment environment, MeterRegistry meterRegistry) {
+        for (Endpoint endpoint : Endpoint.values()) {
+            cacheControl.put(endpoint,
+                environment.getProperty("app.http-cache." + endpoint.key, endpoint.defaultCacheControl));
+            notModified.put(endpoint, Counter.builder("umdb.http.not-modified")
+                .description("Conditional GETs answered with 304 Not Modified")
+                .tag("endpoint", endpoint.key)
+                .register(meterRegistry));
+        }
+    }
+
+    /**
+     * 304 when the client has {@code version} of the resource, otherwise 200 with {@code body}.
+     * The version is read before the body, so a change while it is built leaves the tag behind
+     * the content; a null version sends no ETag.
+     */
+    public <T> ResponseEntity<T> respond(HttpServletRequest request, Endpoint endpoint, String version,
+                                         Supplier<T> body) {
+        if (!enabled) {
+            return ResponseEntity.ok(body.get());
+        }
+        if (version == null) {
+            return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl.get(endpoint))
+                .body(body.get());
+        }
+        String etag = etag(request, version);
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null && matches(ifNoneMatch, etag)) {
+            notModified.get(endpoint).increment();
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED)
+                .eTag(etag)
+                .header(HttpHeaders.CACHE_CONTROL, cacheControl.get(endpoint))
+                .build();
+        }
+        return ResponseEntity.ok()
+            .eTag(etag)
+            .header(HttpHeaders.CACHE_CONTROL, cacheControl.get(endpoint))
+            .body(body.get());
+    }
+
+    private static String etag(HttpServletRequest request, String version) {
+        String uri = request.getQueryString() != null
+            ? request.getRequestURI() + '?' + request.getQueryString()
+            : request.getRequestURI();
+        return "\"%s.%s\"".formatted(version, Integer.toHexString(uri.hashCode()));
+    }
+
+    /** If-None-Match uses the weak comparison, so a tag weakened on the way still matches. */
+    static boolean matches(String ifNoneMatch, String etag) {
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,12 +1,19 @@
 package com.umdb.controller;
 
+import com.umdb.dto.FilmographySort;
 import com.umdb.dto.PeopleResponseDto;
+import com.umdb.dto.PersonCardDto;
+import com.umdb.dto.PersonDetailDto;
 import com.umdb.service.PersonService;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+
+import java.util.List;
+
 import lombok.RequiredArgsConstructor;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -21,8 +28,28 @@ public class PersonController {
     @GetMapping
     public PeopleResponseDto list(
         @RequestParam(defaultValue = "0") @Min(0) int page,
-        @RequestParam(defaultValue = "24") @Min(1) @Max(100) int size
+        @RequestParam(defaultValue = "24") @Min(1) @Max(100) int size,
+        @RequestParam(required = false) String cursor
     ) {
+        if (cursor != null && !cursor.isBlank()) {
+            return personService.listPeopleAfter(cursor, size);
+        }
         return personService.listPeople(page, size);
     }
+
+    @GetMapping("/search")
+    public List<PersonCardDto> search(
+        @RequestParam("q") String query,
+        @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit
+    ) {
+        return personService.search(query, limit);
+    }
+
+    @GetMapping("/{id}")
+    public PersonDetailDto detail(
+        @PathVariable Long id,
+        @RequestParam(defaultValue = "NEWEST") FilmographySort sort
+    ) {
+        return personService.getDetail(id, sort);
+    }
 }
@@ -1,6 +1,7 @@
 package com.umdb.controller;
 
 import com.umdb.dto.ReviewDto;
+import com.umdb.dto.ReviewPageDto;
 import com.umdb.dto.ReviewRequestDto;
 import com.umdb.service.ReviewService;
 import jakarta.validation.Valid;
@@ -10,14 +11,17 @@ import jakarta.validation.constraints.Min;
 import java.util.List;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 
 @RestController
@@ -35,6 +39,15 @@ public class ReviewController {
         return reviewService.getRecentReviews(titleId, limit);
     }
 
+    @GetMapping("/page")
+    public ReviewPageDto reviewPage(
+        @PathVariable Long titleId,
+        @RequestParam(defaultValue = "20") @Min(1) @Max(100) int size,
+        @RequestParam(required = false) String cursor
+    ) {
+        return reviewService.getReviewPage(titleId, cursor, size);
+    }
+
     @PostMapping
     public ReviewDto addReview(
         @PathVariable Long titleId,
@@ -43,4 +56,10 @@ public class ReviewController {
     ) {
         return reviewService.upsertReview(titleId, request, authentication);
     }
+
+    @DeleteMapping
+    @ResponseStatus(HttpStatus.NO_CONTENT)
+    public void deleteReview(@PathVariable Long titleId, Authentication authentication) {
+        reviewService.deleteReview(titleId, authentication);
+    }
 }
@@ -1,14 +1,19 @@
 package com.umdb.controller;
 
+import com.umdb.dto.SearchMode;
 import com.umdb.dto.SearchRequestDto;
 import com.umdb.dto.SearchResultDto;
 import com.umdb.dto.SearchSuggestionDto;
+import com.umdb.service.HybridSearchService;
 import com.umdb.service.SearchService;
+import com.umdb.service.SuggestionService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 
 import java.util.List;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
@@ -21,14 +26,21 @@ import org.springframework.web.bind.annotation.RestController;
 @RequiredArgsConstructor
 public class SearchController {
     private final SearchService searchService;
+    private final SuggestionService suggestionService;
+    private final HybridSearchService hybridSearchService;
+    private final HttpCache httpCache;
 
     @GetMapping("/suggest")
-    public List<SearchSuggestionDto> suggest(@RequestParam("q") String query) {
-        return searchService.suggest(query);
+    public ResponseEntity<List<SearchSuggestionDto>> suggest(@RequestParam("q") String query,
+                                                             HttpServletRequest request) {
+        return httpCache.respond(request, HttpCache.Endpoint.SUGGEST, suggestionService.version(),
+            () -> suggestionService.suggest(query));
     }
 
     @PostMapping
     public SearchResultDto search(@Valid @RequestBody SearchRequestDto request) {
-        return searchService.search(request);
+        return request.getMode() == SearchMode.HYBRID
+            ? hybridSearchService.search(request)
+            : searchService.search(request);
     }
 }
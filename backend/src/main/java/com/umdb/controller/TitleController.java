@@ -2,15 +2,18 @@ package com.umdb.controller;
 
 import com.umdb.dto.TitleCardDto;
 import com.umdb.dto.TitleDetailDto;
+import com.umdb.service.DataVersion;
 import com.umdb.service.RecommendationService;
 import com.umdb.service.TitleService;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 
 import java.util.List;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
@@ -25,17 +28,22 @@ import org.springframework.web.bind.annotation.RestController;
 public class TitleController {
     private final TitleService titleService;
     private final RecommendationService recommendationService;
+    private final DataVersion dataVersion;
+    private final HttpCache httpCache;
 
     @GetMapping("/{id}")
-    public TitleDetailDto detail(@PathVariable Long id) {
-        return titleService.getDetail(id);
+    public ResponseEntity<TitleDetailDto> detail(@PathVariable Long id, HttpServletRequest request) {
+        return httpCache.respond(request, HttpCache.Endpoint.TITLE, dataVersion.title(id),
+            () -> titleService.getDetail(id));
     }
 
     @GetMapping("/{id}/similar")
-    public List<TitleCardDto> similar(
+    public ResponseEntity<List<TitleCardDto>> similar(
         @PathVariable Long id,
-        @RequestParam(name = "limit", defaultValue = "12") @Min(1) @Max(50) int limit
+        @RequestParam(name = "limit", defaultValue = "12") @Min(1) @Max(50) int limit,
+        HttpServletRequest request
     ) {
-        return recommendationService.getSimilar(id, limit);
+        return httpCache.respond(request, HttpCache.Endpoint.SIMILAR, dataVersion.title(id),
+            () -> recommendationService.getSimilar(id, limit));
     }
 }
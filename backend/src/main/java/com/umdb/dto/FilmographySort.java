@@ -0,0 +1,6 @@
+package com.umdb.dto;
+
+public enum FilmographySort {
+    NEWEST,
+    POPULAR
+}
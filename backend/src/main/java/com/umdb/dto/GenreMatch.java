@@ -0,0 +1,6 @@
+package com.umdb.dto;
+
+public enum GenreMatch {
+    ALL,
+    ANY
+}
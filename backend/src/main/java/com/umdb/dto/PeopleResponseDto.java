@@ -8,8 +8,9 @@ import lombok.Value;
 @Builder
 public class PeopleResponseDto {
     List<PersonCardDto> items;
-    long total;
-    int page;
+    Long total;
+    Integer page;
     int size;
-    int totalPages;
+    Integer totalPages;
+    String nextCursor;
 }
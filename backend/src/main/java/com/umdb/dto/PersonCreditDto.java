@@ -0,0 +1,18 @@
+package com.umdb.dto;
+
+import com.umdb.model.TitleType;
+import java.time.LocalDate;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class PersonCreditDto {
+    Long titleId;
+    TitleType type;
+    String title;
+    LocalDate releaseDate;
+    Double popularity;
+    String posterUrl;
+    String characterName;
+}
@@ -0,0 +1,15 @@
+package com.umdb.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder(toBuilder = true)
+public class PersonDetailDto {
+    Long id;
+    String name;
+    String profileUrl;
+    int creditCount;
+    List<PersonCreditDto> credits;
+}
@@ -0,0 +1,12 @@
+package com.umdb.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ReviewPageDto {
+    List<ReviewDto> items;
+    String nextCursor;
+}
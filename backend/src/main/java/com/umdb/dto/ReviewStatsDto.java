@@ -0,0 +1,13 @@
+package com.umdb.dto;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Value;
+
+@Value
+@Builder
+public class ReviewStatsDto {
+    long count;
+    /** Number of reviews per rating, from 1 at index 0 to 10 at index 9. */
+    List<Integer> ratingCounts;
+}
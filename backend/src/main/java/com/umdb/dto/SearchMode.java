@@ -0,0 +1,6 @@
+package com.umdb.dto;
+
+public enum SearchMode {
+    KEYWORD,
+    HYBRID
+}
@@ -13,15 +13,18 @@ public class SearchRequestDto {
     private Integer yearFrom;
     private Integer yearTo;
     private List<Long> genreIds;
+    private GenreMatch genreMatch = GenreMatch.ALL;
     @Min(0)
     private Double minRating;
     @Max(10)
     private Double maxRating;
     private SearchSort sort;
+    private SearchMode mode = SearchMode.KEYWORD;
     @Min(1)
     @Max(100)
     private Integer limit = 20;
     @Min(0)
     @Max(5000)
     private Integer offset = 0;
+    private String cursor;
 }
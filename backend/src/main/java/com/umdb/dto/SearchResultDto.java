@@ -10,4 +10,5 @@ public class SearchResultDto {
     List<TitleCardDto> items;
     Integer total;
     boolean totalCapped;
+    String nextCursor;
 }
@@ -7,7 +7,7 @@ import lombok.Builder;
 import lombok.Value;
 
 @Value
-@Builder
+@Builder(toBuilder = true)
 public class TitleDetailDto {
     Long id;
     TitleType type;
@@ -24,4 +24,5 @@ public class TitleDetailDto {
     List<GenreDto> genres;
     List<CastDto> cast;
     List<ReviewDto> recentReviews;
+    ReviewStatsDto reviewStats;
 }
@@ -0,0 +1,22 @@
+package com.umdb.exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.NestedRuntimeException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ProblemDetail;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/** No connection available within the acquire timeout: the database is saturated, retry later. */
+@Slf4j
+@RestControllerAdvice
+public class DatabaseExceptionHandler {
+
+    @ExceptionHandler({CannotGetJdbcConnectionException.class, CannotCreateTransactionException.class})
+    public ProblemDetail connectionUnavailable(NestedRuntimeException e) {
+        log.warn("Rejected request: {}", e.getMostSpecificCause().getMessage());
+        return ProblemDetail.forStatusAndDetail(HttpStatus.SERVICE_UNAVAILABLE, "Database busy, retry later");
+    }
+}
@@ -1,7 +1,20 @@
 package com.umdb.repository;
 
 import com.umdb.model.Person;
+import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface PersonRepository extends JpaRepository<Person, Long> {
+
+    @Query(value = """
+            select *
+            from people
+            where (name, id) > (:name, :id)
+            order by name, id
+            limit :limit
+            """, nativeQuery = true)
+    List<Person> findPageAfter(@Param("name") String name, @Param("id") long id,
+                               @Param("limit") int limit);
 }
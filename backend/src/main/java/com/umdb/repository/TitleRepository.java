@@ -3,7 +3,6 @@ package com.umdb.repository;
 import com.umdb.model.Title;
 import com.umdb.model.TitleType;
 import java.util.List;
-import java.util.Optional;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
@@ -23,14 +22,4 @@ public interface TitleRepository extends JpaRepository<Title, Long> {
 
     @Query("select t from Title t where (:type is null or t.type = :type) order by t.ratingWeighted desc nulls last, t.id")
     List<Title> findTopRated(@Param("type") TitleType type, Pageable pageable);
-
-    @Query("""
-            select distinct t
-            from Title t
-            left join fetch t.genres
-            left join fetch t.cast c
-            left join fetch c.person
-            where t.id = :id
-            """)
-    Optional<Title> findDetailById(@Param("id") Long id);
 }
@@ -0,0 +1,717 @@
+package com.umdb.service;
+
+import com.umdb.config.BinaryCopyWriter;
+import com.umdb.config.CsvReader;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Replaces the catalog with the CSVs written by scripts/tmdb_convert.py while the current one
+ * keeps serving. Each file is streamed over several binary {@code COPY} connections into an
+ * {@code import_} staging copy of its table that has no indexes or constraints yet; those of
+ * the live tables, plus the configured embedding index, are then built once over the loaded
+ * rows. A single short transaction finally drops the live tables and renames the staging ones
+ * into place.
+ *
+ * <p>As with a reload through tmdb_load.sql, titles get new ids, so the rows referencing them
+ * (reviews, stored similar titles) are removed in the swap. {@link #syncDirectory} instead
+ * applies the differences to the live tables, keeping ids and everything referencing them.
+ * Both bump the {@link CatalogVersion}, which running instances pick up.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogImporter {
+    /** In dependency order. */
+    static final List<String> TABLES = List.of("genres", "titles", "people", "title_genres", "cast_members");
+    private static final String STAGING = "import_";
+    /** Derived from reviews without a foreign key, cleared along with them. */
+    private static final List<String> DERIVED_TABLES = List.of("title_review_stats");
+    /**
+     * Rating of live title {@code t} with its imported part replaced by that of {@code s}. It is
+     * computed in the update, so a rating flush committed meanwhile is applied to, not lost.
+     */
+    private static final String SYNCED_RATING = """
+        rating = fold_rating(t.rating, t.rating_count,
+                             s.tmdb_rating * s.tmdb_rating_count - t.tmdb_rating * t.tmdb_rating_count,
+                             s.tmdb_rating_count - t.tmdb_rating_count),
+        rating_count = t.rating_count - t.tmdb_rating_count + s.tmdb_rating_count""";
+    /** Columns filled from another column of the same file: the file's rating is the imported one. */
+    private static final Map<String, Map<String, String>> COPIED_COLUMNS = Map.of(
+        "titles", Map.of("tmdb_rating", "rating", "tmdb_rating_count", "rating_count"));
+    private static final Pattern INDEX_DEF = Pattern.compile("(CREATE (?:UNIQUE )?INDEX) \\S+ ON (?:ONLY )?\\S+ (USING .+)");
+    private static final Pattern REFERENCES = Pattern.compile("REFERENCES (\\w+)\\(");
+    private static final List<String[]> END = List.of();
+
+    private final DataSource dataSource;
+
+    @Value("${app.import.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.import.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${app.import.maintenance-work-mem:1GB}")
+    private String maintenanceWorkMem;
+
+    @Value("${app.import.max-parallel-maintenance-workers:4}")
+    private int maintenanceWorkers;
+
+    @Value("${app.import.lock-timeout:PT10S}")
+    private Duration lockTimeout;
+
+    @Value("${app.recommendations.ann.quantization:NONE}")
+    private EmbeddingQuantization quantization;
+
+    public record Report(Map<String, Long> rows, long loadMillis, long indexMillis, long swapMillis) {
+        public long totalRows() {
+            return rows.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+
+    public record SyncReport(long rows, long loadMillis, long applyMillis, Map<String, Long> changes) {
+    }
+
+    /** Imports {@code <table>.csv} for every catalog table from {@code directory}. */
+    public Report importDirectory(Path directory) {
+        checkFiles(directory);
+        try {
+            createStaging(true);
+            long start = System.nanoTime();
+            Map<String, Long> rows = new LinkedHashMap<>();
+            for (String table : TABLES) {
+                rows.put(table, load(table, directory.resolve(table + ".csv")));
+            }
+            long loaded = System.nanoTime();
+            buildIndexes();
+            long indexed = System.nanoTime();
+            swap();
+            Report report = new Report(rows, millis(loaded - start), millis(indexed - loaded), millis(System.nanoTime() - indexed));
+            log.info("Imported {} rows ({}) in {} ms: load {} ms ({} rows/s), indexes {} ms, swap {} ms",
+                report.totalRows(), rows, report.loadMillis() + report.indexMillis() + report.swapMillis(),
+                report.loadMillis(), report.totalRows() * 1000 / Math.max(report.loadMillis(), 1),
+                report.indexMillis(), report.swapMillis());
+            return report;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Catalog import failed", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Catalog import failed", e);
+        } finally {
+            dropStaging();
+        }
+    }
+
+    /**
+     * Updates the live catalog to match the files in {@code directory}, which may hold the whole
+     * catalog or only part of it. Titles are matched on {@code (type, tmdb_id)}; live titles
+     * without a TMDB id yet are matched once on title and release date. Only rows whose values
+     * differ are written, so unchanged rows keep their index entries, and the embedding is taken
+     * from the file only when the text it was computed from changed. Genre and cast links are
+     * replaced for the titles whose link set hashes differently, and the people whose credits
+     * or credited titles change are queued for {@link PersonProfilesJob}. Nothing is deleted.
+     *
+     * <p>Ratings from the file replace the imported part ({@code tmdb_rating}) of existing titles'
+     * ratings; the reviews {@link RatingAggregator} folded in stay, and those it has yet to flush
+     * are added on top as usual.
+     */
+    public SyncReport syncDirectory(Path directory) {
+        checkFiles(directory);
+        try {
+            createStaging(false);
+            long start = System.nanoTime();
+            long rows = 0;
+            for (String table : TABLES) {
+                rows += load(table, directory.resolve(table + ".csv"));
+            }
+            long loaded = System.nanoTime();
+            Map<String, Long> changes = applyChanges();
+            SyncReport report = new SyncReport(rows, millis(loaded - start), millis(System.nanoTime() - loaded), changes);
+            long total = report.loadMillis() + report.applyMillis();
+            log.info("Synced {} rows in {} ms ({} rows/s): load {} ms, apply {} ms, changes {}",
+                rows, total, rows * 1000 / Math.max(total, 1), report.loadMillis(), report.applyMillis(), changes);
+            return report;
+        } catch (SQLException e) {
+            throw new IllegalStateException("Catalog sync failed", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Catalog sync failed", e);
+        } finally {
+            dropStaging();
+        }
+    }
+
+    private static void checkFiles(Path directory) {
+        for (String table : TABLES) {
+            if (!Files.isReadable(directory.resolve(table + ".csv"))) {
+                throw new IllegalArgumentException("Missing " + directory.resolve(table + ".csv"));
+            }
+        }
+    }
+
+    /** Staging tables shaped like the live ones; without {@code generated} they are plain columns. */
+    private void createStaging(boolean generated) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + staging(TABLES));
+            for (String table : TABLES) {
+                statement.execute("create table %s%s (like %s including defaults %s including constraints)"
+                    .formatted(STAGING, table, table, generated ? "including generated" : ""));
+            }
+        }
+    }
+
+    private void dropStaging() {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("drop table if exists " + staging(TABLES));
+        } catch (SQLException e) {
+            log.warn("Could not drop import staging tables", e);
+        }
+    }
+
+    /**
+     * Streams the file into the staging table: this thread parses it into batches which
+     * {@code parallelism} writers each send down their own {@code COPY}.
+     */
+    private long load(String table, Path file) throws SQLException, IOException {
+        long start = System.nanoTime();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+             ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CsvReader csv = new CsvReader(reader);
+            List<String> header = new ArrayList<>(List.of(csv.next()));
+            int width = header.size();
+            int[] copied = copiedColumns(table, header);
+            List<BinaryCopyWriter.ColumnType> types;
+            try (Connection connection = dataSource.getConnection()) {
+                types = BinaryCopyWriter.columnTypes(connection, STAGING + table, header);
+            }
+            String copy = "copy %s%s (%s) from stdin (format binary)".formatted(STAGING, table, String.join(", ", header));
+            BlockingQueue<List<String[]>> batches = new ArrayBlockingQueue<>(2 * parallelism);
+            List<Future<Long>> writers = new ArrayList<>();
+            for (int i = 0; i < parallelism; i++) {
+                writers.add(executor.submit(() -> write(copy, types, batches)));
+            }
+            try {
+                List<String[]> batch = new ArrayList<>(batchSize);
+                for (String[] row = csv.next(); row != null; row = csv.next()) {
+                    if (copied.length > 0) {
+                        row = Arrays.copyOf(row, width + copied.length);
+                        for (int i = 0; i < copied.length; i++) {
+                            row[width + i] = row[copied[i]];
+                        }
+                    }
+                    batch.add(row);
+                    if (batch.size() == batchSize) {
+                        put(batches, batch, writers);
+                        batch = new ArrayList<>(batchSize);
+                    }
+                }
+                put(batches, batch, writers);
+                for (int i = 0; i < parallelism; i++) {
+                    put(batches, END, writers);
+                }
+                long rows = 0;
+                for (Future<Long> writer : writers) {
+                    rows += writer.get();
+                }
+                log.info("Loaded {} rows into {}{} in {} ms", rows, STAGING, table, millis(System.nanoTime() - start));
+                return rows;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted while loading " + table, e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Loading %s failed".formatted(table), e.getCause());
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Appends to {@code header} the {@link #COPIED_COLUMNS} of the table the file lacks and has
+     * the source of, returning the index of each one's source.
+     */
+    private static int[] copiedColumns(String table, List<String> header) {
+        List<Integer> sources = new ArrayList<>();
+        COPIED_COLUMNS.getOrDefault(table, Map.of()).forEach((column, source) -> {
+            if (!header.contains(column) && header.contains(source)) {
+                sources.add(header.indexOf(source));
+                header.add(column);
+            }
+        });
+        return sources.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    /** Hands a batch to the writers, failing fast rather than blocking once one of them died. */
+    private static void put(BlockingQueue<List<String[]>> batches, List<String[]> batch, List<Future<Long>> writers)
+        throws InterruptedException, ExecutionException {
+        while (!batches.offer(batch, 100, TimeUnit.MILLISECONDS)) {
+            for (Future<Long> writer : writers) {
+                if (writer.isDone()) {
+                    writer.get();
+                }
+            }
+        }
+    }
+
+    private long write(String copy, List<BinaryCopyWriter.ColumnType> types, BlockingQueue<List<String[]>> batches)
+        throws SQLException, IOException, InterruptedException {
+        long rows = 0;
+        try (Connection connection = dataSource.getConnection();
+             BinaryCopyWriter out = new BinaryCopyWriter(
+                 new PGCopyOutputStream(connection.unwrap(PGConnection.class), copy, 1 << 16), types)) {
+            for (List<String[]> batch = batches.take(); batch != END; batch = batches.take()) {
+                for (String[] row : batch) {
+                    out.write(row);
+                }
+                rows += batch.size();
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Recreates on the staging tables the constraints and indexes of the live ones under
+     * {@code import_} names, primary and unique keys first so foreign keys can use them, and
+     * the embedding index of the configured quantization if the live table does not have it.
+     */
+    private void buildIndexes() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute("set maintenance_work_mem = '%s'".formatted(maintenanceWorkMem));
+            statement.execute("set max_parallel_maintenance_workers = " + maintenanceWorkers);
+            List<String> ddl = new ArrayList<>();
+            for (String table : TABLES) {
+                for (Constraint constraint : constraints(connection, table)) {
+                    ddl.add("alter table %s%s add constraint %s%s %s"
+                        .formatted(STAGING, table, STAGING, constraint.name(), stagingReferences(constraint.definition())));
+                }
+            }
+            ddl.sort((a, b) -> Boolean.compare(a.contains(" FOREIGN KEY "), b.contains(" FOREIGN KEY ")));
+            boolean hasEmbeddingIndex = false;
+            for (String table : TABLES) {
+                for (Index index : indexes(connection, table)) {
+                    Matcher matcher = INDEX_DEF.matcher(index.definition());
+                    if (!matcher.matches()) {
+                        throw new IllegalStateException("Cannot recreate index " + index.definition());
+                    }
+                    ddl.add("%s %s%s ON %s%s %s".formatted(
+                        matcher.group(1), STAGING, index.name(), STAGING, table, matcher.group(2)));
+                    hasEmbeddingIndex |= index.name().equals(quantization.indexName());
+                }
+            }
+            if (!hasEmbeddingIndex) {
+                ddl.add(quantization.createIndexSql(STAGING + quantization.indexName(), STAGING + "titles"));
+            }
+            for (String sql : ddl) {
+                long start = System.nanoTime();
+                statement.execute(sql);
+                log.info("{} in {} ms", sql, millis(System.nanoTime() - start));
+            }
+            for (String table : TABLES) {
+                statement.execute("analyze " + STAGING + table);
+            }
+        }
+    }
+
+    /**
+     * Drops the live tables and renames the staging ones and their constraints and indexes into
+     * place. Foreign keys from other tables are recreated against the new tables once the rows
+     * referencing old ids are gone, and sequences move over to the new tables. Waits at most
+     * {@code lock-timeout} for the live tables, since queries queue up behind the lock.
+     */
+    private void swap() throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("set local lock_timeout = " + lockTimeout.toMillis());
+                statement.execute("lock table %s in access exclusive mode".formatted(String.join(", ", TABLES)));
+
+                List<Constraint> dependents = dependentForeignKeys(connection);
+                List<String> cleared = new ArrayList<>(dependents.stream().map(Constraint::table).distinct().toList());
+                cleared.addAll(DERIVED_TABLES);
+                statement.execute("truncate table " + String.join(", ", cleared));
+                for (Constraint constraint : dependents) {
+                    statement.execute("alter table %s drop constraint %s".formatted(constraint.table(), constraint.name()));
+                }
+
+                Map<String, String> sequences = new LinkedHashMap<>();
+                for (String table : TABLES) {
+                    for (Map.Entry<String, String> column : serialColumns(connection, table).entrySet()) {
+                        statement.execute("alter sequence %s owned by %s%s.%s"
+                            .formatted(column.getValue(), STAGING, table, column.getKey()));
+                        sequences.put(column.getValue(), table + "." + column.getKey());
+                    }
+                }
+                List<String> renames = new ArrayList<>();
+                for (String table : TABLES) {
+                    for (Constraint constraint : constraints(connection, STAGING + table)) {
+                        renames.add("alter table %s rename constraint %s to %s"
+                            .formatted(table, constraint.name(), unstaged(constraint.name())));
+                    }
+                    for (Index index : indexes(connection, STAGING + table)) {
+                        renames.add("alter index %s rename to %s".formatted(index.name(), unstaged(index.name())));
+                    }
+                }
+
+                statement.execute("drop table " + String.join(", ", TABLES.reversed()));
+                for (String table : TABLES) {
+                    statement.execute("alter table %s%s rename to %s".formatted(STAGING, table, table));
+                }
+                for (String sql : renames) {
+                    statement.execute(sql);
+                }
+                for (Constraint constraint : dependents) {
+                    statement.execute("alter table %s add constraint %s %s"
+                        .formatted(constraint.table(), constraint.name(), constraint.definition()));
+                }
+                for (Map.Entry<String, String> sequence : sequences.entrySet()) {
+                    String[] column = sequence.getValue().split("\\.");
+                    statement.execute("select setval('%s', coalesce((select max(%s) from %s), 1))"
+                        .formatted(sequence.getKey(), column[1], column[0]));
+                }
+                statement.execute(CatalogVersion.BUMP_SQL);
+                connection.commit();
+                log.info("Swapped in the imported catalog, cleared {}", cleared);
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+
+    private Map<String, Long> applyChanges() throws SQLException {
+        Map<String, Long> changes = new LinkedHashMap<>();
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                for (String table : TABLES) {
+                    statement.execute("analyze " + STAGING + table);
+                }
+                try (ResultSet rs = statement.executeQuery("select count(*) from import_titles where tmdb_id is null")) {
+                    rs.next();
+                    if (rs.getLong(1) > 0) {
+                        throw new IllegalArgumentException("Syncing needs tmdb_id for every title, %d have none"
+                            .formatted(rs.getLong(1)));
+                    }
+                }
+                upsert(statement, changes, "genres", """
+                    insert into genres as g (id, name)
+                    select id, name from import_genres
+                    on conflict (id) do update set name = excluded.name
+                    where g.name is distinct from excluded.name
+                    """);
+                upsert(statement, changes, "people", """
+                    insert into people as p (id, name, profile_url)
+                    select id, name, profile_url from import_people
+                    on conflict (id) do update set name = excluded.name, profile_url = excluded.profile_url
+                    where (p.name, p.profile_url) is distinct from (excluded.name, excluded.profile_url)
+                    """);
+
+                changes.put("titles.matched", (long) statement.executeUpdate("""
+                    with candidates as (
+                        select t.id, s.tmdb_id,
+                               count(*) over (partition by t.id) as per_title,
+                               count(*) over (partition by s.type, s.tmdb_id) as per_import
+                        from titles t
+                        join import_titles s on s.type = t.type
+                            and s.title = t.title
+                            and s.release_date is not distinct from t.release_date
+                        where t.tmdb_id is null
+                    )
+                    update titles t
+                    set tmdb_id = c.tmdb_id
+                    from candidates c
+                    where t.id = c.id
+                      and c.per_title = 1
+                      and c.per_import = 1
+                      and not exists (select 1 from titles o where o.type = t.type and o.tmdb_id = c.tmdb_id)
+                    """));
+                statement.execute("""
+                    create temp table sync_titles on commit drop as
+                    select t.id, s.type, s.tmdb_id, s.title, s.overview, s.release_date, s.runtime_minutes,
+                           s.season_count,
+                           s.rating, s.rating_count, s.tmdb_rating, s.tmdb_rating_count,
+                           s.popularity, s.poster_url, s.backdrop_url, s.embedding
+                    from import_titles s
+                    left join titles t on t.type = s.type and t.tmdb_id = s.tmdb_id
+                    """);
+                // Before the updates, to compare with the values profiles were built from
+                statement.execute("""
+                    insert into person_profile_changes (person_id)
+                    select distinct c.person_id
+                    from sync_titles s
+                    join titles t on t.id = s.id
+                    join cast_members c on c.title_id = t.id
+                    where (t.title, t.release_date, round(t.popularity::numeric), t.poster_url)
+                          is distinct from
+                          (s.title, s.release_date, round(s.popularity::numeric), s.poster_url)
+                    on conflict do nothing
+                    """);
+                long reembedded = statement.executeUpdate("""
+                    update titles t
+                    set title = s.title, overview = s.overview, release_date = s.release_date,
+                        runtime_minutes = s.runtime_minutes, season_count = s.season_count, %s,
+                        tmdb_rating = s.tmdb_rating, tmdb_rating_count = s.tmdb_rating_count,
+                        popularity = s.popularity, poster_url = s.poster_url, backdrop_url = s.backdrop_url,
+                        embedding = s.embedding, embedding_version = nextval('title_embedding_versions')
+                    from sync_titles s
+                    where t.id = s.id
+                      and (t.title, t.overview) is distinct from (s.title, s.overview)
+                    """.formatted(SYNCED_RATING));
+                long updated = statement.executeUpdate("""
+                    update titles t
+                    set release_date = s.release_date, runtime_minutes = s.runtime_minutes,
+                        season_count = s.season_count, %s,
+                        tmdb_rating = s.tmdb_rating, tmdb_rating_count = s.tmdb_rating_count,
+                        popularity = s.popularity, poster_url = s.poster_url, backdrop_url = s.backdrop_url
+                    from sync_titles s
+                    where t.id = s.id
+                      and (t.release_date, t.runtime_minutes, t.season_count, t.tmdb_rating, t.tmdb_rating_count,
+                           t.popularity, t.poster_url, t.backdrop_url)
+                          is distinct from
+                          (s.release_date, s.runtime_minutes, s.season_count, s.tmdb_rating, s.tmdb_rating_count,
+                           s.popularity, s.poster_url, s.backdrop_url)
+                    """.formatted(SYNCED_RATING));
+                changes.put("titles.inserted", (long) statement.executeUpdate("""
+                    insert into titles (tmdb_id, type, title, overview, release_date, runtime_minutes, season_count,
+                                        rating, rating_count, tmdb_rating, tmdb_rating_count, popularity,
+                                        poster_url, backdrop_url, embedding)
+                    select tmdb_id, type, title, overview, release_date, runtime_minutes, season_count,
+                           rating, rating_count, tmdb_rating, tmdb_rating_count, popularity,
+                           poster_url, backdrop_url, embedding
+                    from sync_titles
+                    where id is null
+                    """));
+                changes.put("titles.updated", reembedded + updated);
+                changes.put("titles.reembedded", reembedded);
+
+                statement.execute("""
+                    create temp table sync_title_ids on commit drop as
+                    select s.id as import_id, t.id as title_id
+                    from import_titles s
+                    join titles t on t.type = s.type and t.tmdb_id = s.tmdb_id
+                    """);
+                changes.put("title_genres.titles", syncLinks(statement, "title_genres",
+                    List.of("genre_id"), "l.genre_id::text", "l.genre_id"));
+                changes.put("cast_members.titles", syncLinks(statement, "cast_members",
+                    List.of("person_id", "character_name", "billing_order"),
+                    "row(l.person_id, l.billing_order, l.character_name)::text", "l.billing_order, l.person_id"));
+                statement.execute("""
+                    insert into person_profile_changes (person_id)
+                    select person_id from sync_removed_cast_members
+                    union
+                    select person_id from cast_members
+                    where title_id in (select title_id from sync_changed_cast_members)
+                    on conflict do nothing
+                    """);
+                statement.execute(CatalogVersion.BUMP_SQL);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+        return changes;
+    }
+
+    /** Runs an {@code insert ... on conflict do update} and counts inserted and updated rows. */
+    private static void upsert(Statement statement, Map<String, Long> changes, String table, String sql)
+        throws SQLException {
+        try (ResultSet rs = statement.executeQuery("""
+            with upserted as (%s returning xmax = 0 as inserted)
+            select count(*) filter (where inserted), count(*) filter (where not inserted) from upserted
+            """.formatted(sql))) {
+            rs.next();
+            changes.put(table + ".inserted", rs.getLong(1));
+            changes.put(table + ".updated", rs.getLong(2));
+        }
+    }
+
+    /**
+     * Replaces the links of the synced titles whose set of links, hashed as {@code content}
+     * in {@code order}, differs from the incoming one, keeping the removed links in
+     * {@code sync_removed_<table>}. Returns the number of such titles.
+     */
+    private static long syncLinks(Statement statement, String table, List<String> columns, String content, String order)
+        throws SQLException {
+        long changed = statement.executeUpdate("""
+            create temp table sync_changed_%1$s on commit drop as
+            with incoming as (
+                select m.title_id,
+                       md5(coalesce(string_agg(%2$s, ',' order by %3$s) filter (where l.title_id is not null), '')) as hash
+                from sync_title_ids m
+                left join import_%1$s l on l.title_id = m.import_id
+                group by m.title_id
+            ), current as (
+                select l.title_id, md5(string_agg(%2$s, ',' order by %3$s)) as hash
+                from %1$s l
+                where l.title_id in (select title_id from sync_title_ids)
+                group by l.title_id
+            )
+            select i.title_id
+            from incoming i
+            left join current c using (title_id)
+            where i.hash <> coalesce(c.hash, md5(''))
+            """.formatted(table, content, order));
+        statement.execute("create temp table sync_removed_%1$s on commit drop as select * from %1$s with no data"
+            .formatted(table));
+        statement.execute("""
+            with removed as (
+                delete from %1$s where title_id in (select title_id from sync_changed_%1$s) returning *
+            )
+            insert into sync_removed_%1$s select * from removed
+            """.formatted(table));
+        statement.execute("""
+            insert into %1$s (title_id, %2$s)
+            select m.title_id, %3$s
+            from import_%1$s l
+            join sync_title_ids m on m.import_id = l.title_id
+            where m.title_id in (select title_id from sync_changed_%1$s)
+            """.formatted(table, String.join(", ", columns),
+            String.join(", ", columns.stream().map(column -> "l." + column).toList())));
+        return changed;
+    }
+
+    private record Constraint(String table, String name, String definition) {
+    }
+
+    private record Index(String name, String definition) {
+    }
+
+    /** Primary key, unique and foreign key constraints of the table. */
+    private static List<Constraint> constraints(Connection connection, String table) throws SQLException {
+        return queryConstraints(connection, """
+            select conrelid::regclass::text, conname, pg_get_constraintdef(oid)
+            from pg_constraint
+            where conrelid = cast(? as regclass)
+              and contype in ('p', 'u', 'f')
+            order by contype desc, conname
+            """, statement -> statement.setString(1, table));
+    }
+
+    /** Foreign keys of tables outside the catalog referencing catalog tables. */
+    private static List<Constraint> dependentForeignKeys(Connection connection) throws SQLException {
+        return queryConstraints(connection, """
+            with catalog as (select cast(unnest(?::text[]) as regclass) as rel)
+            select conrelid::regclass::text, conname, pg_get_constraintdef(oid)
+            from pg_constraint
+            where contype = 'f'
+              and confrelid in (select rel from catalog)
+              and conrelid not in (select rel from catalog)
+            order by 1, 2
+            """, statement -> statement.setArray(1, connection.createArrayOf("text", TABLES.toArray())));
+    }
+
+    private static List<Constraint> queryConstraints(Connection connection, String sql, PreparedStatementSetter parameters)
+        throws SQLException {
+        List<Constraint> constraints = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            parameters.setValues(statement);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    constraints.add(new Constraint(rs.getString(1), rs.getString(2), rs.getString(3)));
+                }
+            }
+        }
+        return constraints;
+    }
+
+    /** Indexes of the table other than those backing its constraints. */
+    private static List<Index> indexes(Connection connection, String table) throws SQLException {
+        List<Index> indexes = new ArrayList<>();
+        try (PreparedStatement statement = connection.prepareStatement("""
+            select i.indexrelid::regclass::text, pg_get_indexdef(i.indexrelid)
+            from pg_index i
+            where i.indrelid = cast(? as regclass)
+              and not exists (select 1 from pg_constraint c where c.conindid = i.indexrelid)
+            order by 1
+            """)) {
+            statement.setString(1, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    indexes.add(new Index(rs.getString(1), rs.getString(2)));
+                }
+            }
+        }
+        return indexes;
+    }
+
+    /** Sequences owned by the table's columns, by column name. */
+    private static Map<String, String> serialColumns(Connection connection, String table) throws SQLException {
+        Map<String, String> sequences = new LinkedHashMap<>();
+        try (PreparedStatement statement = connection.prepareStatement("""
+            select a.attname, pg_get_serial_sequence(?, a.attname)
+            from pg_attribute a
+            where a.attrelid = cast(? as regclass)
+              and a.attnum > 0
+              and not a.attisdropped
+              and pg_get_serial_sequence(?, a.attname) is not null
+            """)) {
+            statement.setString(1, table);
+            statement.setString(2, table);
+            statement.setString(3, table);
+            try (ResultSet rs = statement.executeQuery()) {
+                while (rs.next()) {
+                    sequences.put(rs.getString(1), rs.getString(2));
+                }
+            }
+        }
+        return sequences;
+    }
+
+    /** Points foreign keys between catalog tables at their staging copies. */
+    private static String stagingReferences(String definition) {
+        Matcher matcher = REFERENCES.matcher(definition);
+        StringBuilder result = new StringBuilder();
+        while (matcher.find()) {
+            String table = matcher.group(1);
+            matcher.appendReplacement(result, "REFERENCES " + (TABLES.contains(table) ? STAGING + table : table) + "(");
+        }
+        return matcher.appendTail(result).toString();
+    }
+
+    private static String unstaged(String name) {
+        return name.startsWith(STAGING) ? name.substring(STAGING.length()) : name;
+    }
+
+    private static String staging(List<String> tables) {
+        return String.join(", ", tables.reversed().stream().map(table -> STAGING + table).toList());
+    }
+
+    private static long millis(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+}
@@ -0,0 +1,64 @@
+package com.umdb.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Version of the catalog, kept in the {@code data_versions} row that catalog loads bump in
+ * their own transaction: the import command, tmdb_load.sql and the seed data. Loads usually
+ * run in another process, so the row is polled; when it moves, the Spring caches, which may
+ * hold the old catalog, are cleared. In-memory projections of the catalog only catch up at
+ * their own next refresh, so until then a new version can still be served with some of their
+ * old content.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogVersion {
+    /** Run in the transaction that changes the catalog. */
+    public static final String BUMP_SQL = """
+        insert into data_versions as v (name, version) values ('catalog', 1)
+        on conflict (name) do update set version = v.version + 1, updated_at = now()
+        """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CacheManager cacheManager;
+
+    private volatile long version = -1;
+
+    /** The version last read, reading it first if it never was. */
+    public long current() {
+        long current = version;
+        return current >= 0 ? current : check();
+    }
+
+    @Scheduled(fixedDelayString = "${app.catalog.version-check-interval:PT10S}")
+    public void refresh() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            log.warn("Catalog version check failed", e);
+        }
+    }
+
+    private synchronized long check() {
+        Long loaded = jdbcTemplate.query("select version from data_versions where name = 'catalog'",
+            rs -> rs.next() ? rs.getLong(1) : 0L);
+        if (version >= 0 && loaded != version) {
+            for (String name : cacheManager.getCacheNames()) {
+                Cache cache = cacheManager.getCache(name);
+                if (cache != null) {
+                    cache.clear();
+                }
+            }
+            log.info("Catalog version {} loaded, caches cleared", loaded);
+        }
+        version = loaded;
+        return loaded;
+    }
+}
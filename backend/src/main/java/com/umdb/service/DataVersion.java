@@ -0,0 +1,42 @@
+package com.umdb.service;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Versions of the catalog and of each title, the basis of the ETags of endpoints read from the
+ * database. A title's version moves when its reviews, rating or stored similar titles change.
+ * Titles share {@value #TITLE_SLOTS} counters by id, so a change may also move a few unrelated
+ * titles' versions, which costs them a full response and nothing else.
+ *
+ * <p>Versions are prefixed with the start time, so those of an earlier run or of another
+ * instance never match.
+ */
+@Component
+@RequiredArgsConstructor
+public class DataVersion {
+    private static final int TITLE_SLOTS = 1 << 14;
+
+    private final CatalogVersion catalogVersion;
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLongArray titles = new AtomicLongArray(TITLE_SLOTS);
+
+    public String catalog() {
+        return epoch + "." + catalogVersion.current();
+    }
+
+    public String title(long titleId) {
+        return catalog() + "." + titles.get(slot(titleId));
+    }
+
+    public void titleChanged(long titleId) {
+        titles.incrementAndGet(slot(titleId));
+    }
+
+    private static int slot(long titleId) {
+        return (int) Math.floorMod(titleId, (long) TITLE_SLOTS);
+    }
+}
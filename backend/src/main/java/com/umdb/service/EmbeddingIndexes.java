@@ -0,0 +1,99 @@
+package com.umdb.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Owns the ANN index over {@code titles.embedding}, which depends on the configured
+ * {@link EmbeddingQuantization} and so is not part of schema.sql. {@link CatalogImporter} builds
+ * it with every full import; after startup a background thread creates it concurrently if it is
+ * missing, so neither startup nor writes to titles wait for it, and ANN queries scan until it is
+ * ready. With {@code drop-unused-indexes} the indexes of the other modes are dropped, also
+ * concurrently, so they stop taking disk and buffer cache. Instances starting together are
+ * serialized by an advisory lock, and those finding it taken leave the work to its holder.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingIndexes {
+    private static final long INDEX_LOCK = 0x756d6469L; // "umdi"
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${app.recommendations.ann.quantization:NONE}")
+    private EmbeddingQuantization quantization;
+
+    @Value("${app.recommendations.ann.drop-unused-indexes:false}")
+    private boolean dropUnused;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensure() {
+        Thread.ofVirtual().name("embedding-indexes").start(() -> {
+            try {
+                jdbcTemplate.execute((ConnectionCallback<Void>) this::maintain);
+            } catch (RuntimeException e) {
+                log.warn("Could not maintain the embedding indexes", e);
+            }
+        });
+    }
+
+    /** Runs outside a transaction, as the concurrent index statements require. */
+    private Void maintain(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            try (ResultSet rs = statement.executeQuery("select pg_try_advisory_lock(" + INDEX_LOCK + ")")) {
+                rs.next();
+                if (!rs.getBoolean(1)) {
+                    log.info("Embedding indexes are being maintained by another instance");
+                    return null;
+                }
+            }
+            try {
+                Boolean valid = indexValid(connection, quantization.indexName());
+                if (Boolean.FALSE.equals(valid)) {
+                    // Left behind by a concurrent build that failed; if not exists would keep it
+                    statement.execute("drop index concurrently if exists " + quantization.indexName());
+                }
+                if (!Boolean.TRUE.equals(valid)) {
+                    long start = System.nanoTime();
+                    statement.execute(quantization.createIndexConcurrentlySql());
+                    log.info("Embedding index {} built in {} ms", quantization.indexName(),
+                        TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                }
+                if (dropUnused) {
+                    for (EmbeddingQuantization other : EmbeddingQuantization.values()) {
+                        if (other != quantization) {
+                            statement.execute("drop index concurrently if exists " + other.indexName());
+                        }
+                    }
+                }
+            } finally {
+                statement.execute("select pg_advisory_unlock(" + INDEX_LOCK + ")");
+            }
+        }
+        return null;
+    }
+
+    /** Whether the index is usable, null when it does not exist. */
+    private static Boolean indexValid(Connection connection, String name) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(
+            "select indisvalid from pg_index where indexrelid = to_regclass(?)")) {
+            statement.setString(1, name);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getBoolean(1) : null;
+            }
+        }
+    }
+}
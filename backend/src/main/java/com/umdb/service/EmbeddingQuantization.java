@@ -0,0 +1,78 @@
+package com.umdb.service;
+
+/**
+ * How the ANN index over {@code titles.embedding} stores vectors. The column itself stays
+ * full-precision {@code vector(256)}: quantized modes only shrink the hnsw index, then rescore
+ * the candidates it returns with exact cosine distance on the column.
+ */
+public enum EmbeddingQuantization {
+    /** float32 index, distances straight from the index order. */
+    NONE("idx_titles_embedding",
+        "hnsw (embedding vector_cosine_ops)",
+        "t.embedding <=> %s"),
+    /** float16 index, half the size of {@link #NONE}. */
+    HALFVEC("idx_titles_embedding_half",
+        "hnsw ((embedding::halfvec(256)) halfvec_cosine_ops)",
+        "t.embedding::halfvec(256) <=> (%s)::halfvec(256)"),
+    /** One bit per dimension compared by Hamming distance, 1/32 of {@link #NONE}. */
+    BINARY("idx_titles_embedding_binary",
+        "hnsw ((binary_quantize(embedding)::bit(256)) bit_hamming_ops)",
+        "binary_quantize(t.embedding)::bit(256) <~> binary_quantize(%s)::bit(256)");
+
+    private final String indexName;
+    private final String indexMethod;
+    private final String indexOrder;
+
+    EmbeddingQuantization(String indexName, String indexMethod, String indexOrder) {
+        this.indexName = indexName;
+        this.indexMethod = indexMethod;
+        this.indexOrder = indexOrder;
+    }
+
+    public String indexName() {
+        return indexName;
+    }
+
+    /** Index order by distance to {@code target}, a vector-valued SQL expression. */
+    public String indexOrder(String target) {
+        return indexOrder.formatted(target);
+    }
+
+    /** This mode's index on {@code titles}, built without blocking writes; not in a transaction. */
+    public String createIndexConcurrentlySql() {
+        return "create index concurrently if not exists %s on titles using %s".formatted(indexName, indexMethod);
+    }
+
+    /** This mode's index under another name, on a table shaped like {@code titles}. */
+    public String createIndexSql(String name, String table) {
+        return "create index if not exists %s on %s using %s".formatted(name, table, indexMethod);
+    }
+
+    /**
+     * Nearest titles to {@code :id} with their exact cosine distance, closest first, at most
+     * {@code :candidates}. Quantized modes take {@code :depth} titles from the index and rescore
+     * them; {@code :depth} is ignored for {@link #NONE}.
+     */
+    public String neighbourSql() {
+        String order = indexOrder("(select embedding from titles where id = :id)");
+        if (this == NONE) {
+            return """
+                select t.id, %s as distance
+                from titles t
+                order by %s
+                limit :candidates
+                """.formatted(order, order);
+        }
+        return """
+            select c.id, c.embedding <=> (select embedding from titles where id = :id) as distance
+            from (
+                select t.id, t.embedding
+                from titles t
+                order by %s
+                limit :depth
+            ) c
+            order by distance
+            limit :candidates
+            """.formatted(order);
+    }
+}
@@ -0,0 +1,240 @@
+package com.umdb.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Unit-length float32 embeddings in a memory-mapped file, so the vectors live outside the heap
+ * and survive restarts in the page cache.
+ *
+ * <p>Layout, in native byte order: a 16 byte header (magic, version, dimensions, count), the
+ * vectors back to back, then the title ids in ascending order. Vectors are normalised on write,
+ * so cosine distance is {@code 1 - dot}. The file is mapped in segments of whole vectors because
+ * a single mapping is limited to 2 GiB.
+ */
+public final class EmbeddingStore {
+    private static final int MAGIC = 0x554d4456; // "UMDV"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final long MAX_SEGMENT_BYTES = 1L << 30;
+
+    private final Path file;
+    private final int dimensions;
+    private final long[] ids;
+    private final FloatBuffer[] segments;
+    private final int vectorsPerSegment;
+
+    private EmbeddingStore(Path file, int dimensions, long[] ids, FloatBuffer[] segments,
+                           int vectorsPerSegment) {
+        this.file = file;
+        this.dimensions = dimensions;
+        this.ids = ids;
+        this.segments = segments;
+        this.vectorsPerSegment = vectorsPerSegment;
+    }
+
+    public static Writer writer(Path file, int dimensions) {
+        return new Writer(file, dimensions);
+    }
+
+    public static EmbeddingStore open(Path file) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.nativeOrder());
+            readFully(channel, header, 0);
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IllegalStateException("Not an embedding store: " + file);
+            }
+            int dimensions = header.getInt();
+            int count = header.getInt();
+            long vectorBytes = (long) count * dimensions * Float.BYTES;
+
+            ByteBuffer idBytes = ByteBuffer.allocate(count * Long.BYTES).order(ByteOrder.nativeOrder());
+            readFully(channel, idBytes, HEADER_BYTES + vectorBytes);
+            long[] ids = new long[count];
+            idBytes.asLongBuffer().get(ids);
+
+            int vectorsPerSegment = (int) Math.max(1, MAX_SEGMENT_BYTES / ((long) dimensions * Float.BYTES));
+            int segmentCount = Math.max(1, (count + vectorsPerSegment - 1) / vectorsPerSegment);
+            FloatBuffer[] segments = new FloatBuffer[segmentCount];
+            for (int s = 0; s < segmentCount; s++) {
+                int first = s * vectorsPerSegment;
+                int vectors = Math.min(vectorsPerSegment, count - first);
+                long offset = HEADER_BYTES + (long) first * dimensions * Float.BYTES;
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, offset,
+                    (long) Math.max(vectors, 0) * dimensions * Float.BYTES);
+                segments[s] = mapped.order(ByteOrder.nativeOrder()).asFloatBuffer();
+            }
+            return new EmbeddingStore(file, dimensions, ids, segments, vectorsPerSegment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer target, long position)
+        throws IOException {
+        while (target.hasRemaining()) {
+            if (channel.read(target, position + target.position()) < 0) {
+                throw new IllegalStateException("Truncated embedding store");
+            }
+        }
+        target.flip();
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int dimensions() {
+        return dimensions;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public long id(int index) {
+        return ids[index];
+    }
+
+    /** Position of a title id, or -1 when the title has no stored embedding. */
+    public int indexOf(long id) {
+        int index = Arrays.binarySearch(ids, id);
+        return index >= 0 ? index : -1;
+    }
+
+    /** Copies the vector at {@code index} into {@code target} at {@code offset}. */
+    public void read(int index, float[] target, int offset) {
+        readBlock(index, 1, target, offset);
+    }
+
+    /** Copies {@code count} consecutive vectors starting at {@code index}, back to back. */
+    public void readBlock(int index, int count, float[] target, int offset) {
+        while (count > 0) {
+            int segment = index / vectorsPerSegment;
+            int first = index % vectorsPerSegment;
+            int vectors = Math.min(count, vectorsPerSegment - first);
+            segments[segment].get(first * dimensions, target, offset, vectors * dimensions);
+            index += vectors;
+            count -= vectors;
+            offset += vectors * dimensions;
+        }
+    }
+
+    /** Appends vectors in ascending id order, then writes the ids and header. */
+    public static final class Writer {
+        private final Path file;
+        private final int dimensions;
+        private final ByteBuffer buffer;
+        private final List<long[]> idChunks = new ArrayList<>();
+        private long[] ids = new long[8192];
+        private int idCount;
+        private int count;
+        private long lastId = Long.MIN_VALUE;
+        private FileChannel channel;
+
+        private Writer(Path file, int dimensions) {
+            this.file = file;
+            this.dimensions = dimensions;
+            this.buffer = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.nativeOrder());
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                this.channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+                channel.position(HEADER_BYTES);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        public void add(long id, float[] vector) {
+            if (vector.length != dimensions) {
+                throw new IllegalArgumentException("Expected %d dimensions, got %d"
+                    .formatted(dimensions, vector.length));
+            }
+            if (id <= lastId) {
+                throw new IllegalArgumentException("Ids must be added in ascending order");
+            }
+            lastId = id;
+            double norm = 0;
+            for (float value : vector) {
+                norm += value * value;
+            }
+            // Zero vectors stay zero: distance 1 to everything
+            float scale = norm > 0 ? (float) (1 / Math.sqrt(norm)) : 0;
+            if (buffer.remaining() < dimensions * Float.BYTES) {
+                flush();
+            }
+            for (float value : vector) {
+                buffer.putFloat(value * scale);
+            }
+            if (idCount == ids.length) {
+                idChunks.add(ids);
+                ids = new long[ids.length];
+                idCount = 0;
+            }
+            ids[idCount++] = id;
+            count++;
+        }
+
+        public EmbeddingStore finish() {
+            try {
+                flush();
+                for (long[] chunk : idChunks) {
+                    writeIds(chunk, chunk.length);
+                }
+                writeIds(ids, idCount);
+                flush();
+                buffer.putInt(MAGIC).putInt(VERSION).putInt(dimensions).putInt(count).flip();
+                channel.write(buffer, 0);
+                buffer.clear();
+                channel.force(false);
+                channel.close();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return open(file);
+        }
+
+        /** Closes and deletes the partially written file. */
+        public void abort() {
+            try {
+                channel.close();
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private void writeIds(long[] values, int length) {
+            for (int i = 0; i < length; i++) {
+                if (buffer.remaining() < Long.BYTES) {
+                    flush();
+                }
+                buffer.putLong(values[i]);
+            }
+        }
+
+        private void flush() {
+            try {
+                buffer.flip();
+                while (buffer.hasRemaining()) {
+                    channel.write(buffer);
+                }
+                buffer.clear();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.umdb.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Runs independent sub-queries of a request concurrently, each on its own virtual thread, and
+ * waits for all of them within {@code app.fanout.deadline}. The first failure or the deadline
+ * cancels the rest, like a {@code StructuredTaskScope.ShutdownOnFailure} scope:
+ *
+ * <pre>
+ * try (Fanout.Scope scope = fanout.open()) {
+ *     Supplier&lt;A&gt; a = scope.fork(this::loadA);
+ *     Supplier&lt;B&gt; b = scope.fork(this::loadB);
+ *     scope.join();
+ *     return combine(a.get(), b.get());
+ * }
+ * </pre>
+ *
+ * Forks run inline on the calling thread unless {@code spring.threads.virtual.enabled} is set,
+ * so the opt-in virtual thread mode switches both together. Forked work runs outside the
+ * caller's transaction.
+ */
+@Component
+public class Fanout {
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean parallel;
+
+    @Value("${app.fanout.deadline:PT2S}")
+    private Duration deadline;
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public Scope open() {
+        return new Scope(System.nanoTime() + deadline.toNanos());
+    }
+
+    public final class Scope implements AutoCloseable {
+        private final long deadlineNanos;
+        private final ExecutorCompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+        private final List<Future<?>> forks = new ArrayList<>();
+
+        private Scope(long deadlineNanos) {
+            this.deadlineNanos = deadlineNanos;
+        }
+
+        /** Starts {@code task}; its result can be read once {@link #join()} has returned. */
+        public <T> Supplier<T> fork(Supplier<T> task) {
+            if (!parallel) {
+                T value = task.get();
+                return () -> value;
+            }
+            @SuppressWarnings("unchecked")
+            Future<T> future = (Future<T>) completion.submit(task::get);
+            forks.add(future);
+            return future::resultNow;
+        }
+
+        /** Waits for every fork, rethrowing the first failure. */
+        public void join() {
+            try {
+                for (int i = 0; i < forks.size(); i++) {
+                    Future<Object> done = completion.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                    if (done == null) {
+                        throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Request deadline exceeded");
+                    }
+                    done.get();
+                }
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtime) {
+                    throw runtime;
+                }
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw new IllegalStateException(e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Request interrupted");
+            } finally {
+                close();
+            }
+        }
+
+        /** Cancels forks still running, for when the caller leaves before joining. */
+        @Override
+        public void close() {
+            for (Future<?> fork : forks) {
+                fork.cancel(true);
+            }
+        }
+    }
+}
@@ -0,0 +1,333 @@
+package com.umdb.service;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Hierarchical navigable small world graph over the vectors of an {@link EmbeddingStore}
+ * (Malkov and Yashunin), using cosine distance on the store's unit vectors.
+ *
+ * <p>Nodes are store positions. Layer 0 adjacency is one flat {@code int[]} with {@code 2 * m}
+ * slots per node; the few nodes on upper layers keep small per-layer arrays. The graph is built
+ * once, single-threaded, and is safe for concurrent searches afterwards.
+ */
+public final class HnswGraph {
+    private final EmbeddingStore store;
+    private final VectorMath math;
+    private final int dimensions;
+    private final int m;
+    private final int m0;
+
+    private final int[] level0;
+    private final int[] level0Counts;
+    private final int[][][] upper;
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+
+    private final ConcurrentLinkedQueue<Visited> visitedPool = new ConcurrentLinkedQueue<>();
+
+    private HnswGraph(EmbeddingStore store, int m) {
+        this.store = store;
+        this.math = VectorMath.get();
+        this.dimensions = store.dimensions();
+        this.m = m;
+        this.m0 = 2 * m;
+        this.level0 = new int[store.size() * m0];
+        this.level0Counts = new int[store.size()];
+        this.upper = new int[store.size()][][];
+    }
+
+    public static HnswGraph build(EmbeddingStore store, int m, int efConstruction, long seed) {
+        HnswGraph graph = new HnswGraph(store, m);
+        SplittableRandom random = new SplittableRandom(seed);
+        double levelMultiplier = 1 / Math.log(m);
+        Builder builder = graph.new Builder(efConstruction);
+        for (int node = 0; node < store.size(); node++) {
+            int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            builder.insert(node, level);
+        }
+        return graph;
+    }
+
+    public int size() {
+        return level0Counts.length;
+    }
+
+    /**
+     * Approximate nearest store positions to a unit-length {@code query}, closest first.
+     * Distances are written to {@code distances}; returns the number of results.
+     */
+    public int search(float[] query, int k, int ef, int[] nodes, float[] distances) {
+        if (entryPoint < 0) {
+            return 0;
+        }
+        float[] scratch = new float[dimensions];
+        int current = entryPoint;
+        float currentDistance = distance(query, current, scratch);
+        for (int level = maxLevel; level > 0; level--) {
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                int[] neighbours = upper[current][level - 1];
+                for (int i = 1; i <= neighbours[0]; i++) {
+                    float d = distance(query, neighbours[i], scratch);
+                    if (d < currentDistance) {
+                        currentDistance = d;
+                        current = neighbours[i];
+                        improved = true;
+                    }
+                }
+            }
+        }
+        Visited visited = acquireVisited();
+        try {
+            NodeHeap results = searchLayer(query, current, currentDistance, Math.max(ef, k), 0,
+                visited, scratch);
+            int count = Math.min(k, results.size());
+            // Drop the furthest until k remain, then drain in descending order
+            while (results.size() > count) {
+                results.pop();
+            }
+            for (int i = count - 1; i >= 0; i--) {
+                distances[i] = results.topDistance();
+                nodes[i] = results.pop();
+            }
+            return count;
+        } finally {
+            visitedPool.offer(visited);
+        }
+    }
+
+    private NodeHeap searchLayer(float[] query, int entry, float entryDistance, int ef, int level,
+                                 Visited visited, float[] scratch) {
+        visited.clear();
+        NodeHeap candidates = new NodeHeap(ef + 1, false);
+        NodeHeap results = new NodeHeap(ef + 1, true);
+        visited.add(entry);
+        candidates.push(entry, entryDistance);
+        results.push(entry, entryDistance);
+        while (candidates.size() > 0) {
+            float candidateDistance = candidates.topDistance();
+            if (results.size() >= ef && candidateDistance > results.topDistance()) {
+                break;
+            }
+            int candidate = candidates.pop();
+            int count = neighbourCount(candidate, level);
+            for (int i = 0; i < count; i++) {
+                int neighbour = neighbour(candidate, level, i);
+                if (!visited.add(neighbour)) {
+                    continue;
+                }
+                float d = distance(query, neighbour, scratch);
+                if (results.size() < ef || d < results.topDistance()) {
+                    candidates.push(neighbour, d);
+                    results.push(neighbour, d);
+                    if (results.size() > ef) {
+                        results.pop();
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    private int neighbourCount(int node, int level) {
+        return level == 0 ? level0Counts[node] : upper[node][level - 1][0];
+    }
+
+    private int neighbour(int node, int level, int i) {
+        return level == 0 ? level0[node * m0 + i] : upper[node][level - 1][i + 1];
+    }
+
+    private float distance(float[] query, int node, float[] scratch) {
+        store.read(node, scratch, 0);
+        return 1 - math.dot(query, 0, scratch, 0, dimensions);
+    }
+
+    private Visited acquireVisited() {
+        Visited visited = visitedPool.poll();
+        return visited != null ? visited : new Visited(size());
+    }
+
+    private final class Builder {
+        private final int efConstruction;
+        private final float[] query = new float[dimensions];
+        private final float[] scratch = new float[dimensions];
+        private final float[] other = new float[dimensions];
+        private final Visited visited = new Visited(size());
+
+        Builder(int efConstruction) {
+            this.efConstruction = efConstruction;
+        }
+
+        void insert(int node, int level) {
+            if (level > 0) {
+                upper[node] = new int[level][];
+                for (int l = 0; l < level; l++) {
+                    upper[node][l] = new int[m + 1];
+                }
+            }
+            if (entryPoint < 0) {
+                entryPoint = node;
+                maxLevel = level;
+                return;
+            }
+            store.read(node, query, 0);
+            int current = entryPoint;
+            float currentDistance = distance(query, current, scratch);
+            for (int l = maxLevel; l > level; l--) {
+                boolean improved = true;
+                while (improved) {
+                    improved = false;
+                    int from = current;
+                    int count = neighbourCount(from, l);
+                    for (int i = 0; i < count; i++) {
+                        int neighbour = neighbour(from, l, i);
+                        float d = distance(query, neighbour, scratch);
+                        if (d < currentDistance) {
+                            currentDistance = d;
+                            current = neighbour;
+                            improved = true;
+                        }
+                    }
+                }
+            }
+            for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+                NodeHeap found = searchLayer(query, current, currentDistance, efConstruction, l,
+                    visited, scratch);
+                int[] candidates = new int[found.size()];
+                float[] candidateDistances = new float[found.size()];
+                for (int i = found.size() - 1; i >= 0; i--) {
+                    candidateDistances[i] = found.topDistance();
+                    candidates[i] = found.pop();
+                }
+                int capacity = l == 0 ? m0 : m;
+                int selected = selectNeighbours(candidates, candidateDistances, candidates.length, capacity);
+                for (int i = 0; i < selected; i++) {
+                    setNeighbour(node, l, i, candidates[i]);
+                }
+                setNeighbourCount(node, l, selected);
+                for (int i = 0; i < selected; i++) {
+                    link(candidates[i], node, l, capacity);
+                }
+                current = candidates[0];
+                currentDistance = candidateDistances[0];
+            }
+            if (level > maxLevel) {
+                maxLevel = level;
+                entryPoint = node;
+            }
+        }
+
+        /** Adds {@code node} to the neighbours of {@code target}, pruning when full. */
+        private void link(int target, int node, int level, int capacity) {
+            int count = neighbourCount(target, level);
+            if (count < capacity) {
+                setNeighbour(target, level, count, node);
+                setNeighbourCount(target, level, count + 1);
+                return;
+            }
+            store.read(target, other, 0);
+            int[] candidates = new int[count + 1];
+            float[] distances = new float[count + 1];
+            for (int i = 0; i < count; i++) {
+                candidates[i] = neighbour(target, level, i);
+            }
+            candidates[count] = node;
+            for (int i = 0; i <= count; i++) {
+                distances[i] = distance(other, candidates[i], scratch);
+            }
+            sortByDistance(candidates, distances);
+            int selected = selectNeighbours(candidates, distances, candidates.length, capacity);
+            for (int i = 0; i < selected; i++) {
+                setNeighbour(target, level, i, candidates[i]);
+            }
+            setNeighbourCount(target, level, selected);
+        }
+
+        /**
+         * Diversity heuristic: walking candidates closest first, keeps one only if it is closer
+         * to the base node than to every neighbour kept so far. Selected candidates are moved to
+         * the front of the arrays; returns how many were selected.
+         */
+        private int selectNeighbours(int[] candidates, float[] distances, int count, int capacity) {
+            int selected = 0;
+            float[] candidateVector = new float[dimensions];
+            for (int i = 0; i < count && selected < capacity; i++) {
+                store.read(candidates[i], candidateVector, 0);
+                boolean keep = true;
+                for (int j = 0; j < selected; j++) {
+                    if (distance(candidateVector, candidates[j], scratch) < distances[i]) {
+                        keep = false;
+                        break;
+                    }
+                }
+                if (keep) {
+                    candidates[selected] = candidates[i];
+                    distances[selected] = distances[i];
+                    selected++;
+                }
+            }
+            return selected;
+        }
+
+        private void setNeighbour(int node, int level, int i, int neighbour) {
+            if (level == 0) {
+                level0[node * m0 + i] = neighbour;
+            } else {
+                upper[node][level - 1][i + 1] = neighbour;
+            }
+        }
+
+        private void setNeighbourCount(int node, int level, int count) {
+            if (level == 0) {
+                level0Counts[node] = count;
+            } else {
+                upper[node][level - 1][0] = count;
+            }
+        }
+    }
+
+    private static void sortByDistance(int[] nodes, float[] distances) {
+        // Insertion sort: at most 2 * m + 1 entries
+        for (int i = 1; i < nodes.length; i++) {
+            int node = nodes[i];
+            float distance = distances[i];
+            int j = i - 1;
+            while (j >= 0 && distances[j] > distance) {
+                nodes[j + 1] = nodes[j];
+                distances[j + 1] = distances[j];
+                j--;
+            }
+            nodes[j + 1] = node;
+            distances[j + 1] = distance;
+        }
+    }
+
+    /** Visited marks that are cleared in O(1) by bumping a generation counter. */
+    private static final class Visited {
+        private final int[] marks;
+        private int generation;
+
+        Visited(int size) {
+            this.marks = new int[size];
+        }
+
+        void clear() {
+            if (++generation == 0) {
+                Arrays.fill(marks, 0);
+                generation = 1;
+            }
+        }
+
+        /** Marks a node, returning false when it was already visited. */
+        boolean add(int node) {
+            if (marks[node] == generation) {
+                return false;
+            }
+            marks[node] = generation;
+            return true;
+        }
+    }
+}
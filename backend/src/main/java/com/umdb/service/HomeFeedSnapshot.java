@@ -0,0 +1,136 @@
+package com.umdb.service;
+
+import com.umdb.dto.HomeResponseDto;
+import com.umdb.dto.HomeSectionDto;
+import com.umdb.dto.TitleCardDto;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Precomputed home page sections. The feed only changes when the catalog does, so it is rebuilt
+ * on a fixed delay in the background and requests are served from the last published snapshot.
+ */
+@Slf4j
+@Component
+public class HomeFeedSnapshot {
+    private final TitleService titleService;
+    private final Fanout fanout;
+    private final AtomicReference<Snapshot> current = new AtomicReference<>();
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private final Timer rebuildTimer;
+
+    @Value("${app.home.section-size:12}")
+    private int sectionSize;
+
+    public HomeFeedSnapshot(TitleService titleService, Fanout fanout, MeterRegistry meterRegistry) {
+        this.titleService = titleService;
+        this.fanout = fanout;
+        this.rebuildTimer = Timer.builder("umdb.home.snapshot.rebuild")
+            .description("Time taken to rebuild the home feed snapshot")
+            .register(meterRegistry);
+        Gauge.builder("umdb.home.snapshot.age", this, HomeFeedSnapshot::ageSeconds)
+            .description("Seconds since the current home feed snapshot was built")
+            .baseUnit("seconds")
+            .register(meterRegistry);
+    }
+
+    public HomeResponseDto get() {
+        return snapshot().response();
+    }
+
+    /**
+     * Moves only when a rebuild changes the feed. Starts from the start time, so versions of an
+     * earlier run or of another instance never match.
+     */
+    public long version() {
+        return snapshot().version();
+    }
+
+    private Snapshot snapshot() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            // Only hit before the first scheduled build has finished.
+            snapshot = rebuild(true);
+        }
+        return snapshot;
+    }
+
+    @Scheduled(fixedDelayString = "${app.home.refresh-interval:PT1M}")
+    public void refresh() {
+        try {
+            rebuild(false);
+        } catch (RuntimeException e) {
+            log.warn("Home feed snapshot rebuild failed, keeping previous snapshot", e);
+        }
+    }
+
+    /** With {@code ifMissing}, returns the snapshot published while waiting for the lock, if any. */
+    private Snapshot rebuild(boolean ifMissing) {
+        // Not synchronized, which would pin a virtual thread's carrier while the sections load
+        rebuildLock.lock();
+        try {
+            Snapshot built = current.get();
+            if (ifMissing && built != null) {
+                // Requests arriving together at a cold start share the first build
+                return built;
+            }
+            return build();
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    private Snapshot build() {
+        long start = System.nanoTime();
+        HomeResponseDto response;
+        try (Fanout.Scope scope = fanout.open()) {
+            Supplier<List<TitleCardDto>> trending = scope.fork(() -> titleService.getTrending(sectionSize));
+            Supplier<List<TitleCardDto>> newReleases = scope.fork(() -> titleService.getNewReleases(sectionSize));
+            Supplier<List<TitleCardDto>> topRated = scope.fork(() -> titleService.getTopRated(sectionSize));
+            Supplier<Long> totalCount = scope.fork(titleService::getEstimatedTotalCount);
+            scope.join();
+            response = HomeResponseDto.builder()
+                .sections(List.of(
+                    HomeSectionDto.builder().title("Trending Now").items(trending.get()).build(),
+                    HomeSectionDto.builder().title("New Releases").items(newReleases.get()).build(),
+                    HomeSectionDto.builder().title("Top Rated").items(topRated.get()).build()
+                ))
+                .totalCountEstimate(totalCount.get())
+                .build();
+        }
+        long elapsed = System.nanoTime() - start;
+        rebuildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+
+        Snapshot previous = current.get();
+        long version = previous == null ? System.currentTimeMillis()
+            : previous.response().equals(response) ? previous.version()
+            : previous.version() + 1;
+        Snapshot snapshot = new Snapshot(response, version, Instant.now());
+        current.set(snapshot);
+        log.debug("Home feed snapshot rebuilt in {} ms", TimeUnit.NANOSECONDS.toMillis(elapsed));
+        return snapshot;
+    }
+
+    private double ageSeconds() {
+        Snapshot snapshot = current.get();
+        if (snapshot == null) {
+            return Double.NaN;
+        }
+        return Duration.between(snapshot.builtAt(), Instant.now()).toMillis() / 1000.0;
+    }
+
+    private record Snapshot(HomeResponseDto response, long version, Instant builtAt) {}
+}
@@ -0,0 +1,73 @@
+package com.umdb.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * {@link QueryEncoder} backed by an embedding server speaking the text-embeddings-inference
+ * {@code /embed} protocol, run with the model that produced the catalog embeddings (see
+ * scripts/tmdb_convert.py). Longer outputs are truncated to the catalog dimensions, which is
+ * valid for the Matryoshka-trained model used there, and renormalised. Encodings of recent
+ * queries are cached since autocomplete-driven searches repeat them.
+ */
+@Component
+@ConditionalOnProperty("app.search.hybrid.encoder.url")
+public class HttpQueryEncoder implements QueryEncoder {
+    private final RestClient restClient;
+    private final int dimensions;
+    private final Cache<String, float[]> cache = Caffeine.newBuilder()
+        .maximumSize(10_000)
+        .build();
+
+    public HttpQueryEncoder(
+        @Value("${app.search.hybrid.encoder.url}") String url,
+        @Value("${app.search.hybrid.encoder.timeout:PT0.2S}") Duration timeout,
+        @Value("${app.search.hybrid.encoder.dimensions:256}") int dimensions
+    ) {
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(
+            HttpClient.newBuilder().connectTimeout(timeout).build());
+        requestFactory.setReadTimeout(timeout);
+        this.restClient = RestClient.builder()
+            .baseUrl(url)
+            .requestFactory(requestFactory)
+            .build();
+        this.dimensions = dimensions;
+    }
+
+    @Override
+    public float[] encode(String text) {
+        return cache.get(text, this::request);
+    }
+
+    private float[] request(String text) {
+        float[][] response = restClient.post()
+            .body(Map.of("inputs", text))
+            .retrieve()
+            .body(float[][].class);
+        if (response == null || response.length == 0 || response[0].length < dimensions) {
+            throw new IllegalStateException("Embedding server returned no %d-dim vector".formatted(dimensions));
+        }
+        float[] vector = new float[dimensions];
+        double norm = 0;
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = response[0][i];
+            norm += vector[i] * vector[i];
+        }
+        if (norm > 0) {
+            float scale = (float) (1 / Math.sqrt(norm));
+            for (int i = 0; i < dimensions; i++) {
+                vector[i] *= scale;
+            }
+        }
+        return vector;
+    }
+}
@@ -0,0 +1,141 @@
+package com.umdb.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Final ranking of similar-title candidates: a weighted sum of embedding similarity, genre
+ * Jaccard similarity and square-root normalised popularity. Candidates arrive in ANN distance
+ * order; those of a different type than the source, without a poster or unknown to the
+ * features are skipped, and at most {@link #MAX_CANDIDATES} of the rest are scored.
+ */
+@Component
+public class HybridReranker {
+    public static final int MAX_CANDIDATES = 500;
+
+    private final double embeddingWeight;
+    private final double genreWeight;
+    private final double popularityWeight;
+
+    public HybridReranker(
+        @Value("${app.recommendations.weights.embedding:0.55}") double embeddingWeight,
+        @Value("${app.recommendations.weights.genres:0.2}") double genreWeight,
+        @Value("${app.recommendations.weights.popularity:0.25}") double popularityWeight
+    ) {
+        this.embeddingWeight = embeddingWeight;
+        this.genreWeight = genreWeight;
+        this.popularityWeight = popularityWeight;
+    }
+
+    /** Identifies the ranking function, so stored rankings can be recomputed when it changes. */
+    public String signature() {
+        return "hybrid:%s:%s:%s".formatted(embeddingWeight, genreWeight, popularityWeight);
+    }
+
+    /**
+     * Top {@code limit} candidates by score, ties broken by id.
+     *
+     * @param ids       candidate ids in ascending distance order
+     * @param distances cosine distances to the source, parallel to {@code ids}
+     * @param count     number of valid entries in both arrays
+     */
+    public List<SimilarTitleStore.Neighbour> rerank(TitleFeatures features, long sourceId,
+                                                    long[] ids, double[] distances, int count,
+                                                    int limit) {
+        if (limit <= 0) {
+            return List.of();
+        }
+        int sourceType = features.type(sourceId);
+        double maxPopularity = features.maxPopularity();
+        boolean normalisePopularity = maxPopularity > 0;
+
+        // Min-heap of the best entries so far; the root is the current worst
+        long[] heapIds = new long[limit];
+        double[] heapScores = new double[limit];
+        int heapSize = 0;
+        int scored = 0;
+        for (int i = 0; i < count && scored < MAX_CANDIDATES; i++) {
+            long id = ids[i];
+            if (id == sourceId || features.type(id) != sourceType || !features.hasPoster(id)) {
+                continue;
+            }
+            scored++;
+
+            // Zero embeddings have no direction; count them as unrelated rather than NaN
+            double embeddingSimilarity = Double.isNaN(distances[i]) ? 0 : 1 - distances[i];
+            double popularity = features.popularity(id);
+            double popularityScore = normalisePopularity && popularity > 0
+                ? Math.sqrt(popularity / maxPopularity)
+                : 0;
+            double score = embeddingWeight * embeddingSimilarity
+                + genreWeight * features.genreJaccard(sourceId, id)
+                + popularityWeight * popularityScore;
+
+            if (heapSize < limit) {
+                heapIds[heapSize] = id;
+                heapScores[heapSize] = score;
+                siftUp(heapIds, heapScores, heapSize++);
+            } else if (better(score, id, heapScores[0], heapIds[0])) {
+                heapIds[0] = id;
+                heapScores[0] = score;
+                siftDown(heapIds, heapScores, heapSize);
+            }
+        }
+
+        // Drain worst first into the tail of the result
+        SimilarTitleStore.Neighbour[] ranked = new SimilarTitleStore.Neighbour[heapSize];
+        for (int i = heapSize - 1; i >= 0; i--) {
+            ranked[i] = new SimilarTitleStore.Neighbour(heapIds[0], heapScores[0]);
+            heapIds[0] = heapIds[i];
+            heapScores[0] = heapScores[i];
+            siftDown(heapIds, heapScores, i);
+        }
+        return List.of(ranked);
+    }
+
+    private static boolean better(double score, long id, double otherScore, long otherId) {
+        return score > otherScore || (score == otherScore && id < otherId);
+    }
+
+    private static void siftUp(long[] ids, double[] scores, int index) {
+        while (index > 0) {
+            int parent = (index - 1) / 2;
+            if (!better(scores[parent], ids[parent], scores[index], ids[index])) {
+                return;
+            }
+            swap(ids, scores, index, parent);
+            index = parent;
+        }
+    }
+
+    private static void siftDown(long[] ids, double[] scores, int size) {
+        int index = 0;
+        while (true) {
+            int left = 2 * index + 1;
+            if (left >= size) {
+                return;
+            }
+            int worst = left;
+            int right = left + 1;
+            if (right < size && better(scores[worst], ids[worst], scores[right], ids[right])) {
+                worst = right;
+            }
+            if (!better(scores[index], ids[index], scores[worst], ids[worst])) {
+                return;
+            }
+            swap(ids, scores, index, worst);
+            index = worst;
+        }
+    }
+
+    private static void swap(long[] ids, double[] scores, int a, int b) {
+        long id = ids[a];
+        ids[a] = ids[b];
+        ids[b] = id;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+    }
+}
@@ -0,0 +1,242 @@
+package com.umdb.service;
+
+import com.pgvector.PGvector;
+import com.umdb.dto.SearchRequestDto;
+import com.umdb.dto.SearchResultDto;
+import com.umdb.dto.TitleCardDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Relevance-ranked search over titles. A full-text leg ranks matches in title and overview with
+ * {@code ts_rank_cd}, a vector leg ranks titles by embedding distance to the encoded query, and
+ * the two rankings are merged with {@link RankFusion}. Both legs run concurrently under one
+ * latency budget, enforced in Postgres with {@code statement_timeout}; a leg that misses it is
+ * left out of the fusion. Without a {@link QueryEncoder} only the full-text leg runs.
+ *
+ * <p>Results are in relevance order, so {@code sort} is ignored and paging is by offset within
+ * the first {@value #MAX_RESULTS} fused results.
+ */
+@Slf4j
+@Service
+public class HybridSearchService {
+    private static final int MAX_RESULTS = 200;
+    private static final int MIN_LEG_DEPTH = 50;
+    private static final int MAX_EF_SEARCH = 1000;
+    private static final String QUERY_CANCELED = "57014";
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TimedQueries queries;
+    private final TransactionTemplate transactionTemplate;
+    private final SearchService searchService;
+    private final QueryEncoder queryEncoder;
+    private final Counter textTimeouts;
+    private final Counter vectorTimeouts;
+    private final ExecutorService legExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @Value("${app.search.hybrid.budget:PT0.3S}")
+    private Duration budget;
+
+    @Value("${app.search.hybrid.rrf-k:60}")
+    private int rrfK;
+
+    @Value("${app.recommendations.ann.quantization:NONE}")
+    private EmbeddingQuantization quantization;
+
+    @Value("${app.recommendations.ann.rescore-depth:1000}")
+    private int rescoreDepth;
+
+    public HybridSearchService(NamedParameterJdbcTemplate jdbc, TimedQueries queries,
+                               TransactionTemplate transactionTemplate, SearchService searchService,
+                               ObjectProvider<QueryEncoder> queryEncoder, MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.queries = queries;
+        this.transactionTemplate = transactionTemplate;
+        this.searchService = searchService;
+        this.queryEncoder = queryEncoder.getIfAvailable();
+        this.textTimeouts = timeouts(meterRegistry, "text");
+        this.vectorTimeouts = timeouts(meterRegistry, "vector");
+    }
+
+    private static Counter timeouts(MeterRegistry meterRegistry, String leg) {
+        return Counter.builder("umdb.search.hybrid.timeouts")
+            .description("Hybrid search legs dropped for missing the latency budget")
+            .tag("leg", leg)
+            .register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        legExecutor.shutdownNow();
+    }
+
+    public SearchResultDto search(SearchRequestDto req) {
+        String query = Objects.requireNonNullElse(req.getQuery(), "").trim();
+        if (query.isEmpty()) {
+            // Nothing to rank by relevance
+            return searchService.search(req);
+        }
+        if (req.getCursor() != null && !req.getCursor().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Hybrid search pages by offset, not cursor");
+        }
+        MapSqlParameterSource p = SearchService.params(req, query);
+        int limit = (Integer) p.getValue("limit");
+        int offset = (Integer) p.getValue("offset");
+        int depth = Math.min(MAX_RESULTS, Math.max(MIN_LEG_DEPTH, offset + limit));
+        p.addValue("depth", depth, Types.INTEGER);
+        String where = "  and " + SearchService.FILTERS + searchService.filters(req, p);
+
+        long deadline = System.nanoTime() + budget.toNanos();
+        Future<long[]> text = legExecutor.submit(() -> textLeg(p, where, deadline));
+        Future<long[]> vector = queryEncoder != null
+            ? legExecutor.submit(() -> vectorLeg(query, p, where, deadline))
+            : null;
+        List<long[]> rankings = new ArrayList<>(2);
+        await(text, deadline, textTimeouts, rankings);
+        if (vector != null) {
+            await(vector, deadline, vectorTimeouts, rankings);
+        }
+        if (rankings.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search timed out");
+        }
+
+        long[] fused = RankFusion.fuse(rrfK, rankings);
+        int total = Math.min(fused.length, MAX_RESULTS);
+        long[] page = offset < total
+            ? Arrays.copyOfRange(fused, offset, Math.min(total, offset + limit))
+            : new long[0];
+        return SearchResultDto.builder()
+            .items(cards(page))
+            .total(total)
+            .totalCapped(fused.length > MAX_RESULTS)
+            .build();
+    }
+
+    private long[] textLeg(MapSqlParameterSource p, String where, long deadline) {
+        String sql = SearchService.QUERY_CTE + """
+            select t.id
+            from titles t, qq
+            where (t.title_vector @@ qq.query or t.overview_vector @@ qq.query)
+            """ + where + """
+            order by ts_rank_cd(setweight(t.title_vector, 'A') || setweight(t.overview_vector, 'D'), qq.query, 1) desc,
+                     t.popularity desc nulls last, t.id
+            limit :depth
+            """;
+        return withinBudget(deadline, () -> ids("hybrid.text", sql, p));
+    }
+
+    /**
+     * Nearest titles to the query embedding among those passing the filters. Filters are applied
+     * while walking the hnsw index (iterative scan) so selective filters still fill the depth;
+     * a quantized index is read to the rescoring depth and reordered at full precision.
+     */
+    private long[] vectorLeg(String query, MapSqlParameterSource p, String where, long deadline) {
+        float[] embedding = queryEncoder.encode(query);
+        int candidates = quantization == EmbeddingQuantization.NONE
+            ? (Integer) p.getValue("depth")
+            : Math.max((Integer) p.getValue("depth"), rescoreDepth);
+        // Copied with their SQL types, which the null-able filter parameters need
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        for (String name : p.getParameterNames()) {
+            params.addValue(name, p.getValue(name), p.getSqlType(name));
+        }
+        params.addValue("embedding", new PGvector(embedding).getValue(), Types.VARCHAR);
+        params.addValue("candidates", candidates, Types.INTEGER);
+        String sql = """
+            select c.id
+            from (
+                select t.id, t.embedding
+                from titles t
+                where true
+            """ + where + """
+                order by %s
+                limit :candidates
+            ) c
+            order by c.embedding <=> cast(:embedding as vector), c.id
+            limit :depth
+            """.formatted(quantization.indexOrder("cast(:embedding as vector)"));
+        return withinBudget(deadline, () -> {
+            jdbc.getJdbcTemplate().queryForMap("""
+                select set_config('hnsw.ef_search', ?, true),
+                       set_config('hnsw.iterative_scan', 'relaxed_order', true)
+                """, Integer.toString(Math.min(candidates, MAX_EF_SEARCH)));
+            return ids("hybrid.vector", sql, params);
+        });
+    }
+
+    /** Runs a leg in its own transaction with the remaining budget as statement timeout. */
+    private long[] withinBudget(long deadline, Supplier<long[]> leg) {
+        return transactionTemplate.execute(status -> {
+            long remainingMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime()));
+            jdbc.getJdbcTemplate().queryForObject("select set_config('statement_timeout', ?, true)",
+                String.class, Long.toString(remainingMillis));
+            return leg.get();
+        });
+    }
+
+    private long[] ids(String name, String sql, MapSqlParameterSource params) {
+        return queries.queryForList(name, sql, params, Long.class).stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static void await(Future<long[]> leg, long deadline, Counter timeouts, List<long[]> rankings) {
+        try {
+            rankings.add(leg.get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS));
+        } catch (TimeoutException e) {
+            leg.cancel(true);
+            timeouts.increment();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DataAccessException dae
+                && dae.getMostSpecificCause() instanceof SQLException sql
+                && QUERY_CANCELED.equals(sql.getSQLState())) {
+                // Hit statement_timeout
+                timeouts.increment();
+            } else {
+                log.warn("Hybrid search leg failed, fusing without it", e.getCause());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Search interrupted");
+        }
+    }
+
+    private List<TitleCardDto> cards(long[] ids) {
+        if (ids.length == 0) {
+            return List.of();
+        }
+        String sql = """
+            select t.id, t.type, t.title, t.overview, t.release_date,
+                   t.rating, t.rating_count, t.popularity, t.poster_url, t.backdrop_url
+            from unnest(:ids) with ordinality r(id, rank)
+            join titles t on t.id = r.id
+            order by r.rank
+            """;
+        return queries.query("hybrid.cards", sql, new MapSqlParameterSource("ids", ids), TitleCardRowMapper.INSTANCE);
+    }
+}
@@ -0,0 +1,73 @@
+package com.umdb.service;
+
+import java.util.Arrays;
+
+/** Binary heap of nodes keyed by distance, either closest or furthest on top. */
+final class NodeHeap {
+    private int[] nodes;
+    private float[] distances;
+    private final boolean furthestFirst;
+    private int size;
+
+    NodeHeap(int capacity, boolean furthestFirst) {
+        this.nodes = new int[capacity];
+        this.distances = new float[capacity];
+        this.furthestFirst = furthestFirst;
+    }
+
+    int size() {
+        return size;
+    }
+
+    float topDistance() {
+        return distances[0];
+    }
+
+    void push(int node, float distance) {
+        if (size == nodes.length) {
+            nodes = Arrays.copyOf(nodes, size * 2);
+            distances = Arrays.copyOf(distances, size * 2);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) / 2;
+            if (!above(distance, distances[parent])) {
+                break;
+            }
+            nodes[i] = nodes[parent];
+            distances[i] = distances[parent];
+            i = parent;
+        }
+        nodes[i] = node;
+        distances[i] = distance;
+    }
+
+    int pop() {
+        int top = nodes[0];
+        int lastNode = nodes[--size];
+        float lastDistance = distances[size];
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && above(distances[child + 1], distances[child])) {
+                child++;
+            }
+            if (!above(distances[child], lastDistance)) {
+                break;
+            }
+            nodes[i] = nodes[child];
+            distances[i] = distances[child];
+            i = child;
+        }
+        nodes[i] = lastNode;
+        distances[i] = lastDistance;
+        return top;
+    }
+
+    private boolean above(float a, float b) {
+        return furthestFirst ? a > b : a < b;
+    }
+}
@@ -0,0 +1,63 @@
+package com.umdb.service;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Opaque keyset pagination token holding the sort key values of the last row of a page. Each
+ * part is base64url encoded on its own so values may contain any character, {@code ~} marks a
+ * null part.
+ */
+public final class PageCursor {
+    private static final String SEPARATOR = ".";
+    private static final String NULL_PART = "~";
+
+    private PageCursor() {}
+
+    public static String encode(String... parts) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        List<String> encoded = new ArrayList<>(parts.length);
+        for (String part : parts) {
+            encoded.add(part == null
+                ? NULL_PART
+                : encoder.encodeToString(part.getBytes(StandardCharsets.UTF_8)));
+        }
+        return String.join(SEPARATOR, encoded);
+    }
+
+    public static List<String> decode(String cursor, int expectedParts) {
+        String[] encoded = cursor.trim().split("\\.", -1);
+        if (encoded.length != expectedParts) {
+            throw invalid();
+        }
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+        List<String> parts = new ArrayList<>(encoded.length);
+        try {
+            for (String part : encoded) {
+                parts.add(NULL_PART.equals(part)
+                    ? null
+                    : new String(decoder.decode(part), StandardCharsets.UTF_8));
+            }
+        } catch (IllegalArgumentException e) {
+            throw invalid();
+        }
+        return parts;
+    }
+
+    public static long parseId(String value) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw invalid();
+        }
+    }
+
+    private static ResponseStatusException invalid() {
+        return new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+    }
+}
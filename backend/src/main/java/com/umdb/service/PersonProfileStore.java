@@ -0,0 +1,154 @@
+package com.umdb.service;
+
+import com.umdb.dto.PersonCardDto;
+import com.umdb.dto.PersonCreditDto;
+import com.umdb.dto.PersonDetailDto;
+import com.umdb.model.TitleType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Per-person filmographies ({@code person_profiles}), denormalized from {@code cast_members}
+ * and {@code titles} so a person page is one primary key read however many credits they have.
+ * Catalog syncs queue the people whose credits or credited titles they change in
+ * {@code person_profile_changes}; full loads replace {@code people}, which clears the profiles.
+ */
+@Component
+@RequiredArgsConstructor
+public class PersonProfileStore {
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TimedQueries queries;
+
+    /** The person with their stored filmography, or empty if either is missing. */
+    public Optional<PersonDetailDto> find(long personId) {
+        String sql = """
+            select p.id, p.name, p.profile_url, pp.credit_count,
+                   f.title_id, f.type, f.title, f.release_date, f.popularity, f.poster_url, f.character_name
+            from people p
+            join person_profiles pp on pp.person_id = p.id
+            left join lateral rows from (
+                jsonb_to_recordset(pp.filmography)
+                    as (title_id bigint, type text, title text, release_date date, popularity double precision,
+                        poster_url text, character_name text)
+            ) with ordinality
+                as f(title_id, type, title, release_date, popularity, poster_url, character_name, position) on true
+            where p.id = :id
+            order by f.position
+            """;
+        List<PersonCreditDto> credits = new ArrayList<>();
+        PersonDetailDto.PersonDetailDtoBuilder person = PersonDetailDto.builder();
+        boolean[] found = {false};
+        queries.query("people.detail", sql, new MapSqlParameterSource("id", personId), rs -> {
+            if (!found[0]) {
+                found[0] = true;
+                person.id(rs.getLong("id"))
+                    .name(rs.getString("name"))
+                    .profileUrl(rs.getString("profile_url"))
+                    .creditCount(rs.getInt("credit_count"));
+            }
+            if (rs.getObject("title_id") != null) {
+                credits.add(PersonCreditDto.builder()
+                    .titleId(rs.getLong("title_id"))
+                    .type(TitleType.valueOf(rs.getString("type")))
+                    .title(rs.getString("title"))
+                    .releaseDate(rs.getObject("release_date", LocalDate.class))
+                    .popularity(rs.getObject("popularity", Double.class))
+                    .posterUrl(rs.getString("poster_url"))
+                    .characterName(rs.getString("character_name"))
+                    .build());
+            }
+        });
+        return found[0] ? Optional.of(person.credits(List.copyOf(credits)).build()) : Optional.empty();
+    }
+
+    /**
+     * People whose name contains a word similar to {@code query}, through the trigram index on
+     * {@code people.name}; equally close names rank by how popular the person's titles are.
+     */
+    public List<PersonCardDto> search(String query, int limit) {
+        String sql = """
+            select p.id, p.name, p.profile_url
+            from people p
+            left join person_profiles pp on pp.person_id = p.id
+            where :query <% p.name
+            order by word_similarity(:query, p.name) desc, pp.popularity desc nulls last, p.id
+            limit :limit
+            """;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("query", query, Types.VARCHAR)
+            .addValue("limit", limit, Types.INTEGER);
+        return queries.query("people.search", sql, params, (rs, i) -> PersonCardDto.builder()
+            .id(rs.getLong("id"))
+            .name(rs.getString("name"))
+            .profileUrl(rs.getString("profile_url"))
+            .build());
+    }
+
+    /** People queued as changed, including those whose last credit is gone, and credited people never built. */
+    public List<Long> findStale() {
+        String sql = """
+            select person_id
+            from person_profile_changes
+            union
+            select p.id
+            from people p
+            where not exists (select 1 from person_profiles pp where pp.person_id = p.id)
+              and exists (select 1 from cast_members c where c.person_id = p.id)
+            order by 1
+            """;
+        return jdbcTemplate.queryForList(sql, new MapSqlParameterSource(), Long.class);
+    }
+
+    /**
+     * Builds the profiles of the given people from their current credits and takes them off the
+     * queue. Dequeuing first means a sync that queues one of them again while this runs either
+     * committed before the build reads its credits or stays queued.
+     */
+    public int rebuild(List<Long> personIds) {
+        String sql = """
+            insert into person_profiles as pp (person_id, credit_count, popularity, filmography, computed_at)
+            select p.id,
+                   count(f.title_id),
+                   coalesce(sum(f.popularity), 0),
+                   coalesce(jsonb_agg(jsonb_build_object(
+                                'title_id', f.title_id, 'type', f.type, 'title', f.title,
+                                'release_date', f.release_date, 'popularity', f.popularity,
+                                'poster_url', f.poster_url, 'character_name', f.character_name)
+                            order by f.release_date desc nulls last, f.title_id)
+                            filter (where f.title_id is not null), '[]'),
+                   now()
+            from people p
+            left join lateral (
+                select c.title_id, t.type, t.title, t.release_date, t.popularity, t.poster_url,
+                       string_agg(c.character_name, ' / ' order by c.billing_order) as character_name
+                from cast_members c
+                join titles t on t.id = c.title_id
+                where c.person_id = p.id
+                group by c.title_id, t.type, t.title, t.release_date, t.popularity, t.poster_url
+            ) f on true
+            where p.id = any(:ids)
+            group by p.id
+            on conflict (person_id) do update
+                set credit_count = excluded.credit_count,
+                    popularity = excluded.popularity,
+                    filmography = excluded.filmography,
+                    computed_at = excluded.computed_at
+            """;
+        MapSqlParameterSource params = new MapSqlParameterSource("ids",
+            personIds.stream().mapToLong(Long::longValue).toArray());
+        return transactionTemplate.execute(status -> {
+            jdbcTemplate.update("delete from person_profile_changes where person_id = any(:ids)", params);
+            return jdbcTemplate.update(sql, params);
+        });
+    }
+}
@@ -0,0 +1,67 @@
+package com.umdb.service;
+
+import com.umdb.config.CacheConfig;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps {@link PersonProfileStore} up to date: whenever the {@link CatalogVersion} moves,
+ * rebuilds the profiles whose inputs changed in batches and evicts them from the
+ * {@code personDetails} cache.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PersonProfilesJob {
+    private final PersonProfileStore personProfileStore;
+    private final CatalogVersion catalogVersion;
+    private final CacheManager cacheManager;
+
+    private volatile long refreshedCatalog = -1;
+
+    @Value("${app.people.profiles.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.people.profiles.batch-size:1000}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.people.profiles.refresh-interval:PT10M}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long catalog = catalogVersion.current();
+            if (catalog != refreshedCatalog) {
+                run();
+                refreshedCatalog = catalog;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Person profiles refresh failed", e);
+        }
+    }
+
+    public void run() {
+        long start = System.nanoTime();
+        List<Long> stale = personProfileStore.findStale();
+        if (stale.isEmpty()) {
+            return;
+        }
+        Cache details = cacheManager.getCache(CacheConfig.PERSON_DETAILS);
+        for (int from = 0; from < stale.size(); from += batchSize) {
+            List<Long> batch = stale.subList(from, Math.min(from + batchSize, stale.size()));
+            personProfileStore.rebuild(batch);
+            batch.forEach(details::evict);
+        }
+        log.info("Person profiles rebuilt for {} people in {} ms", stale.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
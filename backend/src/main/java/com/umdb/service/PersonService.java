@@ -1,12 +1,21 @@
 package com.umdb.service;
 
+import com.umdb.config.CacheConfig;
+import com.umdb.dto.FilmographySort;
 import com.umdb.dto.PeopleResponseDto;
 import com.umdb.dto.PersonCardDto;
+import com.umdb.dto.PersonCreditDto;
+import com.umdb.dto.PersonDetailDto;
+import com.umdb.exception.NotFoundException;
+import com.umdb.model.Person;
 import com.umdb.repository.PersonRepository;
 
+import java.util.Comparator;
 import java.util.List;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
@@ -14,26 +23,94 @@ import org.springframework.stereotype.Service;
 @Service
 @RequiredArgsConstructor
 public class PersonService {
+    private static final int MIN_SEARCH_LENGTH = 2;
+
     private final PersonRepository personRepository;
+    private final PersonProfileStore personProfileStore;
+    private final CacheManager cacheManager;
 
     public PeopleResponseDto listPeople(int page, int size) {
         int safePage = Math.max(0, page);
         int safeSize = Math.clamp(size, 1, 60);
-        var pageable = PageRequest.of(safePage, safeSize, Sort.by(Sort.Direction.ASC, "name"));
+        var pageable = PageRequest.of(safePage, safeSize,
+            Sort.by(Sort.Direction.ASC, "name", "id"));
         var result = personRepository.findAll(pageable);
-        List<PersonCardDto> items = result.getContent().stream()
-            .map(person -> PersonCardDto.builder()
-                .id(person.getId())
-                .name(person.getName())
-                .profileUrl(person.getProfileUrl())
-                .build())
-            .toList();
+        List<Person> people = result.getContent();
         return PeopleResponseDto.builder()
-            .items(items)
+            .items(toCards(people))
             .total(result.getTotalElements())
             .page(safePage)
             .size(safeSize)
             .totalPages(result.getTotalPages())
+            .nextCursor(nextCursor(people, safeSize))
             .build();
     }
+
+    /**
+     * Keyset page over {@code (name, id)}, seeking through {@code idx_people_name} instead of
+     * skipping rows. Totals are only reported for offset pages.
+     */
+    public PeopleResponseDto listPeopleAfter(String cursor, int size) {
+        int safeSize = Math.clamp(size, 1, 60);
+        List<String> parts = PageCursor.decode(cursor, 2);
+        List<Person> people = personRepository.findPageAfter(parts.get(0),
+            PageCursor.parseId(parts.get(1)), safeSize);
+        return PeopleResponseDto.builder()
+            .items(toCards(people))
+            .size(safeSize)
+            .nextCursor(nextCursor(people, safeSize))
+            .build();
+    }
+
+    public List<PersonCardDto> search(String query, int limit) {
+        String trimmed = query == null ? "" : query.trim();
+        if (trimmed.length() < MIN_SEARCH_LENGTH) {
+            return List.of();
+        }
+        return personProfileStore.search(trimmed, limit);
+    }
+
+    /**
+     * The person and their filmography from the {@code personDetails} cache, else from their
+     * stored profile, which is built on the spot if {@link PersonProfilesJob} has not yet.
+     * Credits are stored newest first and re-sorted here for {@link FilmographySort#POPULAR}.
+     */
+    public PersonDetailDto getDetail(long id, FilmographySort sort) {
+        Cache details = cacheManager.getCache(CacheConfig.PERSON_DETAILS);
+        PersonDetailDto detail = details.get(id, PersonDetailDto.class);
+        if (detail == null) {
+            detail = personProfileStore.find(id).orElseGet(() -> {
+                personProfileStore.rebuild(List.of(id));
+                return personProfileStore.find(id).orElseThrow(() -> new NotFoundException("Person not found"));
+            });
+            details.put(id, detail);
+        }
+        if (sort == FilmographySort.POPULAR) {
+            return detail.toBuilder()
+                .credits(detail.getCredits().stream()
+                    .sorted(Comparator.comparing(PersonCreditDto::getPopularity,
+                        Comparator.nullsLast(Comparator.reverseOrder())))
+                    .toList())
+                .build();
+        }
+        return detail;
+    }
+
+    private List<PersonCardDto> toCards(List<Person> people) {
+        return people.stream()
+            .map(person -> PersonCardDto.builder()
+                .id(person.getId())
+                .name(person.getName())
+                .profileUrl(person.getProfileUrl())
+                .build())
+            .toList();
+    }
+
+    private String nextCursor(List<Person> people, int size) {
+        if (people.size() < size) {
+            return null;
+        }
+        Person last = people.get(people.size() - 1);
+        return PageCursor.encode(last.getName(), String.valueOf(last.getId()));
+    }
 }
@@ -0,0 +1,9 @@
+package com.umdb.service;
+
+/**
+ * Turns search text into an embedding comparable to {@code titles.embedding}, i.e. produced by
+ * the same model as the catalog embeddings and truncated to the same dimensions.
+ */
+public interface QueryEncoder {
+    float[] encode(String text);
+}
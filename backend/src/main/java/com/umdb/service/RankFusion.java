@@ -0,0 +1,34 @@
+package com.umdb.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reciprocal rank fusion: each id scores {@code sum(1 / (k + rank))} over the rankings it
+ * appears in, ranks starting at 1. Only ranks are used, so legs with incomparable scores (text
+ * rank, cosine distance) combine without calibration.
+ */
+final class RankFusion {
+    private RankFusion() {}
+
+    /** Ids of all rankings by fused score, ties broken by best single rank, then id. */
+    static long[] fuse(int k, List<long[]> rankings) {
+        Map<Long, double[]> scores = new HashMap<>();
+        for (long[] ranking : rankings) {
+            for (int i = 0; i < ranking.length; i++) {
+                int rank = i + 1;
+                double[] score = scores.computeIfAbsent(ranking[i], id -> new double[] {0, Integer.MAX_VALUE});
+                score[0] += 1.0 / (k + rank);
+                score[1] = Math.min(score[1], rank);
+            }
+        }
+        List<Map.Entry<Long, double[]>> entries = new ArrayList<>(scores.entrySet());
+        entries.sort(Comparator.<Map.Entry<Long, double[]>>comparingDouble(e -> -e.getValue()[0])
+            .thenComparingDouble(e -> e.getValue()[1])
+            .thenComparing(Map.Entry::getKey));
+        return entries.stream().mapToLong(Map.Entry::getKey).toArray();
+    }
+}
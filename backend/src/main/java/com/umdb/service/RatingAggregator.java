@@ -0,0 +1,154 @@
+package com.umdb.service;
+
+import com.umdb.config.CacheConfig;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Folds user review ratings into {@code titles.rating} and {@code rating_count}, which start out
+ * as the imported {@code tmdb_rating}; catalog syncs replace only that part. Each review change
+ * is a delta on the title's rating sum and count; deltas are coalesced per title in memory and
+ * applied in one batched update on a fixed delay, so a burst of reviews on a popular title costs
+ * one row update. {@code rating_weighted} is a stored generated column and follows the update,
+ * along with its sort index.
+ *
+ * <p>Deltas buffered at a crash are lost; a clean shutdown flushes them.
+ */
+@Slf4j
+@Component
+public class RatingAggregator {
+    private final NamedParameterJdbcTemplate jdbc;
+    private final CacheManager cacheManager;
+    private final DataVersion dataVersion;
+    private final TitleFilterIndex titleFilterIndex;
+    private final Map<Long, Delta> pending = new ConcurrentHashMap<>();
+    private final Timer flushTimer;
+
+    public RatingAggregator(NamedParameterJdbcTemplate jdbc, CacheManager cacheManager,
+                            DataVersion dataVersion, TitleFilterIndex titleFilterIndex,
+                            MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.cacheManager = cacheManager;
+        this.dataVersion = dataVersion;
+        this.titleFilterIndex = titleFilterIndex;
+        this.flushTimer = Timer.builder("umdb.ratings.flush")
+            .description("Time taken to apply buffered rating deltas to titles")
+            .register(meterRegistry);
+        Gauge.builder("umdb.ratings.pending", pending, Map::size)
+            .description("Titles with rating deltas waiting to be flushed")
+            .register(meterRegistry);
+    }
+
+    /** A rating added by a new review. */
+    public void added(long titleId, int rating) {
+        record(titleId, new Delta(rating, 1));
+    }
+
+    /** A review's rating changed from {@code oldRating} to {@code newRating}. */
+    public void changed(long titleId, int oldRating, int newRating) {
+        if (oldRating != newRating) {
+            record(titleId, new Delta(newRating - oldRating, 0));
+        }
+    }
+
+    /** A rating removed with its review. */
+    public void removed(long titleId, int rating) {
+        record(titleId, new Delta(-rating, -1));
+    }
+
+    private void record(long titleId, Delta delta) {
+        pending.merge(titleId, delta, Delta::plus);
+    }
+
+    @Scheduled(fixedDelayString = "${app.reviews.rating-flush-interval:PT5S}")
+    @PreDestroy
+    public synchronized void flush() {
+        if (pending.isEmpty()) {
+            return;
+        }
+        List<Long> titleIds = new ArrayList<>(pending.size());
+        List<Delta> deltas = new ArrayList<>(pending.size());
+        for (Long titleId : pending.keySet()) {
+            // remove() is atomic with merge(), so a delta recorded from here on starts a new entry
+            Delta delta = pending.remove(titleId);
+            if (delta != null && !delta.isZero()) {
+                titleIds.add(titleId);
+                deltas.add(delta);
+            }
+        }
+        if (titleIds.isEmpty()) {
+            return;
+        }
+        long start = System.nanoTime();
+        Map<Long, Double> ratings;
+        try {
+            ratings = apply(titleIds, deltas);
+        } catch (RuntimeException e) {
+            log.warn("Rating flush for {} titles failed, keeping deltas for the next one", titleIds.size(), e);
+            for (int i = 0; i < titleIds.size(); i++) {
+                record(titleIds.get(i), deltas.get(i));
+            }
+            return;
+        }
+        flushTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        Cache details = cacheManager.getCache(CacheConfig.TITLE_DETAILS);
+        titleIds.forEach(details::evict);
+        titleIds.forEach(dataVersion::titleChanged);
+        titleFilterIndex.ratingsChanged(ratings);
+        log.debug("Flushed rating deltas for {} titles", titleIds.size());
+    }
+
+    private Map<Long, Double> apply(List<Long> titleIds, List<Delta> deltas) {
+        long[] ids = new long[titleIds.size()];
+        long[] sums = new long[ids.length];
+        int[] counts = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = titleIds.get(i);
+            sums[i] = deltas.get(i).sum();
+            counts[i] = deltas.get(i).count();
+        }
+        String sql = """
+            update titles t
+            set rating = fold_rating(t.rating, t.rating_count, d.sum, d.count),
+                rating_count = greatest(t.rating_count + d.count, 0)
+            from unnest(:ids, :sums, :counts) d(id, sum, count)
+            where t.id = d.id
+            returning t.id, t.rating
+            """;
+        Map<Long, Double> ratings = new HashMap<>();
+        jdbc.query(sql, new MapSqlParameterSource()
+            .addValue("ids", ids)
+            .addValue("sums", sums)
+            .addValue("counts", counts),
+            rs -> {
+                ratings.put(rs.getLong(1), rs.getDouble(2));
+            });
+        return ratings;
+    }
+
+    private record Delta(long sum, int count) {
+        Delta plus(Delta other) {
+            return new Delta(sum + other.sum, count + other.count);
+        }
+
+        boolean isZero() {
+            return sum == 0 && count == 0;
+        }
+    }
+}
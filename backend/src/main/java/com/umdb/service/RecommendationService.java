@@ -2,113 +2,114 @@ package com.umdb.service;
 
 import com.umdb.dto.TitleCardDto;
 import com.umdb.exception.NotFoundException;
-import com.umdb.model.Title;
-import com.umdb.model.TitleType;
 import com.umdb.repository.TitleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.sql.Types;
-import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
 public class RecommendationService {
     private final TitleRepository titleRepository;
     private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TimedQueries queries;
+    private final SimilarTitleStore similarTitleStore;
+
+    private final TitleFeatureCache titleFeatureCache;
+    private final HybridReranker hybridReranker;
+    private final VectorIndexService vectorIndexService;
+    private final TransactionTemplate transactionTemplate;
+
+    private static final int ANN_CANDIDATES = 1000;
+    private static final int MAX_EF_SEARCH = 1000;
+
+    @Value("${app.recommendations.ann.quantization:NONE}")
+    private EmbeddingQuantization quantization;
+
+    @Value("${app.recommendations.ann.rescore-depth:1000}")
+    private int rescoreDepth;
 
     public List<TitleCardDto> getSimilar(Long id, int limit) {
-        Title title = titleRepository.findById(id)
-            .orElseThrow(() -> new NotFoundException("Title not found"));
+        Optional<List<TitleCardDto>> stored = similarTitleStore.find(id, limit);
+        if (stored.isPresent()) {
+            return stored.get();
+        }
+        if (!titleRepository.existsById(id)) {
+            throw new NotFoundException("Title not found");
+        }
+        return cards(scoreNeighbours(id, limit));
+    }
+
+    /**
+     * Hybrid neighbours of a title, best first. The nearest embeddings come from the local
+     * {@link VectorIndex} when it is loaded and knows the title, otherwise from the hnsw index
+     * in Postgres, rescored at full precision when the index is quantized; filtering and scoring
+     * happen in {@link HybridReranker}.
+     */
+    List<SimilarTitleStore.Neighbour> scoreNeighbours(long id, int limit) {
+        long[] ids = new long[ANN_CANDIDATES];
+        double[] distances = new double[ANN_CANDIDATES];
+        VectorIndex vectorIndex = vectorIndexService.current();
+        int count = vectorIndex != null ? vectorIndex.nearest(id, ANN_CANDIDATES, ids, distances) : -1;
+        if (count < 0) {
+            count = queryNeighbours(id, ids, distances);
+        }
 
-        return findSimilarHybrid(id, title.getType(), limit);
+        TitleFeatures features = titleFeatureCache.get();
+        if (!features.contains(id)) {
+            // Created after the features were loaded
+            features = titleFeatureCache.reload();
+        }
+        return hybridReranker.rerank(features, id, ids, distances, count, limit);
     }
 
-    private List<TitleCardDto> findSimilarHybrid(Long id, TitleType type, int limit) {
-        // Retrieve ANN candidates by embedding using hnsw index, then filter and rerank.
-        // The score is a hybrid of embedding similarity, genre jaccard similarity, and popularity.
+    private int queryNeighbours(long id, long[] ids, double[] distances) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("id", id, Types.BIGINT)
+            .addValue("candidates", ANN_CANDIDATES, Types.INTEGER)
+            .addValue("depth", rescoreDepth, Types.INTEGER);
+        if (quantization == EmbeddingQuantization.NONE) {
+            return queryNeighbours(params, ids, distances);
+        }
+        // An hnsw scan returns at most ef_search rows, so widen it to the rescoring depth
+        Integer count = transactionTemplate.execute(status -> {
+            jdbcTemplate.getJdbcTemplate().queryForObject("select set_config('hnsw.ef_search', ?, true)",
+                String.class, Integer.toString(Math.min(rescoreDepth, MAX_EF_SEARCH)));
+            return queryNeighbours(params, ids, distances);
+        });
+        return count != null ? count : 0;
+    }
+
+    private int queryNeighbours(MapSqlParameterSource params, long[] ids, double[] distances) {
+        int[] count = new int[1];
+        queries.query("similar.neighbours", quantization.neighbourSql(), params, rs -> {
+            ids[count[0]] = rs.getLong(1);
+            double distance = rs.getDouble(2);
+            distances[count[0]++] = rs.wasNull() ? Double.NaN : distance;
+        });
+        return count[0];
+    }
+
+    private List<TitleCardDto> cards(List<SimilarTitleStore.Neighbour> neighbours) {
+        if (neighbours.isEmpty()) {
+            return List.of();
+        }
         String sql = """
-            with source_genres as (
-                select genre_id from title_genres where title_id = :id
-            ),
-            ann_candidates as (
-                select t.id,
-                       1 - (t.embedding <=> (select embedding from titles where id = :id)) as embed_sim,
-                       (select max(popularity) from titles) as max_pop
-                from titles t
-                order by t.embedding <=> (select embedding from titles where id = :id)
-                limit 1000
-            ),
-            candidates as (
-                select a.id,
-                       a.embed_sim,
-                       a.max_pop
-                from ann_candidates a
-                join titles t on t.id = a.id
-                where t.id != :id
-                  and t.type = :type
-                  and t.poster_url is not null
-                limit 500
-            ),
-            genre_stats as (
-                select c.id,
-                       c.embed_sim,
-                       c.max_pop,
-                       count(tg.genre_id) as candidate_genres,
-                       count(tg.genre_id) filter (where tg.genre_id in (select genre_id from source_genres)) as shared_genres
-                from candidates c
-                left join title_genres tg on tg.title_id = c.id
-                group by c.id, c.embed_sim, c.max_pop
-            ),
-            scores as (
-                select gs.id,
-                       gs.embed_sim,
-                       gs.shared_genres::float / nullif(
-                           (select count(*) from source_genres) + gs.candidate_genres - gs.shared_genres,
-                           0
-                       ) as jaccard_sim,
-                       t.popularity,
-                       gs.max_pop
-                from genre_stats gs
-                join titles t on t.id = gs.id
-            )
             select t.id, t.type, t.title, t.overview, t.release_date,
                    t.rating, t.rating_count, t.popularity, t.poster_url, t.backdrop_url
-            from scores s
-            join titles t on t.id = s.id
-            order by
-                0.55 * s.embed_sim +
-                0.2 * coalesce(s.jaccard_sim, 0) +
-                0.25 * coalesce(
-                    sqrt(greatest(coalesce(s.popularity, 0), 0) / nullif(s.max_pop, 0)),
-                    0
-                )
-                desc
-            limit :limit
+            from unnest(:ids) with ordinality r(id, rank)
+            join titles t on t.id = r.id
+            order by r.rank
             """;
-
-        MapSqlParameterSource params = new MapSqlParameterSource();
-        params.addValue("id", id, Types.BIGINT);
-        params.addValue("type", type.name(), Types.VARCHAR);
-        params.addValue("limit", limit, Types.INTEGER);
-
-        return jdbcTemplate.query(sql, params, (rs, rowNum) -> {
-            String typeStr = rs.getString("type");
-            return TitleCardDto.builder()
-                .id(rs.getLong("id"))
-                .type(typeStr != null ? TitleType.valueOf(typeStr) : null)
-                .title(rs.getString("title"))
-                .overview(rs.getString("overview"))
-                .releaseDate(rs.getObject("release_date", LocalDate.class))
-                .rating(rs.getObject("rating", Double.class))
-                .ratingCount(rs.getObject("rating_count", Integer.class))
-                .popularity(rs.getObject("popularity", Double.class))
-                .posterUrl(rs.getString("poster_url"))
-                .backdropUrl(rs.getString("backdrop_url"))
-                .build();
-        });
+        long[] ids = neighbours.stream().mapToLong(SimilarTitleStore.Neighbour::id).toArray();
+        return queries.query("similar.cards", sql, new MapSqlParameterSource("ids", ids),
+            TitleCardRowMapper.INSTANCE);
     }
 }
@@ -1,24 +1,39 @@
 package com.umdb.service;
 
+import com.umdb.config.CacheConfig;
 import com.umdb.dto.ReviewDto;
+import com.umdb.dto.ReviewPageDto;
 import com.umdb.dto.ReviewRequestDto;
+import com.umdb.dto.ReviewStatsDto;
 import com.umdb.exception.NotFoundException;
 import com.umdb.model.Review;
-import com.umdb.model.Title;
 import com.umdb.model.User;
 import com.umdb.repository.ReviewRepository;
-import com.umdb.repository.TitleRepository;
 import com.umdb.security.AuthUtils;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.web.server.ResponseStatusException;
 
@@ -26,22 +41,134 @@ import org.springframework.web.server.ResponseStatusException;
 @RequiredArgsConstructor
 public class ReviewService {
     private final ReviewRepository reviewRepository;
-    private final TitleRepository titleRepository;
+    private final CacheManager cacheManager;
+    private final RatingAggregator ratingAggregator;
+    private final ReviewWriter reviewWriter;
+    private final DataVersion dataVersion;
+    private final TimedQueries queries;
+
+    /** Reviews kept per title in the recent reviews cache; larger pages read the database. */
+    private static final int CACHED_RECENT_REVIEWS = 10;
+
+    /** Cached recent reviews with the title version read before they were. */
+    private record RecentReviews(String version, List<ReviewDto> reviews) {}
 
     @Value("${app.reviews.enabled:true}")
     private boolean reviewsEnabled;
 
+    @Value("${app.reviews.write-queue.timeout:PT5S}")
+    private Duration writeTimeout;
+
     public List<ReviewDto> getRecentReviews(Long titleId, int limit) {
         if (limit <= 0) {
             return List.of();
         }
-        return reviewRepository.findRecentByTitleId(titleId, PageRequest.of(0, limit))
-            .stream()
-            .map(this::toDto)
-            .toList();
+        if (limit > CACHED_RECENT_REVIEWS) {
+            return findRecentReviews(titleId, limit);
+        }
+        // A list read while a change commits may be cached after its eviction, but it carries the
+        // version read before it, which the change moves, so it is not served again
+        Cache cache = cacheManager.getCache(CacheConfig.RECENT_REVIEWS);
+        String version = dataVersion.title(titleId);
+        RecentReviews cached = cache.get(titleId, RecentReviews.class);
+        List<ReviewDto> recent;
+        if (cached != null && cached.version().equals(version)) {
+            recent = cached.reviews();
+        } else {
+            recent = findRecentReviews(titleId, CACHED_RECENT_REVIEWS);
+            cache.put(titleId, new RecentReviews(version, recent));
+        }
+        return recent.size() > limit ? recent.subList(0, limit) : recent;
     }
 
-    @Transactional
+    private List<ReviewDto> findRecentReviews(Long titleId, int limit) {
+        return findReviews(titleId, null, limit);
+    }
+
+    /** Keyset page over {@code (updated_at, id)}, newest first. */
+    public ReviewPageDto getReviewPage(Long titleId, String cursor, int size) {
+        List<ReviewDto> reviews = findReviews(titleId, cursor, size);
+        String nextCursor = null;
+        if (reviews.size() == size) {
+            ReviewDto last = reviews.get(reviews.size() - 1);
+            nextCursor = PageCursor.encode(last.getUpdatedAt().toString(), String.valueOf(last.getId()));
+        }
+        return ReviewPageDto.builder()
+            .items(reviews)
+            .nextCursor(nextCursor)
+            .build();
+    }
+
+    /**
+     * Reviews of a title newest first, reading only the review columns and the author's name.
+     * The keyset seek and the order both follow {@code idx_reviews_title_updated_id}.
+     */
+    private List<ReviewDto> findReviews(Long titleId, String cursor, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("titleId", titleId)
+            .addValue("limit", limit);
+        String after = "";
+        if (cursor != null && !cursor.isBlank()) {
+            List<String> parts = PageCursor.decode(cursor, 2);
+            params.addValue("updatedAt", parseInstant(parts.get(0)))
+                .addValue("id", PageCursor.parseId(parts.get(1)));
+            after = "  and (r.updated_at, r.id) < (:updatedAt, :id)\n";
+        }
+        String sql = """
+            select r.id, r.rating, r.review, r.created_at, r.updated_at, r.user_id, u.name as user_name
+            from reviews r
+            join users u on u.id = r.user_id
+            where r.title_id = :titleId
+            """ + after + """
+            order by r.updated_at desc, r.id desc
+            limit :limit
+            """;
+        return queries.query("reviews.page", sql, params, (rs, rowNum) -> ReviewDto.builder()
+            .id(rs.getLong("id"))
+            .rating(rs.getInt("rating"))
+            .review(rs.getString("review"))
+            .createdAt(rs.getObject("created_at", OffsetDateTime.class).toInstant())
+            .updatedAt(rs.getObject("updated_at", OffsetDateTime.class).toInstant())
+            .userId(rs.getLong("user_id"))
+            .userName(rs.getString("user_name"))
+            .build());
+    }
+
+    private static OffsetDateTime parseInstant(String value) {
+        try {
+            return Instant.parse(value).atOffset(ZoneOffset.UTC);
+        } catch (DateTimeParseException | NullPointerException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Invalid cursor");
+        }
+    }
+
+    /** Review counts from {@code title_review_stats}, which triggers on {@code reviews} keep current. */
+    public ReviewStatsDto getReviewStats(Long titleId) {
+        Integer[] ratingCounts = new Integer[10];
+        Arrays.fill(ratingCounts, 0);
+        long[] count = new long[1];
+        queries.query("reviews.stats", """
+            select rating, review_count
+            from title_review_stats
+            where title_id = :titleId
+            """, new MapSqlParameterSource("titleId", titleId), rs -> {
+            int rating = rs.getInt("rating");
+            int reviews = rs.getInt("review_count");
+            if (rating >= 1 && rating <= ratingCounts.length) {
+                ratingCounts[rating - 1] = reviews;
+            }
+            count[0] += reviews;
+        });
+        return ReviewStatsDto.builder()
+            .count(count[0])
+            .ratingCounts(List.of(ratingCounts))
+            .build();
+    }
+
+    /**
+     * Queues the upsert on the {@link ReviewWriter} and waits for its batch to commit, so the
+     * author reads their own review on the next request.
+     */
     @PreAuthorize("isAuthenticated()")
     public ReviewDto upsertReview(Long titleId, ReviewRequestDto request,
                                   Authentication authentication) {
@@ -50,36 +177,54 @@ public class ReviewService {
                 "Reviews are currently disabled");
         }
         User user = AuthUtils.requireUser(authentication);
-        Title title = titleRepository.findById(titleId)
-            .orElseThrow(() -> new NotFoundException("Title not found"));
+        CompletableFuture<ReviewDto> saved = reviewWriter.submit(titleId, user.getId(), user.getName(),
+            request.getRating(), request.getReview().trim());
+        if (saved == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Too many reviews are being saved, try again shortly");
+        }
+        try {
+            return saved.get(writeTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            // Drops the upsert if still queued; one already being written commits anyway
+            saved.cancel(false);
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Saving the review timed out, try again shortly");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, "Saving the review was interrupted");
+        }
+    }
 
+    @Transactional
+    @PreAuthorize("isAuthenticated()")
+    public void deleteReview(Long titleId, Authentication authentication) {
+        User user = AuthUtils.requireUser(authentication);
         Review review = reviewRepository.findByTitleIdAndUserId(titleId, user.getId())
-            .orElseGet(() -> Review.builder()
-                .title(title)
-                .user(user)
-                .build());
-
-        // Normally some batch job would update the movie ratings periodically based on reviews,
-        // or each title could keep a running total & count.
-        // But not worth it for this small demo where one rating wouldn't budge the average.
-        review.setRating(request.getRating());
-        review.setReview(request.getReview().trim());
-
-        Review saved = reviewRepository.save(review);
-        return toDto(saved);
+            .orElseThrow(() -> new NotFoundException("Review not found"));
+        int rating = review.getRating();
+        reviewRepository.delete(review);
+        afterCommit(titleId, () -> ratingAggregator.removed(titleId, rating));
     }
 
-    private ReviewDto toDto(Review review) {
-        User author = review.getUser();
-        return ReviewDto.builder()
-            .id(review.getId())
-            .rating(review.getRating())
-            .review(review.getReview())
-            .createdAt(review.getCreatedAt())
-            .updatedAt(review.getUpdatedAt())
-            .userId(author != null ? author.getId() : null)
-            .userName(author != null ? author.getName() : null)
-            .build();
+    /**
+     * Moves the title version, evicts the recent reviews and records the rating delta only once
+     * the change is committed, so a rolled back change reaches none of them. A read racing the
+     * commit may still cache the old list, under the old version, which is then never served.
+     */
+    private void afterCommit(Long titleId, Runnable ratingDelta) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cacheManager.getCache(CacheConfig.RECENT_REVIEWS).evict(titleId);
+                dataVersion.titleChanged(titleId);
+                ratingDelta.run();
+            }
+        });
     }
-
 }
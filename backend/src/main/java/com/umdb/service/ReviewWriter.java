@@ -0,0 +1,253 @@
+package com.umdb.service;
+
+import com.umdb.config.CacheConfig;
+import com.umdb.dto.ReviewDto;
+import com.umdb.exception.NotFoundException;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Group commit for review upserts. Requests are queued and a single writer thread drains the
+ * queue into batches, each written by one {@code insert ... on conflict do update} statement, so
+ * the batch size grows with the load and a spike costs a few round-trips instead of several per
+ * review. Callers wait for their batch to commit, which keeps the author's next read consistent.
+ *
+ * <p>The queue is bounded; {@link #submit} returns {@code null} when it is full so the caller
+ * can shed the request instead of queueing without limit. A caller that stops waiting cancels
+ * its future: batches skip cancelled requests, but one already being written still commits, so
+ * a request answered with a timeout may yet be saved. Upserts make the retry harmless.
+ */
+@Slf4j
+@Component
+public class ReviewWriter {
+    private final NamedParameterJdbcTemplate jdbc;
+    private final CacheManager cacheManager;
+    private final RatingAggregator ratingAggregator;
+    private final DataVersion dataVersion;
+    private final BlockingQueue<Pending> queue;
+    private final int batchSize;
+    private final Timer batchTimer;
+    private final DistributionSummary batchSizes;
+    private final Thread writer = Thread.ofPlatform().name("review-writer").daemon().unstarted(this::run);
+    private volatile boolean running = true;
+
+    public ReviewWriter(NamedParameterJdbcTemplate jdbc, CacheManager cacheManager,
+                        RatingAggregator ratingAggregator, DataVersion dataVersion, MeterRegistry meterRegistry,
+                        @Value("${app.reviews.write-queue.capacity:1000}") int capacity,
+                        @Value("${app.reviews.write-queue.batch-size:100}") int batchSize) {
+        this.jdbc = jdbc;
+        this.cacheManager = cacheManager;
+        this.ratingAggregator = ratingAggregator;
+        this.dataVersion = dataVersion;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.batchSize = batchSize;
+        this.batchTimer = Timer.builder("umdb.reviews.write.batch")
+            .description("Time taken to write a batch of review upserts")
+            .register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder("umdb.reviews.write.batch.size")
+            .description("Review upserts written per batch")
+            .register(meterRegistry);
+        Gauge.builder("umdb.reviews.write.queue", queue, BlockingQueue::size)
+            .description("Review upserts waiting to be written")
+            .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        writer.start();
+    }
+
+    @PreDestroy
+    void stop() throws InterruptedException {
+        // Not interrupted, which could break a batch mid-write; the writer polls with a timeout
+        running = false;
+        writer.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    /**
+     * Queues an upsert of the user's review of a title. The future completes with the saved
+     * review once its batch is committed, or with {@link NotFoundException} for an unknown title;
+     * cancelling it drops the upsert unless its batch is already being written. Returns
+     * {@code null} when the queue is full.
+     */
+    public CompletableFuture<ReviewDto> submit(long titleId, long userId, String userName, int rating, String review) {
+        Pending pending = new Pending(titleId, userId, userName, rating, review, new CompletableFuture<>());
+        return queue.offer(pending) ? pending.result() : null;
+    }
+
+    private void run() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            queue.drainTo(batch, batchSize - 1);
+            batch.removeIf(pending -> pending.result().isDone());
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                write(batch);
+            } catch (RuntimeException e) {
+                // Dying here would leave every later request waiting for its timeout
+                log.warn("Review batch of {} failed", batch.size(), e);
+                batch.forEach(pending -> pending.result().completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private void write(List<Pending> batch) {
+        // One statement cannot update a row twice, so only the last upsert per review is written
+        // and the ones it supersedes complete with its result
+        Map<List<Long>, List<Pending>> byReview = new LinkedHashMap<>();
+        for (Pending pending : batch) {
+            byReview.computeIfAbsent(List.of(pending.titleId(), pending.userId()), k -> new ArrayList<>(1))
+                .add(pending);
+        }
+        List<Pending> latest = byReview.values().stream().map(p -> p.get(p.size() - 1)).toList();
+        long start = System.nanoTime();
+        Map<List<Long>, ReviewDto> saved;
+        try {
+            saved = upsert(latest);
+        } catch (RuntimeException e) {
+            log.warn("Writing {} reviews failed", latest.size(), e);
+            batch.forEach(pending -> pending.result().completeExceptionally(e));
+            return;
+        }
+        batchTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        batchSizes.record(latest.size());
+
+        Cache recentReviews = cacheManager.getCache(CacheConfig.RECENT_REVIEWS);
+        byReview.forEach((key, pendings) -> {
+            ReviewDto review = saved.get(key);
+            for (Pending pending : pendings) {
+                if (review != null) {
+                    pending.result().complete(review);
+                } else {
+                    pending.result().completeExceptionally(new NotFoundException("Title not found"));
+                }
+            }
+            if (review != null) {
+                recentReviews.evict(key.get(0));
+                dataVersion.titleChanged(key.get(0));
+            }
+        });
+    }
+
+    /**
+     * Upserts the reviews in one statement and returns them by (title id, user id). Reviews of
+     * titles that do not exist are skipped. The reviews being replaced are locked and their
+     * ratings read before the upsert reaches them, so a concurrent change or delete is waited for
+     * rather than counted twice; {@code xmax = 0} tells inserted reviews from updated ones.
+     */
+    private Map<List<Long>, ReviewDto> upsert(List<Pending> reviews) {
+        int n = reviews.size();
+        long[] titleIds = new long[n];
+        long[] userIds = new long[n];
+        int[] ratings = new int[n];
+        String[] texts = new String[n];
+        Map<Long, String> userNames = new LinkedHashMap<>();
+        for (int i = 0; i < n; i++) {
+            Pending pending = reviews.get(i);
+            titleIds[i] = pending.titleId();
+            userIds[i] = pending.userId();
+            ratings[i] = pending.rating();
+            texts[i] = pending.review();
+            userNames.put(pending.userId(), pending.userName());
+        }
+        String sql = """
+            with input as (
+                select i.*
+                from unnest(:titleIds, :userIds, :ratings, :reviews) i(title_id, user_id, rating, review)
+                where exists (select 1 from titles t where t.id = i.title_id)
+            ),
+            old as (
+                select r.title_id, r.user_id, r.rating
+                from reviews r
+                join input i on i.title_id = r.title_id and i.user_id = r.user_id
+                for update of r
+            ),
+            upserted as (
+                -- Joined to old so each existing review is locked before it is upserted; locking
+                -- it afterwards would skip it as already modified by this statement
+                insert into reviews (title_id, user_id, rating, review)
+                select i.title_id, i.user_id, i.rating, i.review
+                from input i
+                left join old o on o.title_id = i.title_id and o.user_id = i.user_id
+                on conflict (title_id, user_id) do update
+                set rating = excluded.rating,
+                    review = excluded.review,
+                    updated_at = now()
+                returning id, title_id, user_id, rating, review, created_at, updated_at, xmax = 0 as inserted
+            )
+            select u.*, o.rating as old_rating
+            from upserted u
+            left join old o on o.title_id = u.title_id and o.user_id = u.user_id
+            """;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("titleIds", titleIds)
+            .addValue("userIds", userIds)
+            .addValue("ratings", ratings)
+            .addValue("reviews", texts);
+        Map<List<Long>, ReviewDto> saved = new LinkedHashMap<>();
+        List<Runnable> ratingDeltas = new ArrayList<>(n);
+        jdbc.query(sql, params, rs -> {
+            long titleId = rs.getLong("title_id");
+            long userId = rs.getLong("user_id");
+            int rating = rs.getInt("rating");
+            Integer oldRating = rs.getObject("old_rating", Integer.class);
+            if (rs.getBoolean("inserted")) {
+                ratingDeltas.add(() -> ratingAggregator.added(titleId, rating));
+            } else if (oldRating != null) {
+                ratingDeltas.add(() -> ratingAggregator.changed(titleId, oldRating, rating));
+            } else {
+                // Inserted by another writer after this statement's snapshot, so the rating it
+                // replaced was never read; that review's own delta stands in for this one
+                log.debug("Review of title {} by user {} replaced an unseen rating", titleId, userId);
+            }
+            saved.put(List.of(titleId, userId), ReviewDto.builder()
+                .id(rs.getLong("id"))
+                .rating(rating)
+                .review(rs.getString("review"))
+                .createdAt(rs.getObject("created_at", OffsetDateTime.class).toInstant())
+                .updatedAt(rs.getObject("updated_at", OffsetDateTime.class).toInstant())
+                .userId(userId)
+                .userName(userNames.get(userId))
+                .build());
+        });
+        ratingDeltas.forEach(Runnable::run);
+        return saved;
+    }
+
+    private record Pending(long titleId, long userId, String userName, int rating, String review,
+                           CompletableFuture<ReviewDto> result) {}
+}
@@ -0,0 +1,12 @@
+package com.umdb.service;
+
+final class ScalarVectorMath implements VectorMath {
+    @Override
+    public float dot(float[] a, int aOffset, float[] b, int bOffset, int length) {
+        float sum = 0;
+        for (int i = 0; i < length; i++) {
+            sum += a[aOffset + i] * b[bOffset + i];
+        }
+        return sum;
+    }
+}
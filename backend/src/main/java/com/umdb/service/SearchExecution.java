@@ -0,0 +1,11 @@
+package com.umdb.service;
+
+/**
+ * How {@link SearchService#search} fetches a page and its capped total.
+ */
+public enum SearchExecution {
+    /** Page and capped count in a single statement over one shared match set. */
+    FUSED,
+    /** Separate page and count statements. */
+    SPLIT
+}
@@ -1,17 +1,26 @@
 package com.umdb.service;
 
+import com.umdb.dto.GenreMatch;
 import com.umdb.dto.SearchRequestDto;
 import com.umdb.dto.SearchResultDto;
+import com.umdb.dto.SearchSort;
 import com.umdb.dto.SearchSuggestionDto;
 import com.umdb.dto.TitleCardDto;
 import com.umdb.model.TitleType;
 import lombok.RequiredArgsConstructor;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.RowCallbackHandler;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
-import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.sql.ResultSet;
+import java.sql.SQLException;
 import java.sql.Types;
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
@@ -19,10 +28,44 @@ import java.util.Objects;
 @Service
 @RequiredArgsConstructor
 public class SearchService {
-    private final NamedParameterJdbcTemplate jdbc;
+    private final TimedQueries queries;
+    private final TitleFilterIndex filterIndex;
     private static final int MAX_SEARCH_RESULTS = 1000;
+    private static final int MAX_INLINE_CANDIDATES = 20_000;
     private static final int MAX_SUGGESTION_CANDIDATES = 500;
-    private static final int MAX_SUGGESTIONS = 6;
+    static final int MAX_SUGGESTIONS = 6;
+
+    static final String QUERY_CTE = """
+        with qq as (
+            select to_tsquery('simple', array_to_string(
+                array(select term || ':*' from unnest(tsvector_to_array(to_tsvector('simple', :q))) as term),
+                ' & '
+            )) as query
+        )
+        """;
+    static final String FILTERS = """
+        t.release_date <= current_date
+          and (:type is null or t.type = :type)
+          and (:yearFrom is null or t.release_date >= make_date(:yearFrom, 1, 1))
+          and (:yearTo is null or t.release_date <= make_date(:yearTo, 12, 31))
+          and (:minRating is null or t.rating >= :minRating)
+          and (:maxRating is null or t.rating <= :maxRating)
+        """;
+    private static final String WHERE = "where (:q = '' or t.title_vector @@ qq.query)\n  and " + FILTERS;
+    private static final String GENRE_ANY = """
+        exists (select 1 from title_genres tg where tg.title_id = t.id and tg.genre_id in (:genreIds))""";
+    private static final String GENRE_ALL = """
+        t.id in (select tg.title_id from title_genres tg where tg.genre_id in (:genreIds)
+                 group by tg.title_id having count(*) = :genreCount)""";
+
+    private static final String SELECT_CARD = """
+        select t.id, t.type, t.title, t.overview, t.release_date, t.rating,
+               t.rating_count, t.popularity, t.poster_url, t.backdrop_url, t.rating_weighted
+        from titles t, qq
+        """;
+
+    @Value("${app.search.execution:FUSED}")
+    private SearchExecution execution;
 
     public List<SearchSuggestionDto> suggest(String query) {
         if (query == null || query.isBlank()) {
@@ -48,7 +91,7 @@ public class SearchService {
             order by popularity desc nulls last, id
             limit %d
             """.formatted(MAX_SUGGESTION_CANDIDATES, MAX_SUGGESTIONS);
-        return jdbc.query(sql, new MapSqlParameterSource("query", query.trim()),
+        return queries.query("search.suggest", sql, new MapSqlParameterSource("query", query.trim()),
             (rs, i) -> SearchSuggestionDto.builder()
                 .id(rs.getLong("id"))
                 .type(TitleType.valueOf(rs.getString("type")))
@@ -59,45 +102,100 @@ public class SearchService {
     }
 
     public SearchResultDto search(SearchRequestDto req) {
+        return search(req, execution);
+    }
+
+    public SearchResultDto search(SearchRequestDto req, SearchExecution mode) {
         String query = Objects.requireNonNullElse(req.getQuery(), "").trim();
         MapSqlParameterSource p = params(req, query);
+        SortKey sortKey = SortKey.of(req.getSort());
+        String where = WHERE + filters(req, p);
 
-        String cte = """
-            with qq as (
-                select to_tsquery('simple', array_to_string(
-                    array(select term || ':*' from unnest(tsvector_to_array(to_tsvector('simple', :q))) as term),
-                    ' & '
-                )) as query
+        if (req.getCursor() != null && !req.getCursor().isBlank()) {
+            return searchAfter(p, where, sortKey, req.getCursor());
+        }
+        return mode == SearchExecution.SPLIT
+            ? searchSplit(p, where, sortKey)
+            : searchFused(p, where, sortKey);
+    }
+
+    /**
+     * Genre filter plus, when the filter bitmaps are loaded, an inlined candidate id list. The
+     * genre, type, year and rating filters are intersected in memory and a small candidate set
+     * is read by primary key; the exact predicates, the genre filter included, still apply on
+     * top, so bitmaps behind the database only cost missed candidates. Titles created after the
+     * last bitmap build are not candidates and are read past the indexed id range. Large
+     * candidate sets, where an index scan in sort order stops early anyway, keep the plain
+     * genre filter.
+     */
+    String filters(SearchRequestDto req, MapSqlParameterSource p) {
+        List<Long> genreIds = req.getGenreIds() == null ? List.of()
+            : req.getGenreIds().stream().filter(Objects::nonNull).distinct().toList();
+        String genreFilter = null;
+        if (!genreIds.isEmpty()) {
+            p.addValue("genreIds", genreIds);
+            p.addValue("genreCount", genreIds.size(), Types.INTEGER);
+            genreFilter = req.getGenreMatch() == GenreMatch.ANY || genreIds.size() == 1
+                ? GENRE_ANY
+                : GENRE_ALL;
+        }
+
+        TitleFilterBitmaps bitmaps = filterIndex.current();
+        if (bitmaps != null && TitleFilterBitmaps.applies(req)) {
+            RoaringBitmap candidates = bitmaps.matching(req);
+            if (candidates.getCardinality() <= MAX_INLINE_CANDIDATES) {
+                long[] ids = new long[candidates.getCardinality()];
+                int i = 0;
+                for (int id : candidates) {
+                    ids[i++] = id;
+                }
+                p.addValue("candidateIds", ids);
+                p.addValue("indexedMaxId", bitmaps.maxId(), Types.BIGINT);
+                return "  and (t.id = any(:candidateIds) or t.id > :indexedMaxId)\n"
+                    + (genreFilter != null ? "  and " + genreFilter + "\n" : "");
+            }
+        }
+        return genreFilter != null ? "  and " + genreFilter + "\n" : "";
+    }
+
+    /**
+     * Reads the first {@code max(offset + limit, MAX_SEARCH_RESULTS + 1)} matches in sort order
+     * once, then derives both the capped total and the requested page from that set. The lateral
+     * join keeps a single row with the total when the page itself is empty.
+     */
+    private SearchResultDto searchFused(MapSqlParameterSource p, String where, SortKey sortKey) {
+        int limit = (Integer) p.getValue("limit");
+        int offset = (Integer) p.getValue("offset");
+        p.addValue("window", Math.max(offset + limit, MAX_SEARCH_RESULTS + 1), Types.INTEGER);
+
+        String sql = QUERY_CTE + """
+            , matches as (
+            """ + SELECT_CARD + where + sortKey.orderBy("t") + """
+
+                limit :window
             )
-            """;
-        String where = """
-            where (:q = '' or t.title_vector @@ qq.query)
-              and t.release_date <= current_date
-              and (:type is null or t.type = :type)
-              and (:yearFrom is null or t.release_date >= make_date(:yearFrom, 1, 1))
-              and (:yearTo is null or t.release_date <= make_date(:yearTo, 12, 31))
-              and (:minRating is null or t.rating >= :minRating)
-              and (:maxRating is null or t.rating <= :maxRating)
-              and (:genreId is null or exists (
-                   select 1 from title_genres tg where tg.title_id = t.id and tg.genre_id = :genreId))
-            """;
+            select n.total_count, m.*
+            from (select count(*) as total_count from matches) n
+            left join lateral (
+                select * from matches p
+            """ + sortKey.orderBy("p") + """
+
+                limit :limit offset :offset
+            ) m on true
+            """ + sortKey.orderBy("m");
 
-        String orderBy = switch (req.getSort()) {
-            case NEWEST -> "order by t.release_date desc nulls last, t.id";
-            case RATING -> "order by t.rating_weighted desc nulls last, t.id";
-            case null, default -> "order by t.popularity desc nulls last, t.id";
-        };
+        PageCollector page = new PageCollector(sortKey, true);
+        queries.query("search.fused", sql, p, page);
+        return result(page, limit, page.total);
+    }
 
-        String sql = cte + """
-            select t.id, t.type, t.title, t.overview, t.release_date,
-                   t.rating, t.rating_count, t.popularity, t.poster_url, t.backdrop_url
-            from titles t, qq
-            """ + where + orderBy + """
+    private SearchResultDto searchSplit(MapSqlParameterSource p, String where, SortKey sortKey) {
+        String sql = QUERY_CTE + SELECT_CARD + where + sortKey.orderBy("t") + """
 
             limit :limit offset :offset
             """;
 
-        String countSql = cte + """
+        String countSql = QUERY_CTE + """
             select count(*) from (
                 select 1 from titles t, qq
             """ + where + """
@@ -105,30 +203,76 @@ public class SearchService {
             ) x
             """;
 
-        List<TitleCardDto> items = jdbc.query(sql, p, (rs, i) -> TitleCardDto.builder()
-            .id(rs.getLong("id"))
-            .type(TitleType.valueOf(rs.getString("type")))
-            .title(rs.getString("title"))
-            .overview(rs.getString("overview"))
-            .releaseDate(rs.getObject("release_date", LocalDate.class))
-            .rating(rs.getObject("rating", Double.class))
-            .ratingCount(rs.getObject("rating_count", Integer.class))
-            .popularity(rs.getObject("popularity", Double.class))
-            .posterUrl(rs.getString("poster_url"))
-            .backdropUrl(rs.getString("backdrop_url"))
-            .build());
-
-        Long cnt = jdbc.queryForObject(countSql, p, Long.class);
-        int total = cnt == null ? 0 : Math.min(cnt.intValue(), MAX_SEARCH_RESULTS);
+        PageCollector page = new PageCollector(sortKey, false);
+        queries.query("search.page", sql, p, page);
+        Long cnt = queries.queryForObject("search.count", countSql, p, Long.class);
+        return result(page, (Integer) p.getValue("limit"), cnt == null ? 0 : cnt);
+    }
+
+    /**
+     * Keyset page following the row encoded in {@code cursor}. The seek condition is an index
+     * range on the sort column so deep pages cost the same as the first one. Rows with a null
+     * sort key sort last and are read by a second branch ordered by id. The capped total is only
+     * computed for offset pages, cursor pages leave it null.
+     */
+    private SearchResultDto searchAfter(MapSqlParameterSource p, String where, SortKey sortKey,
+                                        String cursor) {
+        List<String> parts = PageCursor.decode(cursor, 3);
+        if (!sortKey.name().equals(parts.get(0))) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                "Cursor does not match the requested sort");
+        }
+        String afterKey = parts.get(1);
+        p.addValue("afterKey", afterKey, Types.VARCHAR);
+        p.addValue("afterId", PageCursor.parseId(parts.get(2)), Types.BIGINT);
+
+        String column = "t." + sortKey.column;
+        String sql;
+        if (afterKey == null) {
+            sql = QUERY_CTE + SELECT_CARD + where
+                + "  and %s is null and t.id > :afterId\n".formatted(column)
+                + sortKey.orderBy("t") + "\nlimit :limit";
+        } else {
+            String key = "cast(:afterKey as %s)".formatted(sortKey.sqlType);
+            String seek = "  and %1$s <= %2$s and (%1$s < %2$s or t.id > :afterId)\n"
+                .formatted(column, key);
+            String keyed = SELECT_CARD + where + seek + sortKey.orderBy("t") + "\nlimit :limit";
+            if (sortKey.nullable) {
+                String nulls = SELECT_CARD + where + "  and %s is null\n".formatted(column)
+                    + sortKey.orderBy("t") + "\nlimit :limit";
+                sql = QUERY_CTE + "select * from ((" + keyed + ") union all (" + nulls + ")) p\n"
+                    + sortKey.orderBy("p") + "\nlimit :limit";
+            } else {
+                sql = QUERY_CTE + keyed;
+            }
+        }
+
+        PageCollector page = new PageCollector(sortKey, false);
+        queries.query("search.after", sql, p, page);
+        return SearchResultDto.builder()
+            .items(page.items)
+            .nextCursor(nextCursor(page, (Integer) p.getValue("limit")))
+            .build();
+    }
 
+    private SearchResultDto result(PageCollector page, int limit, long count) {
         return SearchResultDto.builder()
-            .items(items)
-            .total(total)
-            .totalCapped(cnt != null && cnt > MAX_SEARCH_RESULTS)
+            .items(page.items)
+            .total((int) Math.min(count, MAX_SEARCH_RESULTS))
+            .totalCapped(count > MAX_SEARCH_RESULTS)
+            .nextCursor(nextCursor(page, limit))
             .build();
     }
 
-    private MapSqlParameterSource params(SearchRequestDto req, String query) {
+    private static String nextCursor(PageCollector page, int limit) {
+        if (page.items.size() < limit) {
+            return null;
+        }
+        TitleCardDto last = page.items.get(page.items.size() - 1);
+        return PageCursor.encode(page.sortKey.name(), page.lastKey, String.valueOf(last.getId()));
+    }
+
+    static MapSqlParameterSource params(SearchRequestDto req, String query) {
         return new MapSqlParameterSource()
             .addValue("q", query, Types.VARCHAR)
             .addValue("type", req.getType() != null ? req.getType().name() : null, Types.VARCHAR)
@@ -136,9 +280,65 @@ public class SearchService {
             .addValue("yearTo", req.getYearTo(), Types.INTEGER)
             .addValue("minRating", req.getMinRating(), Types.DOUBLE)
             .addValue("maxRating", req.getMaxRating(), Types.DOUBLE)
-            .addValue("genreId", req.getGenreIds() == null || req.getGenreIds().isEmpty()
-                ? null : req.getGenreIds().get(0), Types.BIGINT)
             .addValue("limit", req.getLimit() != null ? req.getLimit() : 24, Types.INTEGER)
             .addValue("offset", req.getOffset() != null ? req.getOffset() : 0, Types.INTEGER);
     }
+
+    private enum SortKey {
+        POPULARITY("popularity", "double precision", true),
+        // release_date is never null for searchable titles, rating_weighted is always computed
+        RELEASE_DATE("release_date", "date", false),
+        RATING("rating_weighted", "double precision", false);
+
+        private final String column;
+        private final String sqlType;
+        private final boolean nullable;
+
+        SortKey(String column, String sqlType, boolean nullable) {
+            this.column = column;
+            this.sqlType = sqlType;
+            this.nullable = nullable;
+        }
+
+        static SortKey of(SearchSort sort) {
+            return switch (sort) {
+                case NEWEST -> RELEASE_DATE;
+                case RATING -> RATING;
+                case null, default -> POPULARITY;
+            };
+        }
+
+        String orderBy(String alias) {
+            return "order by %1$s.%2$s desc nulls last, %1$s.id".formatted(alias, column);
+        }
+    }
+
+    /**
+     * Collects cards, the fused total and the raw sort key of the last row for the next cursor.
+     * A fused row without an id only carries the total of an empty page.
+     */
+    private static final class PageCollector implements RowCallbackHandler {
+        private final SortKey sortKey;
+        private final boolean fused;
+        private final List<TitleCardDto> items = new ArrayList<>();
+        private long total;
+        private String lastKey;
+
+        PageCollector(SortKey sortKey, boolean fused) {
+            this.sortKey = sortKey;
+            this.fused = fused;
+        }
+
+        @Override
+        public void processRow(ResultSet rs) throws SQLException {
+            if (fused) {
+                total = rs.getLong("total_count");
+                if (rs.getObject("id") == null) {
+                    return;
+                }
+            }
+            items.add(TitleCardRowMapper.INSTANCE.mapRow(rs, items.size()));
+            lastKey = rs.getString(sortKey.column);
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package com.umdb.service;
+
+import com.umdb.dto.TitleCardDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Precomputed similar titles ({@code title_similar}) plus, per title, the hash of the inputs they
+ * were computed from and the popularity maximum they were normalised by ({@code title_similar_state}). A title with a state row but no neighbours
+ * has been computed and genuinely has none.
+ */
+@Component
+@RequiredArgsConstructor
+public class SimilarTitleStore {
+    public static final int STORED_NEIGHBOURS = 50;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TimedQueries queries;
+
+    public record Neighbour(long id, double score) {}
+
+    /**
+     * One title's neighbours, best first, and the input hash they reflect. A null hash leaves
+     * the stored state untouched.
+     */
+    public record Entry(long titleId, String inputHash, List<Neighbour> neighbours) {}
+
+    /** Stored neighbours as cards, or empty when the title has not been computed yet. */
+    public Optional<List<TitleCardDto>> find(long titleId, int limit) {
+        if (limit > STORED_NEIGHBOURS) {
+            return Optional.empty();
+        }
+        String sql = """
+            select t.id, t.type, t.title, t.overview, t.release_date,
+                   t.rating, t.rating_count, t.popularity, t.poster_url, t.backdrop_url
+            from title_similar s
+            join titles t on t.id = s.similar_id
+            where s.title_id = :id
+            order by s.rank
+            limit :limit
+            """;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+            .addValue("id", titleId, Types.BIGINT)
+            .addValue("limit", limit, Types.INTEGER);
+        List<TitleCardDto> cards = queries.query("similar.stored", sql, params, TitleCardRowMapper.INSTANCE);
+        if (!cards.isEmpty() || isComputed(titleId)) {
+            return Optional.of(cards);
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Titles whose scoring inputs differ from the hash stored with their neighbours, including
+     * titles never computed. The hash covers the title's own embedding version, genres, type,
+     * poster and popularity and the ranking function's {@code signature}; a change of the catalog's
+     * maximum popularity, which every score is normalised by, makes all titles stale.
+     */
+    public List<Entry> findStale(String signature) {
+        String sql = """
+            with stats as (
+                select max(popularity) as max_pop from titles
+            ),
+            inputs as (
+                select t.id,
+                       md5(concat_ws('|', :signature, t.type, t.poster_url is not null,
+                                     round(t.popularity::numeric, 2),
+                                     (select string_agg(tg.genre_id::text, ',' order by tg.genre_id)
+                                      from title_genres tg
+                                      where tg.title_id = t.id),
+                                     t.embedding_version)) as input_hash
+                from titles t
+            )
+            select i.id, i.input_hash
+            from inputs i
+            cross join stats s
+            left join title_similar_state st on st.title_id = i.id
+            where st.input_hash is distinct from i.input_hash
+               or st.max_popularity is distinct from s.max_pop
+            order by i.id
+            """;
+        return jdbcTemplate.query(sql, new MapSqlParameterSource("signature", signature), (rs, i) ->
+            new Entry(rs.getLong("id"), rs.getString("input_hash"), List.of()));
+    }
+
+    /** Titles that currently list any of the given titles as a neighbour. */
+    public List<Long> findReferencing(Collection<Long> titleIds) {
+        if (titleIds.isEmpty()) {
+            return List.of();
+        }
+        String sql = """
+            select distinct title_id
+            from title_similar
+            where similar_id = any(:ids)
+            """;
+        return jdbcTemplate.queryForList(sql,
+            new MapSqlParameterSource("ids", titleIds.stream().mapToLong(Long::longValue).toArray()),
+            Long.class);
+    }
+
+    /**
+     * Replaces the neighbours and input hashes of the given titles in one transaction, recording
+     * {@code maxPopularity} as the maximum their scores were normalised by.
+     */
+    public void replace(List<Entry> entries, double maxPopularity) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long[] titleIds = entries.stream().mapToLong(Entry::titleId).toArray();
+        List<SqlParameterSource> rows = new ArrayList<>();
+        List<SqlParameterSource> states = new ArrayList<>(entries.size());
+        for (Entry entry : entries) {
+            for (int rank = 0; rank < entry.neighbours().size(); rank++) {
+                Neighbour neighbour = entry.neighbours().get(rank);
+                rows.add(new MapSqlParameterSource()
+                    .addValue("titleId", entry.titleId(), Types.BIGINT)
+                    .addValue("rank", rank + 1, Types.SMALLINT)
+                    .addValue("similarId", neighbour.id(), Types.BIGINT)
+                    .addValue("score", neighbour.score(), Types.DOUBLE));
+            }
+            if (entry.inputHash() != null) {
+                states.add(new MapSqlParameterSource()
+                    .addValue("titleId", entry.titleId(), Types.BIGINT)
+                    .addValue("inputHash", entry.inputHash(), Types.VARCHAR)
+                    .addValue("maxPopularity", Double.isNaN(maxPopularity) ? null : maxPopularity, Types.DOUBLE));
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("delete from title_similar where title_id = any(:ids)",
+                new MapSqlParameterSource("ids", titleIds));
+            jdbcTemplate.batchUpdate("""
+                insert into title_similar (title_id, rank, similar_id, score)
+                values (:titleId, :rank, :similarId, :score)
+                """, rows.toArray(SqlParameterSource[]::new));
+            jdbcTemplate.batchUpdate("""
+                insert into title_similar_state (title_id, input_hash, max_popularity, computed_at)
+                values (:titleId, :inputHash, :maxPopularity, now())
+                on conflict (title_id) do update
+                    set input_hash = excluded.input_hash,
+                        max_popularity = excluded.max_popularity,
+                        computed_at = excluded.computed_at
+                """, states.toArray(SqlParameterSource[]::new));
+        });
+    }
+
+    private boolean isComputed(long titleId) {
+        Boolean computed = jdbcTemplate.queryForObject(
+            "select exists (select 1 from title_similar_state where title_id = :id)",
+            new MapSqlParameterSource("id", titleId), Boolean.class);
+        return Boolean.TRUE.equals(computed);
+    }
+}
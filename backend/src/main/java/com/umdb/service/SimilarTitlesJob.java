@@ -0,0 +1,146 @@
+package com.umdb.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keeps {@link SimilarTitleStore} up to date. Each run recomputes the titles whose scoring
+ * inputs changed, the titles listing one of those as a neighbour, and then the new neighbours
+ * of the changed titles, which may now rank them. Batches are scored in parallel and each
+ * batch is written in its own transaction.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SimilarTitlesJob {
+    private final RecommendationService recommendationService;
+    private final SimilarTitleStore similarTitleStore;
+    private final CatalogVersion catalogVersion;
+    private final HybridReranker hybridReranker;
+    private final TitleFeatureCache titleFeatureCache;
+    private final DataVersion dataVersion;
+
+    private volatile long refreshedCatalog = -1;
+
+    @Value("${app.recommendations.similar.enabled:true}")
+    private boolean enabled;
+
+    @Value("${app.recommendations.similar.parallelism:4}")
+    private int parallelism;
+
+    @Value("${app.recommendations.similar.batch-size:100}")
+    private int batchSize;
+
+    @Scheduled(fixedDelayString = "${app.recommendations.similar.refresh-interval:PT10M}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long catalog = catalogVersion.current();
+            // Failed batches leave their titles stale, so the next run retries them
+            if (catalog != refreshedCatalog && run()) {
+                refreshedCatalog = catalog;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Similar titles refresh failed", e);
+        }
+    }
+
+    /** Recomputes the stale titles, returning whether every batch succeeded. */
+    public boolean run() {
+        long start = System.nanoTime();
+        Map<Long, String> stale = new HashMap<>();
+        for (SimilarTitleStore.Entry entry : similarTitleStore.findStale(hybridReranker.signature())) {
+            stale.put(entry.titleId(), entry.inputHash());
+        }
+        if (stale.isEmpty()) {
+            return true;
+        }
+        AtomicInteger failed = new AtomicInteger();
+        Set<Long> firstPass = new LinkedHashSet<>(stale.keySet());
+        firstPass.addAll(similarTitleStore.findReferencing(stale.keySet()));
+        List<SimilarTitleStore.Entry> computed = compute(firstPass, stale, failed);
+
+        // A new or changed title may now belong among its own neighbours' neighbours
+        Set<Long> secondPass = new LinkedHashSet<>();
+        for (SimilarTitleStore.Entry entry : computed) {
+            if (entry.inputHash() != null) {
+                entry.neighbours().forEach(n -> secondPass.add(n.id()));
+            }
+        }
+        secondPass.removeAll(firstPass);
+        computed.addAll(compute(secondPass, stale, failed));
+        computed.forEach(entry -> dataVersion.titleChanged(entry.titleId()));
+
+        log.info("Similar titles refreshed for {} titles ({} changed) in {} ms",
+            firstPass.size() + secondPass.size(), stale.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        if (failed.get() > 0) {
+            log.warn("Similar titles: {} batches failed and will be retried next run", failed.get());
+            return false;
+        }
+        return true;
+    }
+
+    private List<SimilarTitleStore.Entry> compute(Set<Long> titleIds, Map<Long, String> stale,
+                                                  AtomicInteger failed) {
+        List<Long> ids = new ArrayList<>(titleIds);
+        List<SimilarTitleStore.Entry> computed = new ArrayList<>();
+        try (ExecutorService executor = Executors.newFixedThreadPool(parallelism)) {
+            List<Future<List<SimilarTitleStore.Entry>>> batches = new ArrayList<>();
+            for (int from = 0; from < ids.size(); from += batchSize) {
+                List<Long> batch = ids.subList(from, Math.min(from + batchSize, ids.size()));
+                batches.add(executor.submit(() -> computeBatch(batch, stale, failed)));
+            }
+            for (Future<List<SimilarTitleStore.Entry>> batch : batches) {
+                computed.addAll(batch.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            failed.incrementAndGet();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Similar titles batch failed", e.getCause());
+        }
+        return computed;
+    }
+
+    private List<SimilarTitleStore.Entry> computeBatch(List<Long> batch, Map<Long, String> stale,
+                                                       AtomicInteger failed) {
+        List<SimilarTitleStore.Entry> entries = new ArrayList<>(batch.size());
+        try {
+            // Read before scoring: features only move forward, so a refresh in between at worst
+            // leaves the batch stale for one more run
+            double maxPopularity = titleFeatureCache.get().maxPopularity();
+            for (Long id : batch) {
+                List<SimilarTitleStore.Neighbour> neighbours = recommendationService.scoreNeighbours(
+                    id, SimilarTitleStore.STORED_NEIGHBOURS);
+                // Titles recomputed only because a neighbour changed keep their stored hash
+                entries.add(new SimilarTitleStore.Entry(id, stale.get(id), neighbours));
+            }
+            similarTitleStore.replace(entries, maxPopularity);
+        } catch (RuntimeException e) {
+            // Deleted titles or concurrent imports; the hashes stay stale so the next run retries
+            log.debug("Similar titles batch failed", e);
+            failed.incrementAndGet();
+            return List.of();
+        }
+        return entries;
+    }
+}
@@ -0,0 +1,429 @@
+package com.umdb.service;
+
+import com.umdb.dto.SearchSuggestionDto;
+import com.umdb.model.TitleType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable in-memory autocomplete index over title tokens.
+ *
+ * <p>Titles are numbered by rank ({@code popularity desc nulls last, id}) so that every postings
+ * list, stored as a slice of one sorted {@code int[]}, is already in result order. A query token
+ * matches the contiguous range of dictionary terms it prefixes. The range with the fewest
+ * postings drives a k-way merge in rank order, the other tokens are checked against the title's
+ * own term ids, and the merge stops as soon as enough suggestions are found. One and two letter
+ * prefixes cover huge term ranges, so their top candidates are merged once at build time.
+ *
+ * <p>Tokenization approximates {@code to_tsvector('simple', ...)}: lower-cased runs of letters
+ * and digits.
+ */
+public final class SuggestIndex {
+    static final int HOT_PREFIX_LENGTH = 2;
+    static final int HOT_PREFIX_MIN_POSTINGS = 2048;
+    static final int HOT_PREFIX_DEPTH = 512;
+
+    private static final TitleType[] TYPES = TitleType.values();
+    private static final Comparator<Entry> RANK_ORDER = Comparator
+        .comparing(Entry::popularity, Comparator.nullsLast(Comparator.reverseOrder()))
+        .thenComparingLong(Entry::id);
+
+    // Title columns by rank
+    private final long[] ids;
+    private final byte[] types;
+    private final String[] titles;
+    private final int[] releaseDays;
+    private final String[] posterUrls;
+
+    // Sorted term dictionary with postings (title ranks, ascending) in CSR layout
+    private final String[] terms;
+    private final int[] postingStarts;
+    private final int[] postings;
+
+    // Sorted term ids of each title in CSR layout
+    private final int[] titleTermStarts;
+    private final int[] titleTerms;
+
+    private final Map<String, int[]> hotPrefixes;
+    private final int hotPrefixDepth;
+
+    public record Entry(long id, TitleType type, String title, LocalDate releaseDate,
+                        String posterUrl, Double popularity) {}
+
+    private SuggestIndex(int size, int termCount, int postingCount, int hotPrefixDepth) {
+        this.ids = new long[size];
+        this.types = new byte[size];
+        this.titles = new String[size];
+        this.releaseDays = new int[size];
+        this.posterUrls = new String[size];
+        this.terms = new String[termCount];
+        this.postingStarts = new int[termCount + 1];
+        this.postings = new int[postingCount];
+        this.titleTermStarts = new int[size + 1];
+        this.titleTerms = new int[postingCount];
+        this.hotPrefixes = new HashMap<>();
+        this.hotPrefixDepth = hotPrefixDepth;
+    }
+
+    public static SuggestIndex build(Collection<Entry> entries) {
+        return build(entries, HOT_PREFIX_MIN_POSTINGS, HOT_PREFIX_DEPTH);
+    }
+
+    static SuggestIndex build(Collection<Entry> entries, int hotPrefixMinPostings,
+                              int hotPrefixDepth) {
+        List<Entry> ranked = new ArrayList<>(entries);
+        ranked.sort(RANK_ORDER);
+
+        // Postings are appended in rank order, so each list ends up sorted.
+        Map<String, IntList> postingsByTerm = new HashMap<>();
+        List<List<String>> tokensByRank = new ArrayList<>(ranked.size());
+        int postingCount = 0;
+        for (int rank = 0; rank < ranked.size(); rank++) {
+            List<String> tokens = tokenize(ranked.get(rank).title());
+            tokensByRank.add(tokens);
+            for (String token : tokens) {
+                postingsByTerm.computeIfAbsent(token, t -> new IntList()).add(rank);
+            }
+            postingCount += tokens.size();
+        }
+
+        String[] sortedTerms = postingsByTerm.keySet().toArray(String[]::new);
+        Arrays.sort(sortedTerms);
+        SuggestIndex index = new SuggestIndex(ranked.size(), sortedTerms.length, postingCount,
+            hotPrefixDepth);
+
+        Map<String, Integer> termIds = new HashMap<>(sortedTerms.length * 2);
+        int offset = 0;
+        for (int termId = 0; termId < sortedTerms.length; termId++) {
+            String term = sortedTerms[termId];
+            IntList list = postingsByTerm.get(term);
+            index.terms[termId] = term;
+            index.postingStarts[termId] = offset;
+            System.arraycopy(list.values, 0, index.postings, offset, list.size);
+            offset += list.size;
+            termIds.put(term, termId);
+        }
+        index.postingStarts[sortedTerms.length] = offset;
+
+        offset = 0;
+        for (int rank = 0; rank < ranked.size(); rank++) {
+            Entry entry = ranked.get(rank);
+            index.ids[rank] = entry.id();
+            index.types[rank] = (byte) (entry.type() != null ? entry.type().ordinal() : -1);
+            index.titles[rank] = entry.title();
+            // Unknown release dates never satisfy "release_date <= current_date"
+            index.releaseDays[rank] = entry.releaseDate() != null
+                ? (int) entry.releaseDate().toEpochDay()
+                : Integer.MAX_VALUE;
+            index.posterUrls[rank] = entry.posterUrl();
+
+            index.titleTermStarts[rank] = offset;
+            for (String token : tokensByRank.get(rank)) {
+                index.titleTerms[offset++] = termIds.get(token);
+            }
+            Arrays.sort(index.titleTerms, index.titleTermStarts[rank], offset);
+        }
+        index.titleTermStarts[ranked.size()] = offset;
+
+        index.cacheHotPrefixes(hotPrefixMinPostings);
+        return index;
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public int termCount() {
+        return terms.length;
+    }
+
+    public List<SearchSuggestionDto> suggest(String query, int limit, LocalDate today) {
+        List<String> tokens = tokenize(query);
+        if (tokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        int[] from = new int[tokens.size()];
+        int[] to = new int[tokens.size()];
+        int driver = 0;
+        for (int i = 0; i < tokens.size(); i++) {
+            from[i] = lowerBound(tokens.get(i));
+            to[i] = prefixEnd(tokens.get(i));
+            if (from[i] >= to[i]) {
+                return List.of();
+            }
+            if (postingCount(from[i], to[i]) < postingCount(from[driver], to[driver])) {
+                driver = i;
+            }
+        }
+
+        int todayDay = (int) today.toEpochDay();
+        List<SearchSuggestionDto> results = new ArrayList<>(limit);
+        RankIterator candidates = candidates(tokens.get(driver), from[driver], to[driver]);
+        int previous = -1;
+        for (int rank = candidates.next(); rank >= 0; rank = candidates.next()) {
+            // A title with several tokens in the driver range shows up once per token
+            if (rank == previous) {
+                continue;
+            }
+            previous = rank;
+            if (releaseDays[rank] > todayDay || !matchesAll(rank, from, to, driver)) {
+                continue;
+            }
+            results.add(toSuggestion(rank));
+            if (results.size() == limit) {
+                break;
+            }
+        }
+        return results;
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null || text.isEmpty()) {
+            return List.of();
+        }
+        Set<String> tokens = new LinkedHashSet<>();
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i < lower.length(); ) {
+            int codePoint = lower.codePointAt(i);
+            boolean wordChar = Character.isLetterOrDigit(codePoint);
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                tokens.add(lower.substring(start, i));
+                start = -1;
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (start >= 0) {
+            tokens.add(lower.substring(start));
+        }
+        return List.copyOf(tokens);
+    }
+
+    private SearchSuggestionDto toSuggestion(int rank) {
+        return SearchSuggestionDto.builder()
+            .id(ids[rank])
+            .type(types[rank] >= 0 ? TYPES[types[rank]] : null)
+            .title(titles[rank])
+            .releaseDate(LocalDate.ofEpochDay(releaseDays[rank]))
+            .posterUrl(posterUrls[rank])
+            .build();
+    }
+
+    private boolean matchesAll(int rank, int[] from, int[] to, int skip) {
+        int start = titleTermStarts[rank];
+        int end = titleTermStarts[rank + 1];
+        for (int i = 0; i < from.length; i++) {
+            if (i == skip) {
+                continue;
+            }
+            boolean found = false;
+            for (int j = start; j < end && titleTerms[j] < to[i]; j++) {
+                if (titleTerms[j] >= from[i]) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private RankIterator candidates(String prefix, int from, int to) {
+        if (to - from == 1) {
+            return new SliceIterator(postings, postingStarts[from], postingStarts[to]);
+        }
+        int[] hot = prefix.length() <= HOT_PREFIX_LENGTH ? hotPrefixes.get(prefix) : null;
+        if (hot == null) {
+            return new MergeIterator(from, to, -1);
+        }
+        if (hot.length < hotPrefixDepth) {
+            return new SliceIterator(hot, 0, hot.length);
+        }
+        // Truncated: fall through to a full merge once the cached head runs out
+        return new RankIterator() {
+            private int position;
+            private RankIterator tail;
+
+            @Override
+            public int next() {
+                if (position < hot.length) {
+                    return hot[position++];
+                }
+                if (tail == null) {
+                    tail = new MergeIterator(from, to, hot[hot.length - 1]);
+                }
+                return tail.next();
+            }
+        };
+    }
+
+    private void cacheHotPrefixes(int minPostings) {
+        Set<String> prefixes = new LinkedHashSet<>();
+        for (String term : terms) {
+            for (int length = 1; length <= Math.min(HOT_PREFIX_LENGTH, term.length()); length++) {
+                prefixes.add(term.substring(0, length));
+            }
+        }
+        for (String prefix : prefixes) {
+            int from = lowerBound(prefix);
+            int to = prefixEnd(prefix);
+            if (to - from < 2 || postingCount(from, to) < minPostings) {
+                continue;
+            }
+            IntList top = new IntList();
+            MergeIterator merge = new MergeIterator(from, to, -1);
+            int previous = -1;
+            for (int rank = merge.next(); rank >= 0 && top.size < hotPrefixDepth;
+                 rank = merge.next()) {
+                if (rank != previous) {
+                    top.add(rank);
+                    previous = rank;
+                }
+            }
+            hotPrefixes.put(prefix, Arrays.copyOf(top.values, top.size));
+        }
+    }
+
+    private int postingCount(int fromTerm, int toTerm) {
+        return postingStarts[toTerm] - postingStarts[fromTerm];
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = terms.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (terms[mid].compareTo(key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int prefixEnd(String prefix) {
+        return lowerBound(prefix + Character.MAX_VALUE);
+    }
+
+    private interface RankIterator {
+        /** Next rank in ascending order, or -1 when exhausted. */
+        int next();
+    }
+
+    private static final class SliceIterator implements RankIterator {
+        private final int[] values;
+        private final int end;
+        private int position;
+
+        SliceIterator(int[] values, int start, int end) {
+            this.values = values;
+            this.position = start;
+            this.end = end;
+        }
+
+        @Override
+        public int next() {
+            return position < end ? values[position++] : -1;
+        }
+    }
+
+    /** K-way merge of the postings of a term range using a binary heap of list cursors. */
+    private final class MergeIterator implements RankIterator {
+        private final int[] positions;
+        private final int[] ends;
+        private final int[] heap;
+        private final int after;
+        private int heapSize;
+
+        MergeIterator(int fromTerm, int toTerm, int after) {
+            int lists = toTerm - fromTerm;
+            this.positions = new int[lists];
+            this.ends = new int[lists];
+            this.heap = new int[lists];
+            this.after = after;
+            for (int i = 0; i < lists; i++) {
+                int start = postingStarts[fromTerm + i];
+                int end = postingStarts[fromTerm + i + 1];
+                // Only ranks after the cached head are needed
+                while (start < end && postings[start] <= after) {
+                    start++;
+                }
+                if (start < end) {
+                    positions[i] = start;
+                    ends[i] = end;
+                    heap[heapSize++] = i;
+                }
+            }
+            for (int i = heapSize / 2 - 1; i >= 0; i--) {
+                siftDown(i);
+            }
+        }
+
+        @Override
+        public int next() {
+            if (heapSize == 0) {
+                return -1;
+            }
+            int list = heap[0];
+            int rank = postings[positions[list]++];
+            if (positions[list] == ends[list]) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(0);
+            return rank;
+        }
+
+        private int head(int heapIndex) {
+            return postings[positions[heap[heapIndex]]];
+        }
+
+        private void siftDown(int index) {
+            while (true) {
+                int left = 2 * index + 1;
+                if (left >= heapSize) {
+                    return;
+                }
+                int smallest = left;
+                int right = left + 1;
+                if (right < heapSize && head(right) < head(left)) {
+                    smallest = right;
+                }
+                if (head(index) <= head(smallest)) {
+                    return;
+                }
+                int swap = heap[index];
+                heap[index] = heap[smallest];
+                heap[smallest] = swap;
+                index = smallest;
+            }
+        }
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.umdb.service;
+
+import com.umdb.dto.SearchSuggestionDto;
+import com.umdb.model.TitleType;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Autocomplete served from an in-memory {@link SuggestIndex}. The index is built in the
+ * background at startup and rebuilt whenever the {@link CatalogVersion} moves; until the
+ * first build completes, or if it is disabled, suggestions fall back to the SQL path in
+ * {@link SearchService#suggest(String)}.
+ */
+@Slf4j
+@Service
+public class SuggestionService {
+    private static final int LOAD_FETCH_SIZE = 10_000;
+
+    private final SearchService searchService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+    private final Timer buildTimer;
+
+    private volatile SuggestIndex index;
+    private volatile long indexedCatalog = -1;
+    private volatile long version = System.currentTimeMillis();
+
+    @Value("${app.search.suggest-index.enabled:true}")
+    private boolean enabled;
+
+    public SuggestionService(SearchService searchService, JdbcTemplate jdbcTemplate,
+                             TransactionTemplate transactionTemplate,
+                             CatalogVersion catalogVersion, MeterRegistry meterRegistry) {
+        this.searchService = searchService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersion = catalogVersion;
+        this.buildTimer = Timer.builder("umdb.search.suggest-index.build")
+            .description("Time taken to build the in-memory suggestion index")
+            .register(meterRegistry);
+    }
+
+    public List<SearchSuggestionDto> suggest(String query) {
+        SuggestIndex current = index;
+        if (current == null) {
+            return searchService.suggest(query);
+        }
+        return current.suggest(query, SearchService.MAX_SUGGESTIONS, LocalDate.now());
+    }
+
+    /**
+     * Version of the suggestions for today, which moves with each index build, or null while
+     * they come from the database. Starts from the start time, so versions of an earlier run or
+     * of another instance never match.
+     */
+    public String version() {
+        return index != null ? version + "." + LocalDate.now().toEpochDay() : null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.suggest-index.refresh-interval:PT1M}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long catalog = catalogVersion.current();
+            if (index != null && catalog == indexedCatalog) {
+                return;
+            }
+            long start = System.nanoTime();
+            SuggestIndex built = load();
+            long elapsed = System.nanoTime() - start;
+            buildTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            index = built;
+            indexedCatalog = catalog;
+            version++;
+            log.info("Suggestion index built: {} titles, {} terms in {} ms",
+                built.size(), built.termCount(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+        } catch (RuntimeException e) {
+            log.warn("Suggestion index build failed, keeping previous index", e);
+        }
+    }
+
+    private SuggestIndex load() {
+        // Streaming with a fetch size needs a transaction on Postgres
+        return transactionTemplate.execute(status -> {
+            JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+            streaming.setFetchSize(LOAD_FETCH_SIZE);
+            return load(streaming);
+        });
+    }
+
+    public static SuggestIndex load(JdbcTemplate jdbcTemplate) {
+        List<SuggestIndex.Entry> entries = new ArrayList<>();
+        jdbcTemplate.query("""
+            select id, type, title, release_date, poster_url, popularity
+            from titles
+            """, rs -> {
+            String type = rs.getString("type");
+            entries.add(new SuggestIndex.Entry(
+                rs.getLong("id"),
+                type != null ? TitleType.valueOf(type) : null,
+                rs.getString("title"),
+                rs.getObject("release_date", LocalDate.class),
+                rs.getString("poster_url"),
+                rs.getObject("popularity", Double.class)));
+        });
+        return SuggestIndex.build(entries);
+    }
+}
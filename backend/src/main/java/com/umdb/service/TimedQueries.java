@@ -0,0 +1,193 @@
+package com.umdb.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * Read queries on the request path, run through {@link NamedParameterJdbcTemplate} under a
+ * name. Each name gets an {@code umdb.db.query} timer and an {@code umdb.db.query.rows} summary.
+ *
+ * <p>Queries slower than {@code app.db.slow-query.threshold} are logged with their parameters
+ * and, at most once per {@code app.db.slow-query.explain-interval} for each name, with the
+ * {@code explain (analyze, buffers)} plan. The plan is taken on another connection in the
+ * background, so it runs again without the caller's transaction-local settings such as
+ * {@code hnsw.ef_search}.
+ */
+@Slf4j
+@Component
+public class TimedQueries {
+    private static final int MAX_LOGGED_VALUE_LENGTH = 200;
+
+    private final NamedParameterJdbcTemplate jdbc;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, Meters> meters = new ConcurrentHashMap<>();
+    private final Map<String, Long> lastExplained = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.SECONDS,
+        new ArrayBlockingQueue<>(16), Thread.ofPlatform().name("slow-query-explain").daemon().factory());
+
+    @Value("${app.db.slow-query.threshold:PT0.5S}")
+    private Duration slowThreshold;
+
+    @Value("${app.db.slow-query.explain:true}")
+    private boolean explain;
+
+    @Value("${app.db.slow-query.explain-interval:PT1M}")
+    private Duration explainInterval;
+
+    @Value("${app.db.slow-query.explain-timeout:PT30S}")
+    private Duration explainTimeout;
+
+    public TimedQueries(NamedParameterJdbcTemplate jdbc, TransactionTemplate transactionTemplate,
+                        MeterRegistry meterRegistry) {
+        this.jdbc = jdbc;
+        this.transactionTemplate = transactionTemplate;
+        this.meterRegistry = meterRegistry;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        explainExecutor.shutdownNow();
+    }
+
+    public <T> List<T> query(String name, String sql, SqlParameterSource params, RowMapper<T> rowMapper) {
+        return timed(name, sql, params, () -> jdbc.query(sql, params, rowMapper), List::size);
+    }
+
+    public void query(String name, String sql, SqlParameterSource params, RowCallbackHandler handler) {
+        int[] rows = new int[1];
+        timed(name, sql, params, () -> {
+            jdbc.query(sql, params, (RowCallbackHandler) rs -> {
+                rows[0]++;
+                handler.processRow(rs);
+            });
+            return rows;
+        }, r -> r[0]);
+    }
+
+    public <T> List<T> queryForList(String name, String sql, SqlParameterSource params, Class<T> elementType) {
+        return timed(name, sql, params, () -> jdbc.queryForList(sql, params, elementType), List::size);
+    }
+
+    public <T> T queryForObject(String name, String sql, SqlParameterSource params, Class<T> requiredType) {
+        return timed(name, sql, params, () -> jdbc.queryForObject(sql, params, requiredType), r -> 1);
+    }
+
+    private <R> R timed(String name, String sql, SqlParameterSource params, Supplier<R> query,
+                        ToIntFunction<R> rowCount) {
+        Meters m = meters.computeIfAbsent(name, this::register);
+        long start = System.nanoTime();
+        R result;
+        try {
+            result = query.get();
+        } catch (DataAccessException e) {
+            m.failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        long elapsed = System.nanoTime() - start;
+        m.succeeded.record(elapsed, TimeUnit.NANOSECONDS);
+        m.rows.record(rowCount.applyAsInt(result));
+        if (elapsed >= slowThreshold.toNanos()) {
+            slow(name, sql, params, elapsed);
+        }
+        return result;
+    }
+
+    private Meters register(String name) {
+        return new Meters(timer(name, "success"), timer(name, "error"),
+            DistributionSummary.builder("umdb.db.query.rows")
+                .description("Rows returned by a named query")
+                .tag("query", name)
+                .register(meterRegistry));
+    }
+
+    private Timer timer(String name, String outcome) {
+        return Timer.builder("umdb.db.query")
+            .description("Time taken by a named query, including reading its rows")
+            .tag("query", name)
+            .tag("outcome", outcome)
+            .register(meterRegistry);
+    }
+
+    private void slow(String name, String sql, SqlParameterSource params, long elapsedNanos) {
+        long millis = TimeUnit.NANOSECONDS.toMillis(elapsedNanos);
+        String values = describe(params);
+        long now = System.nanoTime();
+        boolean due = explain && lastExplained.compute(name, (k, last) ->
+            last == null || now - last >= explainInterval.toNanos() ? now : last) == now;
+        if (!due) {
+            log.warn("Slow query {} took {} ms with {}", name, millis, values);
+            return;
+        }
+        try {
+            explainExecutor.execute(() -> explain(name, sql, params, millis, values));
+        } catch (RejectedExecutionException e) {
+            log.warn("Slow query {} took {} ms with {}", name, millis, values);
+        }
+    }
+
+    private void explain(String name, String sql, SqlParameterSource params, long millis, String values) {
+        try {
+            String plan = transactionTemplate.execute(status -> {
+                jdbc.getJdbcTemplate().queryForObject("select set_config('statement_timeout', ?, true)",
+                    String.class, Long.toString(explainTimeout.toMillis()));
+                return String.join("\n",
+                    jdbc.queryForList("explain (analyze, buffers) " + sql, params, String.class));
+            });
+            log.warn("Slow query {} took {} ms with {}, plan when run again:\n{}", name, millis, values, plan);
+        } catch (DataAccessException e) {
+            log.warn("Slow query {} took {} ms with {}, explain failed: {}", name, millis, values,
+                e.getMostSpecificCause().getMessage());
+        }
+    }
+
+    private static String describe(SqlParameterSource params) {
+        String[] names = params.getParameterNames();
+        if (names == null) {
+            return "no parameters";
+        }
+        StringJoiner joiner = new StringJoiner(", ", "{", "}");
+        for (String param : names) {
+            Object value = params.getValue(param);
+            String text = switch (value) {
+                case long[] a -> Arrays.toString(a);
+                case int[] a -> Arrays.toString(a);
+                case float[] a -> Arrays.toString(a);
+                case Object[] a -> Arrays.toString(a);
+                case null -> "null";
+                default -> value.toString();
+            };
+            if (text.length() > MAX_LOGGED_VALUE_LENGTH) {
+                text = text.substring(0, MAX_LOGGED_VALUE_LENGTH) + "... (" + text.length() + " chars)";
+            }
+            joiner.add(param + "=" + text);
+        }
+        return joiner.toString();
+    }
+
+    private record Meters(Timer succeeded, Timer failed, DistributionSummary rows) {}
+}
@@ -0,0 +1,36 @@
+package com.umdb.service;
+
+import com.umdb.dto.TitleCardDto;
+import com.umdb.model.TitleType;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+
+/**
+ * Maps the card columns ({@code id, type, title, overview, release_date, rating, rating_count,
+ * popularity, poster_url, backdrop_url}) shared by the raw SQL queries over {@code titles}.
+ */
+public final class TitleCardRowMapper implements RowMapper<TitleCardDto> {
+    public static final TitleCardRowMapper INSTANCE = new TitleCardRowMapper();
+
+    private TitleCardRowMapper() {}
+
+    @Override
+    public TitleCardDto mapRow(ResultSet rs, int rowNum) throws SQLException {
+        String type = rs.getString("type");
+        return TitleCardDto.builder()
+            .id(rs.getLong("id"))
+            .type(type != null ? TitleType.valueOf(type) : null)
+            .title(rs.getString("title"))
+            .overview(rs.getString("overview"))
+            .releaseDate(rs.getObject("release_date", LocalDate.class))
+            .rating(rs.getObject("rating", Double.class))
+            .ratingCount(rs.getObject("rating_count", Integer.class))
+            .popularity(rs.getObject("popularity", Double.class))
+            .posterUrl(rs.getString("poster_url"))
+            .backdropUrl(rs.getString("backdrop_url"))
+            .build();
+    }
+}
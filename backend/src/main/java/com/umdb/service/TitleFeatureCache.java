@@ -0,0 +1,79 @@
+package com.umdb.service;
+
+import com.umdb.model.TitleType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Holds the current {@link TitleFeatures} for reranking, rebuilt in the background whenever
+ * the {@link CatalogVersion} moves. Popularity, genres and posters changed in between are only
+ * picked up with the next catalog version.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TitleFeatureCache {
+    private static final int LOAD_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+
+    private volatile TitleFeatures features;
+    private volatile long loadedCatalog = -1;
+
+    public TitleFeatures get() {
+        TitleFeatures current = features;
+        if (current == null) {
+            // Only hit before the first scheduled load has finished.
+            current = reload();
+        }
+        return current;
+    }
+
+    @Scheduled(fixedDelayString = "${app.recommendations.features.refresh-interval:PT1M}")
+    public void refresh() {
+        try {
+            long catalog = catalogVersion.current();
+            if (features == null || catalog != loadedCatalog) {
+                reload();
+                loadedCatalog = catalog;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Title features reload failed, keeping previous features", e);
+        }
+    }
+
+    public synchronized TitleFeatures reload() {
+        long start = System.nanoTime();
+        TitleFeatures.Builder builder = TitleFeatures.builder();
+        // Streaming with a fetch size needs a transaction on Postgres
+        transactionTemplate.execute(status -> {
+            JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+            streaming.setFetchSize(LOAD_FETCH_SIZE);
+            streaming.query("""
+                select id, type, popularity, poster_url is not null as has_poster
+                from titles
+                """, (RowCallbackHandler) rs -> builder.title(
+                rs.getLong("id"),
+                TitleType.valueOf(rs.getString("type")),
+                rs.getObject("popularity", Double.class),
+                rs.getBoolean("has_poster")));
+            streaming.query("select title_id, genre_id from title_genres",
+                (RowCallbackHandler) rs -> builder.genre(rs.getLong("title_id"), rs.getLong("genre_id")));
+            return null;
+        });
+        TitleFeatures loaded = builder.build();
+        features = loaded;
+        log.debug("Title features loaded in {} ms",
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        return loaded;
+    }
+}
@@ -0,0 +1,157 @@
+package com.umdb.service;
+
+import com.umdb.model.TitleType;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Immutable per-title ranking features in flat arrays indexed by title id: genre bitsets, type,
+ * poster presence and popularity, plus the catalog's maximum popularity.
+ */
+public final class TitleFeatures {
+    private static final byte ABSENT = -1;
+
+    private final int words;
+    private final long[] genreMasks;
+    private final double[] popularity;
+    private final byte[] types;
+    private final boolean[] posters;
+    private final double maxPopularity;
+
+    private TitleFeatures(int words, long[] genreMasks, double[] popularity, byte[] types,
+                          boolean[] posters, double maxPopularity) {
+        this.words = words;
+        this.genreMasks = genreMasks;
+        this.popularity = popularity;
+        this.types = types;
+        this.posters = posters;
+        this.maxPopularity = maxPopularity;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public boolean contains(long id) {
+        return id >= 0 && id < types.length && types[(int) id] != ABSENT;
+    }
+
+    /** Type ordinal, or -1 for unknown ids. */
+    public int type(long id) {
+        return contains(id) ? types[(int) id] : ABSENT;
+    }
+
+    public boolean hasPoster(long id) {
+        return contains(id) && posters[(int) id];
+    }
+
+    /** Popularity, NaN when unknown. */
+    public double popularity(long id) {
+        return contains(id) ? popularity[(int) id] : Double.NaN;
+    }
+
+    /** Maximum popularity across the catalog, NaN when no title has one. */
+    public double maxPopularity() {
+        return maxPopularity;
+    }
+
+    /** Jaccard similarity of the genre sets of two titles, 0 when both are empty. */
+    public double genreJaccard(long a, long b) {
+        if (!contains(a) || !contains(b)) {
+            return 0;
+        }
+        int offsetA = (int) a * words;
+        int offsetB = (int) b * words;
+        int shared = 0;
+        int union = 0;
+        for (int w = 0; w < words; w++) {
+            long maskA = genreMasks[offsetA + w];
+            long maskB = genreMasks[offsetB + w];
+            shared += Long.bitCount(maskA & maskB);
+            union += Long.bitCount(maskA | maskB);
+        }
+        return union == 0 ? 0 : (double) shared / union;
+    }
+
+    public static final class Builder {
+        private static final int INITIAL_CAPACITY = 1024;
+
+        private double[] popularity = new double[INITIAL_CAPACITY];
+        private byte[] types = filled(INITIAL_CAPACITY);
+        private boolean[] posters = new boolean[INITIAL_CAPACITY];
+        private final Map<Long, Integer> genreBits = new HashMap<>();
+        private long[] genrePairs = new long[INITIAL_CAPACITY];
+        private int genrePairCount;
+        private int maxId = -1;
+        private double maxPopularity = Double.NaN;
+
+        private Builder() {}
+
+        public Builder title(long id, TitleType type, Double titlePopularity, boolean hasPoster) {
+            int index = index(id);
+            ensureCapacity(index);
+            types[index] = (byte) (type != null ? type.ordinal() : TitleType.values().length);
+            popularity[index] = titlePopularity != null ? titlePopularity : Double.NaN;
+            posters[index] = hasPoster;
+            maxId = Math.max(maxId, index);
+            if (titlePopularity != null
+                && (Double.isNaN(maxPopularity) || titlePopularity > maxPopularity)) {
+                maxPopularity = titlePopularity;
+            }
+            return this;
+        }
+
+        public Builder genre(long titleId, long genreId) {
+            int bit = genreBits.computeIfAbsent(genreId, g -> genreBits.size());
+            if (genrePairCount + 2 > genrePairs.length) {
+                genrePairs = Arrays.copyOf(genrePairs, genrePairs.length * 2);
+            }
+            genrePairs[genrePairCount++] = index(titleId);
+            genrePairs[genrePairCount++] = bit;
+            return this;
+        }
+
+        public TitleFeatures build() {
+            int size = maxId + 1;
+            int words = Math.max(1, (genreBits.size() + 63) / 64);
+            long[] masks = new long[size * words];
+            for (int i = 0; i < genrePairCount; i += 2) {
+                int title = (int) genrePairs[i];
+                int bit = (int) genrePairs[i + 1];
+                // Genres of titles added after the titles were read are ignored
+                if (title < size) {
+                    masks[title * words + bit / 64] |= 1L << (bit % 64);
+                }
+            }
+            return new TitleFeatures(words, masks, Arrays.copyOf(popularity, size),
+                Arrays.copyOf(types, size), Arrays.copyOf(posters, size), maxPopularity);
+        }
+
+        private void ensureCapacity(int index) {
+            if (index < types.length) {
+                return;
+            }
+            int capacity = Math.max(index + 1, types.length * 2);
+            popularity = Arrays.copyOf(popularity, capacity);
+            posters = Arrays.copyOf(posters, capacity);
+            byte[] grown = filled(capacity);
+            System.arraycopy(types, 0, grown, 0, types.length);
+            types = grown;
+        }
+
+        private static byte[] filled(int capacity) {
+            byte[] values = new byte[capacity];
+            Arrays.fill(values, ABSENT);
+            return values;
+        }
+
+        private static int index(long id) {
+            if (id < 0 || id >= Integer.MAX_VALUE / 2) {
+                throw new IllegalStateException("Title id out of feature range: " + id);
+            }
+            return (int) id;
+        }
+    }
+}
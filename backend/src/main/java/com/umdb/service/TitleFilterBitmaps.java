@@ -0,0 +1,258 @@
+package com.umdb.service;
+
+import com.umdb.dto.GenreMatch;
+import com.umdb.dto.SearchRequestDto;
+import com.umdb.model.TitleType;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IntSummaryStatistics;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable compressed bitmaps of title ids per genre, type, release year and rating bucket.
+ *
+ * <p>{@link #matching(SearchRequestDto)} turns the structured search filters into unions and
+ * intersections of these bitmaps. Ratings are bucketed by tenths, so the result is a superset of
+ * the titles matching the exact rating predicates; everything else is exact.
+ */
+public final class TitleFilterBitmaps {
+    private static final TitleType[] TYPES = TitleType.values();
+    private static final int RATING_BUCKETS = 101;
+
+    private final RoaringBitmap all;
+    private final Map<Long, RoaringBitmap> genres;
+    private final RoaringBitmap[] types;
+    private final int firstYear;
+    private final RoaringBitmap[] years;
+    private final RoaringBitmap[] ratings;
+    private final long maxId;
+
+    private TitleFilterBitmaps(Builder builder) {
+        this.all = builder.all;
+        this.genres = Map.copyOf(builder.genres);
+        this.types = builder.types;
+        IntSummaryStatistics yearRange = builder.years.keySet().stream()
+            .mapToInt(Integer::intValue).summaryStatistics();
+        boolean hasYears = yearRange.getCount() > 0;
+        this.firstYear = hasYears ? yearRange.getMin() : 0;
+        this.years = new RoaringBitmap[hasYears ? yearRange.getMax() - firstYear + 1 : 0];
+        builder.years.forEach((year, ids) -> years[year - firstYear] = ids);
+        this.ratings = builder.ratings;
+        this.maxId = builder.maxId;
+        for (RoaringBitmap bitmap : bitmaps()) {
+            bitmap.runOptimize();
+        }
+    }
+
+    private TitleFilterBitmaps(TitleFilterBitmaps base, RoaringBitmap[] ratings) {
+        this.all = base.all;
+        this.genres = base.genres;
+        this.types = base.types;
+        this.firstYear = base.firstYear;
+        this.years = base.years;
+        this.ratings = ratings;
+        this.maxId = base.maxId;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /** Highest indexed title id; titles created after the build have larger ids. */
+    public long maxId() {
+        return maxId;
+    }
+
+    public int size() {
+        return all.getCardinality();
+    }
+
+    public long sizeInBytes() {
+        long bytes = 0;
+        for (RoaringBitmap bitmap : bitmaps()) {
+            bytes += bitmap.getLongSizeInBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * A copy with the given titles moved to the rating buckets of their new ratings, sharing
+     * every bitmap it does not change. Titles not indexed here are ignored.
+     */
+    public TitleFilterBitmaps withRatings(Map<Long, Double> changed) {
+        RoaringBitmap[] updated = ratings.clone();
+        boolean[] copied = new boolean[RATING_BUCKETS];
+        for (Map.Entry<Long, Double> entry : changed.entrySet()) {
+            long id = entry.getKey();
+            if (id < 0 || id > maxId || !all.contains((int) id)) {
+                continue;
+            }
+            int key = (int) id;
+            for (int bucket = 0; bucket < RATING_BUCKETS; bucket++) {
+                if (updated[bucket] != null && updated[bucket].contains(key)) {
+                    copy(updated, copied, bucket).remove(key);
+                    break;
+                }
+            }
+            if (entry.getValue() != null) {
+                copy(updated, copied, ratingBucket(entry.getValue())).add(key);
+            }
+        }
+        return new TitleFilterBitmaps(this, updated);
+    }
+
+    private static RoaringBitmap copy(RoaringBitmap[] buckets, boolean[] copied, int bucket) {
+        if (!copied[bucket]) {
+            buckets[bucket] = buckets[bucket] != null ? buckets[bucket].clone() : new RoaringBitmap();
+            copied[bucket] = true;
+        }
+        return buckets[bucket];
+    }
+
+    /** Whether the request has any filter these bitmaps can evaluate. */
+    public static boolean applies(SearchRequestDto req) {
+        return (req.getGenreIds() != null && !req.getGenreIds().isEmpty())
+            || req.getType() != null
+            || req.getYearFrom() != null || req.getYearTo() != null
+            || req.getMinRating() != null || req.getMaxRating() != null;
+    }
+
+    /** Candidate ids for the request's filters. The returned bitmap is owned by the caller. */
+    public RoaringBitmap matching(SearchRequestDto req) {
+        List<RoaringBitmap> terms = new ArrayList<>();
+
+        Set<Long> genreIds = new LinkedHashSet<>();
+        if (req.getGenreIds() != null) {
+            req.getGenreIds().stream().filter(Objects::nonNull).forEach(genreIds::add);
+        }
+        if (!genreIds.isEmpty()) {
+            List<RoaringBitmap> perGenre = new ArrayList<>(genreIds.size());
+            for (Long genreId : genreIds) {
+                RoaringBitmap ids = genres.get(genreId);
+                if (ids != null) {
+                    perGenre.add(ids);
+                } else if (req.getGenreMatch() != GenreMatch.ANY) {
+                    return new RoaringBitmap();
+                }
+            }
+            if (perGenre.isEmpty()) {
+                return new RoaringBitmap();
+            }
+            terms.add(req.getGenreMatch() == GenreMatch.ANY
+                ? FastAggregation.or(perGenre.iterator())
+                : FastAggregation.and(perGenre.iterator()));
+        }
+
+        if (req.getType() != null) {
+            terms.add(types[req.getType().ordinal()]);
+        }
+
+        if (req.getYearFrom() != null || req.getYearTo() != null) {
+            int from = Math.max(req.getYearFrom() != null ? req.getYearFrom() : firstYear, firstYear);
+            int to = Math.min(req.getYearTo() != null ? req.getYearTo() : Integer.MAX_VALUE,
+                firstYear + years.length - 1);
+            terms.add(union(years, from - firstYear, to - firstYear));
+        }
+
+        if (req.getMinRating() != null || req.getMaxRating() != null) {
+            int from = req.getMinRating() != null ? ratingBucket(req.getMinRating()) : 0;
+            int to = req.getMaxRating() != null ? ratingBucket(req.getMaxRating()) : RATING_BUCKETS - 1;
+            terms.add(union(ratings, from, to));
+        }
+
+        if (terms.isEmpty()) {
+            return all.clone();
+        }
+        if (terms.size() == 1) {
+            return terms.get(0).clone();
+        }
+        return FastAggregation.and(terms.iterator());
+    }
+
+    private static RoaringBitmap union(RoaringBitmap[] buckets, int from, int to) {
+        List<RoaringBitmap> selected = new ArrayList<>();
+        for (int i = Math.max(from, 0); i <= Math.min(to, buckets.length - 1); i++) {
+            if (buckets[i] != null) {
+                selected.add(buckets[i]);
+            }
+        }
+        return selected.isEmpty() ? new RoaringBitmap() : FastAggregation.or(selected.iterator());
+    }
+
+    private static int ratingBucket(double rating) {
+        return (int) Math.max(0, Math.min(RATING_BUCKETS - 1, Math.floor(rating * 10)));
+    }
+
+    private List<RoaringBitmap> bitmaps() {
+        List<RoaringBitmap> bitmaps = new ArrayList<>();
+        bitmaps.add(all);
+        bitmaps.addAll(genres.values());
+        for (RoaringBitmap[] group : List.of(types, years, ratings)) {
+            for (RoaringBitmap bitmap : group) {
+                if (bitmap != null) {
+                    bitmaps.add(bitmap);
+                }
+            }
+        }
+        return bitmaps;
+    }
+
+    public static final class Builder {
+        private final RoaringBitmap all = new RoaringBitmap();
+        private final Map<Long, RoaringBitmap> genres = new HashMap<>();
+        private final RoaringBitmap[] types = new RoaringBitmap[TYPES.length];
+        private final Map<Integer, RoaringBitmap> years = new HashMap<>();
+        private final RoaringBitmap[] ratings = new RoaringBitmap[RATING_BUCKETS];
+        private long maxId;
+
+        private Builder() {
+            for (int i = 0; i < types.length; i++) {
+                types[i] = new RoaringBitmap();
+            }
+        }
+
+        public Builder title(long id, TitleType type, LocalDate releaseDate, Double rating) {
+            int key = key(id);
+            all.add(key);
+            maxId = Math.max(maxId, id);
+            if (type != null) {
+                types[type.ordinal()].add(key);
+            }
+            if (releaseDate != null) {
+                years.computeIfAbsent(releaseDate.getYear(), y -> new RoaringBitmap()).add(key);
+            }
+            if (rating != null) {
+                int bucket = ratingBucket(rating);
+                if (ratings[bucket] == null) {
+                    ratings[bucket] = new RoaringBitmap();
+                }
+                ratings[bucket].add(key);
+            }
+            return this;
+        }
+
+        public Builder genre(long titleId, long genreId) {
+            genres.computeIfAbsent(genreId, g -> new RoaringBitmap()).add(key(titleId));
+            return this;
+        }
+
+        public TitleFilterBitmaps build() {
+            return new TitleFilterBitmaps(this);
+        }
+
+        private static int key(long id) {
+            if (id < 0 || id > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Title id out of bitmap range: " + id);
+            }
+            return (int) id;
+        }
+    }
+}
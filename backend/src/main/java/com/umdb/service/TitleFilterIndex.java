@@ -0,0 +1,109 @@
+package com.umdb.service;
+
+import com.umdb.model.TitleType;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Holds the current {@link TitleFilterBitmaps}, rebuilt in the background from {@code titles} and
+ * {@code title_genres} whenever the {@link CatalogVersion} moves. Ratings also change with
+ * reviews, so {@link RatingAggregator} moves the titles it updates between rating buckets.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TitleFilterIndex {
+    private static final int LOAD_FETCH_SIZE = 10_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+
+    /** Keeps rating changes from being lost to a rebuild that read the old ratings. */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private volatile TitleFilterBitmaps bitmaps;
+    private volatile long indexedCatalog = -1;
+
+    @Value("${app.search.filter-index.enabled:true}")
+    private boolean enabled;
+
+    /** The loaded bitmaps, or null before the first build or when disabled. */
+    public TitleFilterBitmaps current() {
+        return bitmaps;
+    }
+
+    @Scheduled(fixedDelayString = "${app.search.filter-index.refresh-interval:PT1M}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long catalog = catalogVersion.current();
+            if (bitmaps == null || catalog != indexedCatalog) {
+                rebuild();
+                indexedCatalog = catalog;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Title filter bitmaps rebuild failed, keeping previous bitmaps", e);
+        }
+    }
+
+    /** Applies ratings committed by a rating flush. */
+    public void ratingsChanged(Map<Long, Double> ratings) {
+        lock.lock();
+        try {
+            TitleFilterBitmaps current = bitmaps;
+            if (current != null) {
+                bitmaps = current.withRatings(ratings);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void rebuild() {
+        lock.lock();
+        try {
+            build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void build() {
+        long start = System.nanoTime();
+        TitleFilterBitmaps.Builder builder = TitleFilterBitmaps.builder();
+        // Streaming with a fetch size needs a transaction on Postgres
+        transactionTemplate.execute(status -> {
+            JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+            streaming.setFetchSize(LOAD_FETCH_SIZE);
+            streaming.query("select id, type, release_date, rating from titles", rs -> {
+                String type = rs.getString("type");
+                builder.title(
+                    rs.getLong("id"),
+                    type != null ? TitleType.valueOf(type) : null,
+                    rs.getObject("release_date", LocalDate.class),
+                    rs.getObject("rating", Double.class));
+            });
+            streaming.query("select title_id, genre_id from title_genres",
+                (RowCallbackHandler) rs -> builder.genre(rs.getLong("title_id"), rs.getLong("genre_id")));
+            return null;
+        });
+        TitleFilterBitmaps built = builder.build();
+        bitmaps = built;
+        log.info("Title filter bitmaps built: {} titles, {} KiB in {} ms", built.size(),
+            built.sizeInBytes() / 1024, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+}
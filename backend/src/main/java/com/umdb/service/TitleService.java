@@ -1,25 +1,33 @@
 package com.umdb.service;
 
+import com.umdb.config.CacheConfig;
+import com.umdb.dto.ReviewDto;
+import com.umdb.dto.ReviewStatsDto;
 import com.umdb.dto.TitleCardDto;
 import com.umdb.dto.TitleDetailDto;
 import com.umdb.exception.NotFoundException;
-import com.umdb.model.Title;
 import com.umdb.model.TitleType;
 import com.umdb.repository.TitleRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.EmptySqlParameterSource;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class TitleService {
     private final TitleRepository titleRepository;
     private final TitleMapper mapper;
+    private final TitleDetailLoader titleDetailLoader;
     private final ReviewService reviewService;
-    private final JdbcTemplate jdbcTemplate;
+    private final TimedQueries queries;
+    private final CacheManager cacheManager;
+    private final Fanout fanout;
 
     public List<TitleCardDto> getTrending(int limit) {
         return titleRepository.findTrending(null, PageRequest.of(0, limit))
@@ -59,7 +67,8 @@ public class TitleService {
                    and n.nspname = current_schema())
             )
             """;
-        Number estimate = jdbcTemplate.queryForObject(sql, Number.class);
+        Number estimate = queries.queryForObject("titles.estimated-count", sql,
+            EmptySqlParameterSource.INSTANCE, Number.class);
         if (estimate == null) {
             return 0L;
         }
@@ -67,9 +76,32 @@ public class TitleService {
         return Math.max(0L, rounded);
     }
 
+    /**
+     * Title details from the {@code titleDetails} cache plus the recent reviews, which are cached
+     * separately so a new review does not evict the details, and the review counts. The three
+     * are read concurrently through {@link Fanout}.
+     */
     public TitleDetailDto getDetail(Long id) {
-        Title title = titleRepository.findDetailById(id)
-            .orElseThrow(() -> new NotFoundException("Title not found"));
-        return mapper.toDetail(title, reviewService.getRecentReviews(id, 2));
+        try (Fanout.Scope scope = fanout.open()) {
+            Supplier<TitleDetailDto> detail = scope.fork(() -> getCachedDetail(id));
+            Supplier<List<ReviewDto>> recentReviews = scope.fork(() -> reviewService.getRecentReviews(id, 2));
+            Supplier<ReviewStatsDto> reviewStats = scope.fork(() -> reviewService.getReviewStats(id));
+            scope.join();
+            return detail.get().toBuilder()
+                .recentReviews(recentReviews.get())
+                .reviewStats(reviewStats.get())
+                .build();
+        }
+    }
+
+    private TitleDetailDto getCachedDetail(Long id) {
+        Cache details = cacheManager.getCache(CacheConfig.TITLE_DETAILS);
+        TitleDetailDto detail = details.get(id, TitleDetailDto.class);
+        if (detail == null) {
+            detail = titleDetailLoader.load(id)
+                .orElseThrow(() -> new NotFoundException("Title not found"));
+            details.put(id, detail);
+        }
+        return detail;
     }
 }
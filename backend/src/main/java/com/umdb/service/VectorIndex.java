@@ -0,0 +1,93 @@
+package com.umdb.service;
+
+/**
+ * Nearest-neighbour search over an {@link EmbeddingStore}: exact SIMD brute force, or an
+ * {@link HnswGraph} when one has been built for the store. Distances are cosine distances, as
+ * returned by pgvector's {@code <=>}.
+ */
+public final class VectorIndex {
+    private static final int BLOCK_VECTORS = 256;
+
+    private final EmbeddingStore store;
+    private final HnswGraph graph;
+    private final int efSearch;
+    private final VectorMath math = VectorMath.get();
+
+    public VectorIndex(EmbeddingStore store, HnswGraph graph, int efSearch) {
+        this.store = store;
+        this.graph = graph;
+        this.efSearch = efSearch;
+    }
+
+    public EmbeddingStore store() {
+        return store;
+    }
+
+    public boolean approximate() {
+        return graph != null;
+    }
+
+    public boolean contains(long id) {
+        return store.indexOf(id) >= 0;
+    }
+
+    /**
+     * Up to {@code k} titles closest to title {@code id}, itself included, in ascending distance
+     * order. Returns the number written to {@code ids} and {@code distances}, or -1 when the
+     * title has no embedding in the store.
+     */
+    public int nearest(long id, int k, long[] ids, double[] distances) {
+        return graph != null ? nearestApproximate(id, k, ids, distances) : nearestExact(id, k, ids, distances);
+    }
+
+    /** As {@link #nearest}, always scanning every vector. */
+    public int nearestExact(long id, int k, long[] ids, double[] distances) {
+        int index = store.indexOf(id);
+        if (index < 0) {
+            return -1;
+        }
+        int dimensions = store.dimensions();
+        float[] query = new float[dimensions];
+        store.read(index, query, 0);
+
+        NodeHeap best = new NodeHeap(k + 1, true);
+        int blockVectors = Math.min(BLOCK_VECTORS, store.size());
+        float[] block = new float[blockVectors * dimensions];
+        for (int first = 0; first < store.size(); first += blockVectors) {
+            int count = Math.min(blockVectors, store.size() - first);
+            store.readBlock(first, count, block, 0);
+            for (int i = 0; i < count; i++) {
+                float distance = 1 - math.dot(query, 0, block, i * dimensions, dimensions);
+                if (best.size() < k) {
+                    best.push(first + i, distance);
+                } else if (distance < best.topDistance()) {
+                    best.pop();
+                    best.push(first + i, distance);
+                }
+            }
+        }
+        int count = best.size();
+        for (int i = count - 1; i >= 0; i--) {
+            distances[i] = best.topDistance();
+            ids[i] = store.id(best.pop());
+        }
+        return count;
+    }
+
+    private int nearestApproximate(long id, int k, long[] ids, double[] distances) {
+        int index = store.indexOf(id);
+        if (index < 0) {
+            return -1;
+        }
+        float[] query = new float[store.dimensions()];
+        store.read(index, query, 0);
+        int[] nodes = new int[k];
+        float[] nodeDistances = new float[k];
+        int count = graph.search(query, k, efSearch, nodes, nodeDistances);
+        for (int i = 0; i < count; i++) {
+            ids[i] = store.id(nodes[i]);
+            distances[i] = nodeDistances[i];
+        }
+        return count;
+    }
+}
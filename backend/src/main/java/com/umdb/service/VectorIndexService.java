@@ -0,0 +1,182 @@
+package com.umdb.service;
+
+import com.pgvector.PGvector;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional in-process copy of the title embeddings, so similar titles can be ranked without an
+ * ANN query to pgvector. The embeddings are streamed into a fresh {@link EmbeddingStore} file
+ * when the {@link CatalogVersion} moves and a fingerprint of the embeddings shows they changed,
+ * so catalog loads that leave them alone cost one aggregate over the titles. Small catalogs are
+ * searched exactly; above {@code hnsw-threshold} titles an {@link HnswGraph} is built after the
+ * store is published, and searches stay exact until it is ready.
+ */
+@Slf4j
+@Component
+public class VectorIndexService {
+    private static final int LOAD_FETCH_SIZE = 10_000;
+    private static final long GRAPH_SEED = 42;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final CatalogVersion catalogVersion;
+    private final Timer loadTimer;
+    private final Timer graphTimer;
+
+    @Value("${app.recommendations.vector-index.enabled:false}")
+    private boolean enabled;
+
+    @Value("${app.recommendations.vector-index.directory:${java.io.tmpdir}/umdb-vectors}")
+    private Path directory;
+
+    @Value("${app.recommendations.vector-index.hnsw-threshold:200000}")
+    private int hnswThreshold;
+
+    @Value("${app.recommendations.vector-index.m:16}")
+    private int m;
+
+    @Value("${app.recommendations.vector-index.ef-construction:100}")
+    private int efConstruction;
+
+    @Value("${app.recommendations.vector-index.ef-search:200}")
+    private int efSearch;
+
+    private volatile VectorIndex index;
+    private volatile long indexedCatalog = -1;
+    private volatile String indexedEmbeddings;
+
+    public VectorIndexService(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+                              CatalogVersion catalogVersion, MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.catalogVersion = catalogVersion;
+        this.loadTimer = Timer.builder("umdb.recommendations.vector-index.load")
+            .description("Time taken to copy title embeddings into the local vector store")
+            .register(meterRegistry);
+        this.graphTimer = Timer.builder("umdb.recommendations.vector-index.graph")
+            .description("Time taken to build the HNSW graph over the local vector store")
+            .register(meterRegistry);
+    }
+
+    /** The current index, or null when disabled or not loaded yet. */
+    public VectorIndex current() {
+        return enabled ? index : null;
+    }
+
+    @Scheduled(fixedDelayString = "${app.recommendations.vector-index.refresh-interval:PT10M}")
+    public void refresh() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long catalog = catalogVersion.current();
+            if (index != null && catalog == indexedCatalog) {
+                return;
+            }
+            String embeddings = fingerprint();
+            if (index != null && embeddings.equals(indexedEmbeddings)) {
+                indexedCatalog = catalog;
+                return;
+            }
+            long start = System.nanoTime();
+            Path file = directory.resolve("embeddings-%d.bin".formatted(System.currentTimeMillis()));
+            EmbeddingStore store = load(file);
+            if (store == null) {
+                return;
+            }
+            long elapsed = System.nanoTime() - start;
+            loadTimer.record(elapsed, TimeUnit.NANOSECONDS);
+            log.info("Vector store loaded: {} embeddings of {} dimensions in {} ms",
+                store.size(), store.dimensions(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+
+            publish(new VectorIndex(store, null, efSearch), catalog, embeddings);
+            if (store.size() >= hnswThreshold) {
+                start = System.nanoTime();
+                HnswGraph graph = HnswGraph.build(store, m, efConstruction, GRAPH_SEED);
+                elapsed = System.nanoTime() - start;
+                graphTimer.record(elapsed, TimeUnit.NANOSECONDS);
+                index = new VectorIndex(store, graph, efSearch);
+                log.info("HNSW graph built over {} embeddings in {} ms",
+                    store.size(), TimeUnit.NANOSECONDS.toMillis(elapsed));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Vector index refresh failed, keeping previous index", e);
+        }
+    }
+
+    /**
+     * Title count, highest id and latest embedding version. Every embedding write draws a new
+     * version, so only deletions leave the last one in place, and those change the count.
+     */
+    private String fingerprint() {
+        return jdbcTemplate.queryForObject("""
+            select count(*) || ':' || coalesce(max(id), 0) || ':' || coalesce(max(embedding_version), 0)
+            from titles
+            """, String.class);
+    }
+
+    private void publish(VectorIndex built, long catalog, String embeddings) {
+        index = built;
+        indexedCatalog = catalog;
+        indexedEmbeddings = embeddings;
+        // Mappings stay valid after the file is unlinked, so in-flight searches are safe. This
+        // also clears stores left behind by earlier runs.
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "embeddings-*.bin")) {
+            for (Path file : files) {
+                if (!file.equals(built.store().file())) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete old vector stores in {}", directory, e);
+        }
+    }
+
+    private EmbeddingStore load(Path file) {
+        // Streaming with a fetch size needs a transaction on Postgres
+        return transactionTemplate.execute(status -> {
+            JdbcTemplate streaming = new JdbcTemplate(jdbcTemplate.getDataSource());
+            streaming.setFetchSize(LOAD_FETCH_SIZE);
+            return load(streaming, file);
+        });
+    }
+
+    /** Copies every title embedding into a new store at {@code file}, or null when there are none. */
+    public static EmbeddingStore load(JdbcTemplate jdbcTemplate, Path file) {
+        EmbeddingStore.Writer[] writer = new EmbeddingStore.Writer[1];
+        try {
+            jdbcTemplate.query("""
+                select id, embedding::text
+                from titles
+                where embedding is not null
+                order by id
+                """, (RowCallbackHandler) rs -> {
+                float[] vector = new PGvector(rs.getString(2)).toArray();
+                if (writer[0] == null) {
+                    writer[0] = EmbeddingStore.writer(file, vector.length);
+                }
+                writer[0].add(rs.getLong(1), vector);
+            });
+        } catch (RuntimeException e) {
+            if (writer[0] != null) {
+                writer[0].abort();
+            }
+            throw e;
+        }
+        return writer[0] != null ? writer[0].finish() : null;
+    }
+}
@@ -0,0 +1,36 @@
+package com.umdb.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Dot products over flat float arrays. {@link #get()} uses the {@code jdk.incubator.vector} SIMD
+ * implementation when the JVM was started with {@code --add-modules jdk.incubator.vector} and a
+ * plain loop otherwise.
+ */
+interface VectorMath {
+    float dot(float[] a, int aOffset, float[] b, int bOffset, int length);
+
+    static VectorMath get() {
+        return Holder.INSTANCE;
+    }
+
+    @Slf4j
+    final class Holder {
+        private static final VectorMath INSTANCE = select();
+
+        private Holder() {}
+
+        private static VectorMath select() {
+            if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+                try {
+                    // Loaded reflectively so the incubator classes are only linked when present
+                    return (VectorMath) Class.forName("com.umdb.service.SimdVectorMath")
+                        .getDeclaredConstructor().newInstance();
+                } catch (ReflectiveOperationException | LinkageError e) {
+                    log.warn("SIMD vector math unavailable, using scalar fallback", e);
+                }
+            }
+            return new ScalarVectorMath();
+        }
+    }
+}
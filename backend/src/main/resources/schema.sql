@@ -1,4 +1,5 @@
 create extension if not exists vector;
+create extension if not exists pg_trgm;
 
 create or replace function immutable_text_vector(text_value text)
     returns tsvector
@@ -7,27 +8,61 @@ create or replace function immutable_text_vector(text_value text)
 as
 'select to_tsvector(''simple'', coalesce(text_value, ''''))';
 
+-- Rating of a title without any votes, and the prior of rating_weighted
+create or replace function rating_prior()
+    returns double precision
+    language sql
+    immutable
+as
+'select 6.5';
+
+-- Average rating with added_count votes summing to added_sum folded in, negative to take them out
+create or replace function fold_rating(rating double precision, rating_count integer,
+                                       added_sum double precision, added_count bigint)
+    returns double precision
+    language sql
+    immutable
+as
+'select case when rating_count + added_count > 0
+             then (rating * rating_count + added_sum) / (rating_count + added_count)
+             else rating_prior() end';
+
+-- Drawn whenever a title's embedding is written, see titles.embedding_version
+create sequence if not exists title_embedding_versions;
+
 create table if not exists titles
 (
-    id              bigserial primary key,
-    type            varchar(16)      not null,
-    title           text             not null,
-    overview        text,
-    release_date    date,
-    runtime_minutes integer,
-    season_count    integer,
-    rating          double precision not null default 6.5,
-    rating_count    integer          not null default 0,
-    rating_weighted double precision generated always as ( -- Bayesian average with 6.5 as prior
-        (rating_count * rating + 50.0 * 6.5) / (rating_count + 50.0)) stored,
-    popularity      double precision,
-    poster_url      text,
-    backdrop_url    text,
-    embedding       vector(256) not null default (array_fill(0::real, ARRAY[256])::vector),
-    title_vector    tsvector generated always as (immutable_text_vector(title)) stored,
-    overview_vector tsvector generated always as (immutable_text_vector(overview)) stored
+    id                bigserial primary key,
+    tmdb_id           bigint,
+    type              varchar(16)      not null,
+    title             text             not null,
+    overview          text,
+    release_date      date,
+    runtime_minutes   integer,
+    season_count      integer,
+    rating            double precision not null default rating_prior(), -- tmdb_rating with the reviews folded in
+    rating_count      integer          not null default 0,
+    tmdb_rating       double precision not null default rating_prior(), -- as imported
+    tmdb_rating_count integer          not null default 0,
+    rating_weighted   double precision generated always as ( -- Bayesian average towards the prior
+        (rating_count * rating + 50.0 * rating_prior()) / (rating_count + 50.0)) stored,
+    popularity        double precision,
+    poster_url        text,
+    backdrop_url      text,
+    embedding         vector(256) not null default (array_fill(0::real, ARRAY[256])::vector),
+    embedding_version bigint default nextval('title_embedding_versions'), -- CatalogImporter draws a new one on reembedding
+    title_vector      tsvector generated always as (immutable_text_vector(title)) stored,
+    overview_vector   tsvector generated always as (immutable_text_vector(overview)) stored
 );
 
+-- Matches titles to the TMDB data they were imported from, see CatalogImporter.syncDirectory
+alter table titles add column if not exists tmdb_id bigint;
+-- Lets SimilarTitleStore and VectorIndexService see embedding changes without reading embeddings.
+-- Titles from before it have none until reembedded; the default is set apart to avoid a rewrite.
+alter table titles drop column if exists embedding_hash;
+alter table titles add column if not exists embedding_version bigint;
+alter table titles alter column embedding_version set default nextval('title_embedding_versions');
+
 create table if not exists genres
 (
     id   bigserial primary key,
@@ -82,6 +117,148 @@ create table if not exists reviews
     constraint chk_reviews_rating check (rating between 1 and 10)
 );
 
+-- Reviews per title and rating, kept by the triggers below so review counts never scan reviews.
+-- No foreign key: the delete trigger runs while a title's reviews cascade away with it.
+create table if not exists title_review_stats
+(
+    title_id     bigint   not null,
+    rating       smallint not null,
+    review_count integer  not null,
+    primary key (title_id, rating)
+);
+
+create or replace function title_review_stats_apply()
+    returns trigger
+    language plpgsql
+as
+'begin
+    if tg_op = ''INSERT'' then
+        insert into title_review_stats as s (title_id, rating, review_count)
+        select title_id, rating, count(*)
+        from new_reviews
+        group by title_id, rating
+        order by title_id, rating
+        on conflict (title_id, rating) do update set review_count = s.review_count + excluded.review_count;
+    elsif tg_op = ''UPDATE'' then
+        insert into title_review_stats as s (title_id, rating, review_count)
+        select title_id, rating, sum(delta)
+        from (select n.title_id, n.rating, 1 as delta
+              from new_reviews n
+              join old_reviews o on o.id = n.id
+              where o.rating <> n.rating
+              union all
+              select o.title_id, o.rating, -1
+              from new_reviews n
+              join old_reviews o on o.id = n.id
+              where o.rating <> n.rating) d
+        group by title_id, rating
+        order by title_id, rating
+        on conflict (title_id, rating) do update set review_count = s.review_count + excluded.review_count;
+    else
+        update title_review_stats s
+        set review_count = s.review_count - d.removed
+        from (select title_id, rating, count(*) as removed from old_reviews group by title_id, rating) d
+        where s.title_id = d.title_id
+          and s.rating = d.rating;
+    end if;
+    return null;
+end';
+
+create or replace trigger trg_reviews_stats_insert
+    after insert on reviews
+    referencing new table as new_reviews
+    for each statement
+execute function title_review_stats_apply();
+
+create or replace trigger trg_reviews_stats_update
+    after update on reviews
+    referencing old table as old_reviews new table as new_reviews
+    for each statement
+execute function title_review_stats_apply();
+
+create or replace trigger trg_reviews_stats_delete
+    after delete on reviews
+    referencing old table as old_reviews
+    for each statement
+execute function title_review_stats_apply();
+
+-- Backfills the counts of reviews written before the triggers existed
+insert into title_review_stats (title_id, rating, review_count)
+select title_id, rating, count(*)
+from reviews
+where not exists (select 1 from title_review_stats)
+group by title_id, rating;
+
+-- The imported rating, kept apart so RatingAggregator and syncs can recompute rating from it and
+-- title_review_stats. Titles from before it were never rated by their reviews: their rating is
+-- the imported one, and their reviews are folded into it once.
+alter table titles add column if not exists tmdb_rating double precision;
+alter table titles add column if not exists tmdb_rating_count integer;
+update titles t
+set tmdb_rating = t.rating,
+    tmdb_rating_count = t.rating_count,
+    rating = case when r.count = 0 then t.rating else fold_rating(t.rating, t.rating_count, r.sum, r.count) end,
+    rating_count = t.rating_count + r.count
+from (select t.id, coalesce(sum(s.rating * s.review_count), 0) as sum, coalesce(sum(s.review_count), 0) as count
+      from titles t
+      left join title_review_stats s on s.title_id = t.id
+      where t.tmdb_rating is null
+      group by t.id) r
+where t.id = r.id;
+alter table titles
+    alter column rating set default rating_prior(),
+    alter column tmdb_rating set default rating_prior(),
+    alter column tmdb_rating set not null,
+    alter column tmdb_rating_count set default 0,
+    alter column tmdb_rating_count set not null;
+
+create table if not exists title_similar
+(
+    title_id   bigint           not null references titles (id) on delete cascade,
+    rank       smallint         not null,
+    similar_id bigint           not null references titles (id) on delete cascade,
+    score      double precision not null,
+    primary key (title_id, rank)
+);
+
+create table if not exists title_similar_state
+(
+    title_id       bigint primary key references titles (id) on delete cascade,
+    input_hash     text             not null, -- hash of the title's own inputs to the neighbour scores
+    max_popularity double precision,          -- catalog maximum the popularity scores were normalised by
+    computed_at    timestamptz      not null default now()
+);
+
+alter table title_similar_state add column if not exists max_popularity double precision;
+
+-- Filmography per person, denormalized from cast_members and titles by PersonProfileStore
+create table if not exists person_profiles
+(
+    person_id    bigint primary key references people (id) on delete cascade,
+    credit_count integer          not null,
+    popularity   double precision not null, -- summed over the person's titles, ranks search results
+    filmography  jsonb            not null, -- one object per title, newest first
+    computed_at  timestamptz      not null default now()
+);
+
+-- Profiles are found stale through person_profile_changes instead of a hash of their inputs
+alter table person_profiles drop column if exists input_hash;
+
+-- People whose profile inputs a catalog sync changed, drained as PersonProfileStore rebuilds them
+create table if not exists person_profile_changes
+(
+    person_id bigint primary key references people (id) on delete cascade
+);
+
+-- Bumped by catalog imports so running instances drop what they cached of the old catalog, see DataVersion
+create table if not exists data_versions
+(
+    name       text primary key,
+    version    bigint      not null,
+    updated_at timestamptz not null default now()
+);
+
+create unique index if not exists idx_titles_tmdb on titles (type, tmdb_id);
 create index if not exists idx_titles_type on titles (type);
 create index if not exists idx_titles_rating on titles (rating desc);
 create index if not exists idx_titles_popularity_sort on titles (popularity desc nulls last, id);
@@ -89,13 +266,17 @@ create index if not exists idx_titles_release_sort on titles (release_date desc
 create index if not exists idx_titles_rating_weighted_sort on titles (rating_weighted desc nulls last, id);
 create index if not exists idx_titles_title_vector on titles using gin (title_vector) with (fastupdate = off);
 create index if not exists idx_titles_overview_vector on titles using gin (overview_vector) with (fastupdate = off);
-create index if not exists idx_titles_embedding on titles using hnsw (embedding vector_cosine_ops);
+-- The hnsw index on embedding depends on app.recommendations.ann.quantization, see EmbeddingIndexes
 
 create index if not exists idx_title_genres_genre on title_genres (genre_id);
 create index if not exists idx_cast_members_title on cast_members (title_id);
 create index if not exists idx_cast_members_person on cast_members (person_id);
+create index if not exists idx_people_name on people (name, id);
+create index if not exists idx_people_name_trgm on people using gin (name gin_trgm_ops);
+create index if not exists idx_title_similar_similar on title_similar (similar_id);
 
 create index if not exists idx_reviews_user on reviews (user_id);
-create index if not exists idx_reviews_title_updated on reviews (title_id, updated_at desc);
+drop index if exists idx_reviews_title_updated;
+create index if not exists idx_reviews_title_updated_id on reviews (title_id, updated_at desc, id desc);
 
 create unique index if not exists idx_users_email_ci on users (lower(email));
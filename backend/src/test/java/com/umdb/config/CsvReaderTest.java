@@ -0,0 +1,36 @@
+package com.umdb.config;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+    @Test
+    void readsUnquotedEmptyFieldsAsNull() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("id,name,note\n1,,\"\"\n"));
+
+        assertThat(csv.next()).containsExactly("id", "name", "note");
+        assertThat(csv.next()).containsExactly("1", null, "");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void unescapesQuotedFields() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("\"Say \"\"hi\"\", then\nleave\",\"[0.1,0.2]\"\r\n2,x"));
+
+        assertThat(csv.next()).containsExactly("Say \"hi\", then\nleave", "[0.1,0.2]");
+        assertThat(csv.next()).containsExactly("2", "x");
+        assertThat(csv.next()).isNull();
+    }
+
+    @Test
+    void rejectsUnterminatedQuotes() throws IOException {
+        CsvReader csv = new CsvReader(new StringReader("1,\"open"));
+
+        assertThatThrownBy(csv::next).isInstanceOf(IOException.class);
+    }
+}
@@ -0,0 +1,37 @@
+package com.umdb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class RankFusionTest {
+    @Test
+    void ranksIdsFoundByBothLegsFirst() {
+        long[] fused = RankFusion.fuse(60, List.of(
+            new long[] {1, 2, 3},
+            new long[] {3, 1, 4}
+        ));
+
+        assertThat(fused).containsExactly(1, 3, 2, 4);
+    }
+
+    @Test
+    void breaksTiesByBestRankThenId() {
+        long[] fused = RankFusion.fuse(60, List.of(
+            new long[] {5, 8},
+            new long[] {8, 5, 2},
+            new long[] {7, 2}
+        ));
+
+        // 5 and 8 score the same; 7 and 2 score 1 / 61 and 1 / 62 + 1 / 63
+        assertThat(fused).containsExactly(5, 8, 2, 7);
+    }
+
+    @Test
+    void keepsSingleRankingOrder() {
+        assertThat(RankFusion.fuse(60, List.of(new long[] {9, 4, 7}))).containsExactly(9, 4, 7);
+        assertThat(RankFusion.fuse(60, List.of())).isEmpty();
+    }
+}
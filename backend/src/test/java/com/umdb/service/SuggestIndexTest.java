@@ -0,0 +1,76 @@
+package com.umdb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.umdb.dto.SearchSuggestionDto;
+import com.umdb.model.TitleType;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class SuggestIndexTest {
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+    private static final LocalDate RELEASED = LocalDate.of(2020, 1, 1);
+
+    @Test
+    void matchesEveryTokenAsPrefixInPopularityOrder() {
+        SuggestIndex index = SuggestIndex.build(List.of(
+            entry(1, "Star Wars", 50.0),
+            entry(2, "Star Trek", 80.0),
+            entry(3, "Wars of the Stars", 20.0),
+            entry(4, "Starship Troopers", null),
+            entry(5, "Lone Star", 90.0)
+        ));
+
+        assertThat(ids(index.suggest("star", 10, TODAY))).containsExactly(5L, 2L, 1L, 3L, 4L);
+        assertThat(ids(index.suggest("STAR  wa", 10, TODAY))).containsExactly(1L, 3L);
+        assertThat(ids(index.suggest("tr star", 10, TODAY))).containsExactly(2L, 4L);
+        assertThat(ids(index.suggest("star", 2, TODAY))).containsExactly(5L, 2L);
+        assertThat(index.suggest("zzz", 10, TODAY)).isEmpty();
+        assertThat(index.suggest("  ", 10, TODAY)).isEmpty();
+    }
+
+    @Test
+    void skipsUnreleasedTitles() {
+        SuggestIndex index = SuggestIndex.build(List.of(
+            entry(1, "Dune", 10.0),
+            new SuggestIndex.Entry(2, TitleType.MOVIE, "Dune Part Three", TODAY.plusDays(1), null, 99.0),
+            new SuggestIndex.Entry(3, TitleType.MOVIE, "Dune Undated", null, null, 98.0)
+        ));
+
+        List<SearchSuggestionDto> suggestions = index.suggest("dune", 10, TODAY);
+
+        assertThat(ids(suggestions)).containsExactly(1L);
+        assertThat(suggestions.get(0).getTitle()).isEqualTo("Dune");
+        assertThat(suggestions.get(0).getReleaseDate()).isEqualTo(RELEASED);
+    }
+
+    @Test
+    void cachedShortPrefixesContinueWithFullMerge() {
+        List<SuggestIndex.Entry> entries = new ArrayList<>();
+        for (int i = 1; i <= 200; i++) {
+            entries.add(entry(i, "a" + i + " b" + i + " " + (i % 2 == 0 ? "even" : "odd"), (double) i));
+        }
+        // Hot prefixes hold the top 8 ranks once a range has 16+ postings
+        SuggestIndex cached = SuggestIndex.build(entries, 16, 8);
+        SuggestIndex uncached = SuggestIndex.build(entries, Integer.MAX_VALUE, 8);
+
+        for (String query : List.of("a", "b", "a odd", "e a", "a1", "b19")) {
+            assertThat(ids(cached.suggest(query, 50, TODAY)))
+                .as(query)
+                .isEqualTo(ids(uncached.suggest(query, 50, TODAY)));
+        }
+        assertThat(ids(cached.suggest("a odd", 3, TODAY))).containsExactly(199L, 197L, 195L);
+    }
+
+    private static SuggestIndex.Entry entry(long id, String title, Double popularity) {
+        return new SuggestIndex.Entry(id, TitleType.MOVIE, title, RELEASED, "/p/" + id + ".jpg", popularity);
+    }
+
+    private static List<Long> ids(List<SearchSuggestionDto> suggestions) {
+        return suggestions.stream().map(SearchSuggestionDto::getId).toList();
+    }
+}
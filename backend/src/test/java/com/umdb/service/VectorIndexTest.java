@@ -0,0 +1,82 @@
+package com.umdb.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class VectorIndexTest {
+    @TempDir
+    Path directory;
+
+    @Test
+    void storesUnitVectorsByAscendingId() {
+        EmbeddingStore.Writer writer = EmbeddingStore.writer(directory.resolve("store.bin"), 2);
+        writer.add(3, new float[] {3, 4});
+        writer.add(7, new float[] {0, 0});
+        writer.add(9, new float[] {0, -2});
+        EmbeddingStore store = writer.finish();
+
+        assertThat(store.size()).isEqualTo(3);
+        assertThat(store.dimensions()).isEqualTo(2);
+        assertThat(store.indexOf(7)).isEqualTo(1);
+        assertThat(store.indexOf(8)).isEqualTo(-1);
+        float[] vector = new float[2];
+        store.read(0, vector, 0);
+        assertThat(vector).containsExactly(0.6f, 0.8f);
+        store.read(1, vector, 0);
+        assertThat(vector).containsExactly(0f, 0f);
+
+        VectorIndex index = new VectorIndex(EmbeddingStore.open(store.file()), null, 10);
+        long[] ids = new long[3];
+        double[] distances = new double[3];
+        assertThat(index.nearest(3, 3, ids, distances)).isEqualTo(3);
+        assertThat(ids).containsExactly(3, 7, 9);
+        assertThat(distances[0]).isCloseTo(0, within(1e-6));
+        assertThat(distances[1]).isCloseTo(1, within(1e-6));
+        assertThat(distances[2]).isCloseTo(1.8, within(1e-6));
+        assertThat(index.nearest(8, 3, ids, distances)).isEqualTo(-1);
+    }
+
+    @Test
+    void hnswRecallIsCloseToExactSearch() {
+        int dimensions = 32;
+        int titles = 5_000;
+        int k = 10;
+        SplittableRandom random = new SplittableRandom(7);
+        EmbeddingStore.Writer writer = EmbeddingStore.writer(directory.resolve("random.bin"), dimensions);
+        for (int id = 1; id <= titles; id++) {
+            float[] vector = new float[dimensions];
+            for (int d = 0; d < dimensions; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+            writer.add(id, vector);
+        }
+        EmbeddingStore store = writer.finish();
+        VectorIndex index = new VectorIndex(store, HnswGraph.build(store, 16, 100, 42), 64);
+
+        long[] exact = new long[k];
+        long[] approximate = new long[k];
+        double[] distances = new double[k];
+        int found = 0;
+        int queries = 200;
+        for (int q = 0; q < queries; q++) {
+            long id = 1 + random.nextInt(titles);
+            index.nearestExact(id, k, exact, distances);
+            assertThat(exact[0]).isEqualTo(id);
+            assertThat(index.nearest(id, k, approximate, distances)).isEqualTo(k);
+            for (long a : approximate) {
+                for (long e : exact) {
+                    if (a == e) {
+                        found++;
+                    }
+                }
+            }
+        }
+        assertThat((double) found / (queries * k)).isGreaterThan(0.95);
+    }
+}
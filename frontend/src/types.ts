@@ -30,6 +30,7 @@ export interface TitleDetail extends TitleSummary {
   genres?: Genre[]
   cast?: CastMember[]
   recentReviews?: Review[]
+  reviewStats?: ReviewStats
 }
 
 export interface HomeSection {
@@ -44,23 +45,31 @@ export interface HomeResponse {
 
 export type SearchSort = 'NEWEST' | 'POPULAR' | 'RATING'
 
+export type GenreMatch = 'ALL' | 'ANY'
+
+export type SearchMode = 'KEYWORD' | 'HYBRID'
+
 export interface SearchPayload {
   query?: string | null
   type?: TitleType | null
   yearFrom?: number | null
   yearTo?: number | null
   genreIds?: number[] | null
+  genreMatch?: GenreMatch | null
   minRating?: number | null
   maxRating?: number | null
   sort?: SearchSort | null
+  mode?: SearchMode | null
   limit?: number
   offset?: number
+  cursor?: string | null
 }
 
 export interface SearchResponse {
   items: TitleSummary[]
   total?: number
   totalCapped?: boolean
+  nextCursor?: string | null
 }
 
 export interface SuggestionItem {
@@ -79,10 +88,11 @@ export interface Person {
 
 export interface PeopleResponse {
   items: Person[]
-  total: number
-  page: number
+  total?: number | null
+  page?: number | null
   size: number
-  totalPages: number
+  totalPages?: number | null
+  nextCursor?: string | null
 }
 
 export interface User {
@@ -105,6 +115,16 @@ export interface Review {
   userName?: string | null
 }
 
+export interface ReviewPage {
+  items: Review[]
+  nextCursor?: string | null
+}
+
+export interface ReviewStats {
+  count: number
+  ratingCounts: number[]
+}
+
 export interface ReviewPayload {
   rating: number
   review: string
@@ -0,0 +1,120 @@
+#!/usr/bin/env python3
+"""
+Generate the backend's seed dataset from CSVs produced by tmdb_convert.py.
+
+Reads titles.csv, genres.csv, people.csv, title_genres.csv, and cast_members.csv,
+filters the top N most popular movies/TV shows, and writes the same CSVs restricted
+to them into the backend resources. The backend bulk loads them with COPY on startup
+when they change (SeedDatabaseInitializer).
+
+Example:
+    python3 scripts/make_seed.py --input-dir data
+"""
+
+from __future__ import annotations
+
+import argparse
+import sys
+from pathlib import Path
+
+import polars as pl
+from polars import col
+
+
+def parse_args() -> argparse.Namespace:
+    p = argparse.ArgumentParser(description="Generate the seed CSVs from the full CSVs")
+    p.add_argument("--input-dir", type=Path, default=Path("data"))
+    p.add_argument(
+        "--output",
+        type=Path,
+        default=Path("backend/src/main/resources/seed"),
+    )
+    p.add_argument("--movie-limit", type=int, default=100)
+    p.add_argument("--tv-limit", type=int, default=50)
+    return p.parse_args()
+
+
+def main() -> int:
+    args = parse_args()
+    inp: Path = args.input_dir
+    output: Path = args.output
+
+    # Read titles, pick top N movies + TV by popularity
+    titles = pl.read_csv(inp / "titles.csv", infer_schema_length=0).with_columns(
+        col("id").cast(pl.Int64),
+        col("popularity").cast(pl.Float64),
+        col("rating_count").cast(pl.Int64, strict=False).fill_null(0),
+    )
+
+    movies = (
+        titles.filter(col("type") == "MOVIE")
+        .sort("popularity", descending=True)
+        .head(args.movie_limit)
+    )
+    tv = (
+        titles.filter(col("type") == "TV")
+        .sort("popularity", descending=True)
+        .head(args.tv_limit)
+    )
+    selected = pl.concat([movies, tv])
+    title_ids = set(selected["id"].to_list())
+
+    # Filter join tables to selected title_ids
+    title_genres = pl.read_csv(inp / "title_genres.csv").filter(
+        col("title_id").is_in(list(title_ids))
+    )
+    genre_ids = set(title_genres["genre_id"].to_list())
+
+    genres = pl.read_csv(inp / "genres.csv").filter(col("id").is_in(list(genre_ids)))
+
+    cast_members = pl.read_csv(
+        inp / "cast_members.csv", infer_schema_length=0
+    ).with_columns(
+        col("title_id").cast(pl.Int64),
+        col("person_id").cast(pl.Int64),
+        col("billing_order").cast(pl.Int64, strict=False),
+    ).filter(col("title_id").is_in(list(title_ids)))
+    person_ids = set(cast_members["person_id"].to_list())
+
+    people = pl.read_csv(inp / "people.csv", infer_schema_length=0).with_columns(
+        col("id").cast(pl.Int64),
+    ).filter(col("id").is_in(list(person_ids)))
+
+    # Cast columns to correct types for null handling
+    selected = selected.with_columns(
+        col("runtime_minutes").cast(pl.Int64, strict=False),
+        col("season_count").cast(pl.Int64, strict=False),
+        col("rating").cast(pl.Float64, strict=False).fill_null(6.5),
+    )
+
+    output.mkdir(parents=True, exist_ok=True)
+    tables = {
+        "genres": (genres, ["id", "name"]),
+        "titles": (selected, [
+            "id", "tmdb_id", "type", "title", "overview", "release_date", "runtime_minutes",
+            "season_count", "rating", "rating_count", "popularity", "poster_url",
+            "backdrop_url", "embedding",
+        ]),
+        "people": (people, ["id", "name", "profile_url"]),
+        "title_genres": (title_genres, ["title_id", "genre_id"]),
+        "cast_members": (cast_members, ["title_id", "person_id", "character_name", "billing_order"]),
+    }
+    for table, (frame, columns) in tables.items():
+        # CSVs converted before tmdb_id was kept lack it
+        columns = [c for c in columns if c in frame.columns]
+        # Nulls are written as empty unquoted fields
+        frame.select(columns).write_csv(output / f"{table}.csv", null_value="")
+
+    n_titles = selected.height
+    n_genres = genres.height
+    n_people = people.height
+    n_cast = cast_members.height
+    print(
+        f"Wrote {output}/: {n_titles} titles, {n_genres} genres, "
+        f"{n_people} people, {n_cast} cast members"
+    )
+    return 0
+
+
+if __name__ == "__main__":
+    sys.exit(main())
@@ -201,6 +201,7 @@ def main() -> int:
     # Write CSVs
     title_cols = [
         "id",
+        "tmdb_id",
         "type",
         "title",
         "overview",
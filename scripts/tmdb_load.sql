@@ -1,15 +1,64 @@
 \set on_error_stop on
 
-truncate table cast_members, title_genres, titles, people, genres
+-- Embedding index to rebuild after the load: none, halfvec or binary, matching
+-- app.recommendations.ann.quantization. Override with psql -v quantization=binary
+\if :{?quantization}
+\else
+    \set quantization none
+\endif
+select :'quantization' = 'none' as quantization_none,
+       :'quantization' = 'halfvec' as quantization_halfvec,
+       :'quantization' = 'binary' as quantization_binary,
+       :'quantization' in ('none', 'halfvec', 'binary') as quantization_known \gset
+\if :quantization_known
+\else
+    -- An error rather than \quit, which exits 0, so scripts see the load fail
+    set umdb.quantization = :'quantization';
+    do $$
+    begin
+        raise exception 'unknown quantization %, expected none, halfvec or binary',
+            current_setting('umdb.quantization');
+    end
+    $$;
+\endif
+
+-- Building hnsw once after the copy is much faster than maintaining it row by row
+drop index if exists idx_titles_embedding, idx_titles_embedding_half, idx_titles_embedding_binary;
+
+-- title_review_stats has no foreign key to titles, so the cascade would leave the old counts
+truncate table cast_members, title_genres, titles, people, genres, title_review_stats
     restart identity cascade;
 
 \copy genres (id, name) from 'genres.csv' with (format csv, header true);
-\copy titles (id, type, title, overview, release_date, runtime_minutes, season_count, rating, rating_count, popularity, poster_url, backdrop_url, embedding) from 'titles.csv' with (format csv, header true);
+-- The file's rating is the imported one: both the base rating and, with no reviews yet, the rating
+create temp table titles_csv as
+select id, tmdb_id, type, title, overview, release_date, runtime_minutes, season_count, rating, rating_count,
+       popularity, poster_url, backdrop_url, embedding
+from titles with no data;
+\copy titles_csv from 'titles.csv' with (format csv, header true);
+insert into titles (id, tmdb_id, type, title, overview, release_date, runtime_minutes, season_count, rating, rating_count,
+                    tmdb_rating, tmdb_rating_count, popularity, poster_url, backdrop_url, embedding)
+select id, tmdb_id, type, title, overview, release_date, runtime_minutes, season_count, rating, rating_count,
+       rating, rating_count, popularity, poster_url, backdrop_url, embedding
+from titles_csv;
+drop table titles_csv;
 \copy people (id, name, profile_url) from 'people.csv' with (format csv, header true);
 \copy title_genres (title_id, genre_id) from 'title_genres.csv' with (format csv, header true);
 \copy cast_members (title_id, person_id, character_name, billing_order) from 'cast_members.csv' with (format csv, header true);
 
+\if :quantization_none
+    create index idx_titles_embedding on titles using hnsw (embedding vector_cosine_ops);
+\elif :quantization_halfvec
+    create index idx_titles_embedding_half on titles using hnsw ((embedding::halfvec(256)) halfvec_cosine_ops);
+\elif :quantization_binary
+    create index idx_titles_embedding_binary on titles using hnsw ((binary_quantize(embedding)::bit(256)) bit_hamming_ops);
+\endif
+
 select setval(pg_get_serial_sequence('titles', 'id'), (select coalesce(max(id), 1) from titles));
 select setval(pg_get_serial_sequence('genres', 'id'), (select coalesce(max(id), 1) from genres));
 select setval(pg_get_serial_sequence('people', 'id'), (select coalesce(max(id), 1) from people));
 select setval(pg_get_serial_sequence('cast_members', 'id'), (select coalesce(max(id), 1) from cast_members));
+
+-- Running instances poll this to drop what they cached of the old catalog, see CatalogVersion
+insert into data_versions as v (name, version) values ('catalog', 1)
+on conflict (name) do update set version = v.version + 1, updated_at = now();